@@ -0,0 +1,74 @@
+package lk.sliit.lms.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lk.sliit.lms.audit.AuditBackpressure;
+import lk.sliit.lms.audit.AuditWriter;
+import lk.sliit.lms.auth.DbUserDetails;
+import lk.sliit.lms.auth.User;
+import lk.sliit.lms.auth.UserStatus;
+import lk.sliit.lms.security.AuthEventsListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AuthEventsListener}: building the audit row (and the failure metadata JSON)
+ * for each login event. The writer is never started and drops on a full buffer, so
+ * only the request-thread cost is measured, not the database insert.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthAuditEventBenchmark {
+
+    private AuthEventsListener listener;
+    private AuthenticationFailureBadCredentialsEvent failure;
+    private AuthenticationSuccessEvent success;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuditWriter writer = new AuditWriter(null, null, meterRegistry,
+                1, 200, Duration.ofMillis(250), AuditBackpressure.DROP);
+        listener = new AuthEventsListener(writer, null, meterRegistry);
+
+        failure = new AuthenticationFailureBadCredentialsEvent(
+                UsernamePasswordAuthenticationToken.unauthenticated("someone \"quoted\"@lms.local", "wrong"),
+                new BadCredentialsException("Bad credentials"));
+
+        User user = User.builder().id(7L).name("Bench").email("bench@lms.local").passwordHash("x")
+                .status(UserStatus.ACTIVE).createdAt(LocalDateTime.now()).build();
+        DbUserDetails principal = new DbUserDetails(user);
+        success = new AuthenticationSuccessEvent(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, List.of()));
+    }
+
+    @Benchmark
+    public void loginFailed() {
+        listener.onApplicationEvent(failure);
+    }
+
+    @Benchmark
+    public void loginSucceeded() {
+        listener.onApplicationEvent(success);
+    }
+}
@@ -0,0 +1,63 @@
+package lk.sliit.lms.benchmarks;
+
+import lk.sliit.lms.auth.DbUserDetails;
+import lk.sliit.lms.auth.RoleEntity;
+import lk.sliit.lms.auth.User;
+import lk.sliit.lms.auth.UserStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** {@link DbUserDetails#getAuthorities()}, called by every authorization check. */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthoritiesBenchmark {
+
+    @Param({"1", "3", "7"})
+    public int roles;
+
+    private DbUserDetails principal;
+
+    @Setup
+    public void setUp() {
+        String[] codes = {"STUDENT", "ASSISTANT", "LIBRARIAN", "CHIEF_LIBRARIAN", "ADMIN", "IT_SUPPORT", "ACADEMIC_COORD"};
+        Set<RoleEntity> set = new LinkedHashSet<>();
+        for (int i = 0; i < roles; i++) {
+            set.add(RoleEntity.builder().id((long) i + 1).code(codes[i]).name(codes[i]).build());
+        }
+        User user = User.builder()
+                .id(42L)
+                .name("Bench User")
+                .email("bench@lms.local")
+                .passwordHash("x")
+                .status(UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .roles(set)
+                .build();
+        principal = new DbUserDetails(user);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return principal.getAuthorities();
+    }
+}
@@ -0,0 +1,59 @@
+package lk.sliit.lms.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lk.sliit.lms.availability.AvailabilityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AvailabilityService#fill} for one page of 200 books out of 50k. With
+ * {@code -prof gc}, {@code gc.alloc.rate.norm} should stay at ~0 B/op.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilityBenchmark {
+
+    @Param({"50000"})
+    public int books;
+
+    @Param({"200"})
+    public int page;
+
+    private AvailabilityService availability;
+    private long[] ids;
+    private int[] out;
+
+    @Setup
+    public void setUp() {
+        availability = new AvailabilityService(null, new SimpleMeterRegistry());
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= books; id++) {
+            availability.queueChanged(id, random.nextInt(3));
+        }
+        ids = new long[page];
+        for (int i = 0; i < page; i++) ids[i] = 1 + random.nextInt(books);
+        out = new int[page * AvailabilityService.FIELDS];
+    }
+
+    @Benchmark
+    public int[] fillPage() {
+        availability.fill(ids, page, out);
+        return out;
+    }
+}
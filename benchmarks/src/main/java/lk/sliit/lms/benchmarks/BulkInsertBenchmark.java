@@ -0,0 +1,154 @@
+package lk.sliit.lms.benchmarks;
+
+import lk.sliit.lms.audit.AuditBatchInserter;
+import lk.sliit.lms.audit.AuditLog;
+import lk.sliit.lms.common.IdAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserting 1000 fines or audit rows: the IDENTITY way (one {@code INSERT} and one
+ * generated-key read per row, which is what Hibernate does for IDENTITY ids) against
+ * ids reserved from {@code id_sequences} and sent as JDBC batches ({@link IdAllocator}
+ * with the fine accrual job's batch update, and {@link AuditBatchInserter}'s multi-row
+ * insert in chunks of 200).
+ * <p>
+ * Runs on in-memory H2, where a statement costs no network round trip, so the gap
+ * shown here is a lower bound of the one on MySQL.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+    private static final int ROWS = 1000;
+    private static final int AUDIT_BATCH = 200;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private IdAllocator ids;
+    private AuditBatchInserter auditInserter;
+    private List<AuditLog> auditRows;
+    private final Timestamp now = Timestamp.valueOf(LocalDateTime.of(2025, 3, 10, 1, 30));
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:bulkinsert;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE id_sequences (sequence_name VARCHAR(64) PRIMARY KEY, last_reserved_id BIGINT NOT NULL)");
+        for (String table : List.of("fines", "fines_identity")) {
+            jdbc.execute("CREATE TABLE " + table + " (id BIGINT " + (table.endsWith("identity") ? "AUTO_INCREMENT " : "")
+                    + "PRIMARY KEY, user_id BIGINT NOT NULL, loan_id BIGINT NOT NULL, amount DECIMAL(10,2) NOT NULL, "
+                    + "status VARCHAR(20) NOT NULL, created_at TIMESTAMP NOT NULL)");
+        }
+        for (String table : List.of("audit_log", "audit_log_identity")) {
+            jdbc.execute("CREATE TABLE " + table + " (id BIGINT " + (table.endsWith("identity") ? "AUTO_INCREMENT " : "")
+                    + "PRIMARY KEY, actor_user_id BIGINT, action VARCHAR(100) NOT NULL, target_type VARCHAR(50) NOT NULL, "
+                    + "target_id BIGINT, ts TIMESTAMP NOT NULL, metadata CLOB)");
+        }
+        ids = new IdAllocator(jdbc, new DataSourceTransactionManager(dataSource), 1000);
+        auditInserter = new AuditBatchInserter(jdbc, ids);
+        auditRows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            auditRows.add(AuditLog.builder().actorUserId((long) i % 50).action("LOAN_CHECKOUT").targetType("LOAN")
+                    .targetId((long) i).timestamp(now.toLocalDateTime()).metadata("{\"bookId\":" + i + "}").build());
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        for (String table : List.of("fines", "fines_identity", "audit_log", "audit_log_identity")) {
+            jdbc.execute("TRUNCATE TABLE " + table);
+        }
+    }
+
+    @Benchmark
+    public long finesIdentityPerRow() throws SQLException {
+        Connection con = dataSource.getConnection();
+        long last = 0;
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO fines_identity (user_id, loan_id, amount, status, created_at) VALUES (?, ?, ?, 'PENDING', ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                ps.setLong(1, i % 50);
+                ps.setLong(2, i);
+                ps.setBigDecimal(3, BigDecimal.TEN);
+                ps.setTimestamp(4, now);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    last = keys.getLong(1);
+                }
+            }
+        }
+        return last;
+    }
+
+    @Benchmark
+    public int[] finesPooledBatch() {
+        List<Object[]> args = new ArrayList<>(ROWS);
+        long id = ids.allocate("fines", ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            args.add(new Object[]{id++, (long) i % 50, (long) i, BigDecimal.TEN, now});
+        }
+        return jdbc.batchUpdate(
+                "INSERT INTO fines (id, user_id, loan_id, amount, status, created_at) VALUES (?, ?, ?, ?, 'PENDING', ?)", args);
+    }
+
+    @Benchmark
+    public long auditIdentityPerRow() throws SQLException {
+        Connection con = dataSource.getConnection();
+        long last = 0;
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO audit_log_identity (actor_user_id, action, target_type, target_id, ts, metadata) VALUES (?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (AuditLog row : auditRows) {
+                ps.setLong(1, row.getActorUserId());
+                ps.setString(2, row.getAction());
+                ps.setString(3, row.getTargetType());
+                ps.setLong(4, row.getTargetId());
+                ps.setTimestamp(5, now);
+                ps.setString(6, row.getMetadata());
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    last = keys.getLong(1);
+                }
+            }
+        }
+        return last;
+    }
+
+    @Benchmark
+    public void auditPooledMultiRow() {
+        for (int from = 0; from < ROWS; from += AUDIT_BATCH) {
+            auditInserter.insert(auditRows.subList(from, Math.min(ROWS, from + AUDIT_BATCH)));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package lk.sliit.lms.benchmarks;
+
+import lk.sliit.lms.books.BookStatus;
+import lk.sliit.lms.search.CatalogSearchIndex;
+import lk.sliit.lms.search.IndexedBook;
+import lk.sliit.lms.search.SearchPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** {@link CatalogSearchIndex#search} over a synthetic catalog. */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogSearchBenchmark {
+    private static final String[] WORDS = {
+            "java", "clean", "code", "patterns", "design", "systems", "data", "distributed", "concurrency",
+            "practice", "effective", "modern", "introduction", "algorithms", "networks", "database", "compilers",
+            "architecture", "security", "learning", "machine", "functional", "programming", "testing", "cloud"};
+    private static final String[] AUTHORS = {
+            "Bloch", "Martin", "Fowler", "Kleppmann", "Goetz", "Knuth", "Tanenbaum", "Sedgewick", "Beck", "Evans"};
+    private static final String[] GENRES = {"Programming", "Databases", "Networking", "Theory", "Security"};
+
+    @Param({"50000"})
+    public int books;
+
+    private CatalogSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<IndexedBook> catalog = new ArrayList<>(books);
+        for (int i = 1; i <= books; i++) {
+            StringBuilder title = new StringBuilder();
+            int words = 2 + random.nextInt(4);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) title.append(' ');
+                title.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            catalog.add(new IndexedBook(i,
+                    String.format("978%010d", i),
+                    title.toString(),
+                    AUTHORS[random.nextInt(AUTHORS.length)],
+                    GENRES[random.nextInt(GENRES.length)],
+                    random.nextInt(4),
+                    random.nextInt(10) == 0 ? BookStatus.ARCHIVED : BookStatus.AVAILABLE));
+        }
+        index = new CatalogSearchIndex();
+        index.replaceAll(catalog);
+    }
+
+    @Benchmark
+    public SearchPage singleTerm() {
+        return index.search("java", false, null, 0, 20);
+    }
+
+    @Benchmark
+    public SearchPage typeaheadPrefix() {
+        return index.search("clean co", false, null, 0, 20);
+    }
+
+    @Benchmark
+    public SearchPage availableInGenre() {
+        return index.search("design patterns", true, "Programming", 0, 20);
+    }
+
+    @Benchmark
+    public SearchPage isbnLookup() {
+        return index.search("978-0000012345", false, null, 0, 20);
+    }
+}
@@ -0,0 +1,50 @@
+package lk.sliit.lms.benchmarks;
+
+import lk.sliit.lms.fines.FineCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/** {@link FineCalculator#amountFor}, evaluated once per overdue loan by the nightly accrual. */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FineCalculatorBenchmark {
+    private static final int LOANS = 1024;
+
+    private FineCalculator calculator;
+    private LocalDateTime asOf;
+    private LocalDateTime[] dueDates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        calculator = new FineCalculator(new BigDecimal("10.00"), new BigDecimal("500.00"), 0);
+        asOf = LocalDateTime.of(2025, 6, 1, 1, 30);
+        dueDates = new LocalDateTime[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            // 0..99 days overdue, so both capped and uncapped amounts are exercised.
+            dueDates[i] = asOf.minusDays(i % 100).minusHours(i % 24);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal amountFor() {
+        LocalDateTime dueAt = dueDates[next++ & (LOANS - 1)];
+        return calculator.amountFor(dueAt, asOf);
+    }
+}
@@ -0,0 +1,221 @@
+package lk.sliit.lms.benchmarks;
+
+import lk.sliit.lms.LmsBackendApplication;
+import lk.sliit.lms.auth.User;
+import lk.sliit.lms.auth.UserRepository;
+import lk.sliit.lms.auth.UserStatus;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load against {@code GET /api/reports/popular}, once with platform
+ * request threads and once with {@code lms.execution.virtual-threads=true}, printing
+ * throughput, rejections and p50/p99/max latency for each.
+ * <p>
+ * Not a JMH benchmark: it starts the application (H2, Hikari pool of 10) on a random
+ * port and drives it with {@code clients} concurrent callers, each sending its next
+ * request as soon as the previous one returns. Every connection checkout sleeps for
+ * {@code query-ms} while holding the connection, standing in for a MySQL round trip, so
+ * the pool rather than the CPU is the bottleneck. Run it with
+ * {@code exec:java -Dexec.mainClass=lk.sliit.lms.benchmarks.LoadTest}; options are system
+ * properties ({@code -Dload.clients=400 -Dload.seconds=20 -Dload.query-ms=5
+ * -Dload.modes=false,true}) because the plugin's argument list belongs to JMH.
+ */
+public final class LoadTest {
+    private static final String EMAIL = "load@lms.test";
+    private static final String PASSWORD = "load-test";
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 400);
+        int seconds = Integer.getInteger("load.seconds", 20);
+        int queryMillis = Integer.getInteger("load.query-ms", 5);
+        List<Result> results = new ArrayList<>();
+        for (String mode : System.getProperty("load.modes", "false,true").split(",")) {
+            results.add(run(Boolean.parseBoolean(mode.trim()), clients, seconds, queryMillis));
+        }
+        System.out.printf("%n%d clients, %d s, %d ms per connection checkout, pool of 10%n", clients, seconds, queryMillis);
+        System.out.printf("%-16s %9s %9s %9s %10s %9s %9s %9s%n",
+                "virtual-threads", "requests", "ok", "503", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (Result r : results) {
+            System.out.printf("%-16s %9d %9d %9d %10.0f %9.1f %9.1f %9.1f%n", r.virtualThreads, r.requests, r.ok,
+                    r.rejected, r.ok / (double) seconds, r.percentile(0.50), r.percentile(0.99), r.percentile(1.0));
+        }
+    }
+
+    private static Result run(boolean virtualThreads, int clients, int seconds, int queryMillis) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LmsBackendApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(slowConnections(queryMillis)))
+                .run("--spring.profiles.active=bench",
+                     "--server.port=0",
+                     "--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                     "--spring.datasource.hikari.maximum-pool-size=10",
+                     "--spring.jpa.hibernate.ddl-auto=create-drop",
+                     "--spring.flyway.enabled=false",
+                     "--lms.execution.virtual-threads=" + virtualThreads,
+                     "--logging.level.root=WARN");
+        try {
+            seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient http = HttpClient.newBuilder()
+                    .cookieHandler(new CookieManager())
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            login(http, port);
+            URI target = URI.create("http://localhost:" + port + "/api/reports/popular?limit=10");
+
+            drive(http, target, Math.min(clients, 50), 3); // warm-up, not recorded
+            Result result = drive(http, target, clients, seconds);
+            result.virtualThreads = virtualThreads;
+            return result;
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result drive(HttpClient http, URI target, int clients, int seconds) throws InterruptedException {
+        Result result = new Result(clients);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                callers.submit(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(60)).build();
+                    while (System.nanoTime() < deadline) {
+                        long started = System.nanoTime();
+                        int status;
+                        try {
+                            status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        result.record(client, status, System.nanoTime() - started);
+                    }
+                });
+            }
+        }
+        result.finish();
+        return result;
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        // Flyway owns the report tables; ddl-auto does not create them.
+        jdbc.execute("CREATE TABLE IF NOT EXISTS report_book_borrows (book_id BIGINT PRIMARY KEY, borrow_count BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS report_daily_checkouts (report_date DATE PRIMARY KEY, checkouts BIGINT NOT NULL)");
+        context.getBean(UserRepository.class).save(User.builder()
+                .name("Load Test")
+                .email(EMAIL)
+                .passwordHash(context.getBean(PasswordEncoder.class).encode(PASSWORD))
+                .status(UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private static void login(HttpClient http, int port) throws Exception {
+        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString("email=" + EMAIL + "&password=" + PASSWORD))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        String location = response.headers().firstValue("Location").orElse("");
+        if (response.statusCode() != 302 || location.contains("error")) {
+            throw new IllegalStateException("Login failed: " + response.statusCode() + " " + location);
+        }
+    }
+
+    /** Holds every pooled connection for {@code millis} after checkout, like a query round trip would. */
+    private static BeanPostProcessor slowConnections(int millis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource) return bean;
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        Connection connection = super.getConnection();
+                        try {
+                            Thread.sleep(millis);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return connection;
+                    }
+                };
+            }
+        };
+    }
+
+    /** Latencies of successful requests, kept per client so recording needs no lock. */
+    private static final class Result {
+        final long[][] latencies;
+        final int[] counts;
+        final LongAdder rejectedAdder = new LongAdder();
+        final LongAdder failedAdder = new LongAdder();
+        boolean virtualThreads;
+        long requests;
+        long ok;
+        long rejected;
+        long[] sorted;
+
+        Result(int clients) {
+            latencies = new long[clients][1024];
+            counts = new int[clients];
+        }
+
+        void record(int client, int status, long nanos) {
+            if (status == 200) {
+                if (counts[client] == latencies[client].length) {
+                    latencies[client] = Arrays.copyOf(latencies[client], counts[client] * 2);
+                }
+                latencies[client][counts[client]++] = nanos;
+            } else if (status == 503) {
+                rejectedAdder.increment();
+            } else {
+                failedAdder.increment();
+            }
+        }
+
+        /** Merges the per-client samples once every client has stopped. */
+        void finish() {
+            int total = Arrays.stream(counts).sum();
+            sorted = new long[total];
+            for (int c = 0, at = 0; c < counts.length; at += counts[c], c++) {
+                System.arraycopy(latencies[c], 0, sorted, at, counts[c]);
+            }
+            Arrays.sort(sorted);
+            ok = total;
+            rejected = rejectedAdder.sum();
+            requests = ok + rejected + failedAdder.sum();
+        }
+
+        /** Latency in ms at quantile {@code p} of the successful requests. */
+        double percentile(double p) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
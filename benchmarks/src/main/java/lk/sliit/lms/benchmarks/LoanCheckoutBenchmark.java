@@ -0,0 +1,100 @@
+package lk.sliit.lms.benchmarks;
+
+import lk.sliit.lms.LmsBackendApplication;
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.BookStatus;
+import lk.sliit.lms.loans.Loan;
+import lk.sliit.lms.loans.LoanService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checkout followed by return through {@link LoanService}, with the real JPA stack on
+ * an in-memory H2 database (MySQL mode) instead of MySQL. The full application context
+ * starts (on a random port) because the security configuration needs the servlet stack. Numbers are for comparing
+ * builds against each other, not for predicting production latency.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanCheckoutBenchmark {
+    private static final int BOOKS = 64;
+
+    private ConfigurableApplicationContext context;
+    private LoanService loanService;
+    private JdbcTemplate jdbcTemplate;
+    private long[] bookIds;
+    private final AtomicLong nextUser = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(LmsBackendApplication.class)
+                .run("--spring.profiles.active=bench",
+                     "--server.port=0",
+                     "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                     "--spring.jpa.hibernate.ddl-auto=create-drop",
+                     "--spring.flyway.enabled=false",
+                     "--logging.level.root=WARN");
+        loanService = context.getBean(LoanService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // Tables that Flyway owns and ddl-auto does not create; loan events write to them.
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS report_book_borrows (book_id BIGINT PRIMARY KEY, borrow_count BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS report_daily_checkouts (report_date DATE PRIMARY KEY, checkouts BIGINT NOT NULL)");
+        BookRepository books = context.getBean(BookRepository.class);
+        bookIds = new long[BOOKS];
+        for (int i = 0; i < BOOKS; i++) {
+            bookIds[i] = books.save(Book.builder()
+                    .isbn(String.format("978%010d", i))
+                    .title("Benchmark title " + i)
+                    .author("Author " + i)
+                    .quantity(1_000_000)
+                    .status(BookStatus.AVAILABLE)
+                    .build()).getId();
+        }
+    }
+
+    /** Keeps the loans table (which has no indexes under ddl-auto) from growing across iterations. */
+    @Setup(Level.Iteration)
+    public void clearLoans() {
+        jdbcTemplate.update("DELETE FROM loans");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Loan checkoutAndReturn() {
+        long user = nextUser.incrementAndGet();
+        Loan loan = loanService.checkout(bookIds[(int) (user % BOOKS)], user);
+        return loanService.returnLoan(loan.getId());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Loan checkoutAndReturnContended() {
+        return checkoutAndReturn();
+    }
+}
@@ -0,0 +1,38 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Time from launch to /readyz = UP (context ready + demo seeding), for the
+# plain exec jar and, when built with `mvn -Pfast-start package`, the AOT + CDS layout.
+# Needs the local MySQL (infra/docker-compose.yml). RUNS=5 scripts/startup-time.sh
+RUNS=${RUNS:-3}
+PORT=${SERVER_PORT:-8081}
+cd "$(dirname "$0")/.."
+
+measure() {
+  local label=$1; shift
+  for i in $(seq 1 "$RUNS"); do
+    local log="target/startup-$label-$i.log"
+    local start; start=$(date +%s%N)
+    bash -c "$*" > "$log" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:$PORT/readyz" > /dev/null; do
+      if ! kill -0 "$pid" 2> /dev/null; then
+        echo "[startup] $label exited early, see $log"
+        exit 1
+      fi
+      sleep 0.05
+    done
+    local end; end=$(date +%s%N)
+    echo "[startup] $label run $i: ready in $(( (end - start) / 1000000 )) ms"
+    grep -h "\[Startup\] Started in" "$log" | tail -1 || true
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+  done
+}
+
+measure plain "exec java -Dlms.startup.steps=true -jar $(ls target/lms-backend-*-exec.jar)"
+if [ -f target/fast-start/application.jsa ]; then
+  measure fast-start "cd target/fast-start && exec java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -Dlms.startup.steps=true -jar lms-backend.jar"
+else
+  echo "[startup] No target/fast-start (build with: mvn -Pfast-start package)"
+fi
@@ -2,11 +2,16 @@ package lk.sliit.lms;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class LmsBackendApplication {
     public static void main(String[] args) {
-        SpringApplication.run(LmsBackendApplication.class, args);
+        SpringApplication app = new SpringApplication(LmsBackendApplication.class);
+        // -Dlms.startup.steps=true records each startup step for the startup report and /actuator/startup.
+        if (Boolean.getBoolean("lms.startup.steps")) {
+            app.setApplicationStartup(new BufferingApplicationStartup(10_000));
+        }
+        app.run(args);
     }
 }
-
@@ -0,0 +1,40 @@
+package lk.sliit.lms.account;
+
+import lk.sliit.lms.loans.LoanStatus;
+import lk.sliit.lms.reservations.ReservationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * What a member's dashboard shows: open loans (soonest due first), reservations that are
+ * still waiting or ready to collect, and the total of unpaid fines, including fines on
+ * loans already returned.
+ */
+public record AccountSummary(long userId,
+                             List<LoanLine> loans,
+                             List<ReservationLine> reservations,
+                             BigDecimal finesDue,
+                             int unpaidFines) {
+
+    /** An open loan; {@code fineDue} is the unpaid fine accrued on it so far. */
+    public record LoanLine(long loanId,
+                           long bookId,
+                           String title,
+                           LocalDateTime checkoutAt,
+                           LocalDateTime dueAt,
+                           LoanStatus status,
+                           int renewals,
+                           BigDecimal fineDue) {
+    }
+
+    /** {@code queuePosition} is the 1-based place in line while PENDING, 0 once READY. */
+    public record ReservationLine(long reservationId,
+                                  long bookId,
+                                  String title,
+                                  ReservationStatus status,
+                                  LocalDateTime createdAt,
+                                  int queuePosition) {
+    }
+}
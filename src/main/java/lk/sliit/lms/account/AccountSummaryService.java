@@ -0,0 +1,134 @@
+package lk.sliit.lms.account;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lk.sliit.lms.common.EntityChangeBatch;
+import lk.sliit.lms.loans.Loan;
+import lk.sliit.lms.loans.LoanStatus;
+import lk.sliit.lms.reservations.Reservation;
+import lk.sliit.lms.reservations.ReservationStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Builds {@link AccountSummary} with two queries and no entity loading: open loans with
+ * their titles and accrued fines, then the fine totals joined with the waiting
+ * reservations and their live queue positions (counted on
+ * {@code idx_reservations_book_status_pos}).
+ * <p>
+ * Summaries are cached per user, together with an ETag over their content, and dropped
+ * when one of the user's loans or reservations changes. Fines are written by the nightly
+ * accrual job over JDBC, and other members leaving a queue moves this member up without
+ * touching their rows, so those changes show after at most
+ * {@code lms.account.summary-cache.ttl}. Hit/miss counts are exported as
+ * {@code cache.*{cache="account-summaries"}}.
+ */
+@Service
+public class AccountSummaryService {
+    private static final String SELECT_LOANS =
+            "SELECT l.id, l.book_id, b.title, l.checkout_at, l.due_at, l.status, l.renewal_count, " +
+            "COALESCE(f.amount, 0) AS fine_due " +
+            "FROM loans l JOIN books b ON b.id = l.book_id " +
+            "LEFT JOIN fines f ON f.loan_id = l.id AND f.status = 'PENDING' " +
+            "WHERE l.user_id = ? AND l.status IN ('ACTIVE', 'OVERDUE') ORDER BY l.due_at, l.id";
+
+    /** One row even without reservations, so the fine totals always come back. */
+    private static final String SELECT_FINES_AND_RESERVATIONS =
+            "SELECT t.fines_due, t.unpaid_fines, r.id, r.book_id, b.title, r.status, r.created_at, " +
+            "CASE WHEN r.status = 'PENDING' THEN (SELECT COUNT(*) FROM reservations q " +
+            "  WHERE q.book_id = r.book_id AND q.status = 'PENDING' " +
+            "  AND (q.position < r.position OR (q.position = r.position AND q.id <= r.id))) ELSE 0 END AS queue_position " +
+            "FROM (SELECT COALESCE(SUM(amount), 0) AS fines_due, COUNT(*) AS unpaid_fines " +
+            "      FROM fines WHERE user_id = ? AND status = 'PENDING') t " +
+            "LEFT JOIN reservations r ON r.user_id = ? AND r.status IN ('PENDING', 'READY') " +
+            "LEFT JOIN books b ON b.id = r.book_id " +
+            "ORDER BY r.created_at, r.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, Tagged> cache;
+
+    public AccountSummaryService(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${lms.account.summary-cache.ttl:1m}") Duration ttl,
+                                 @Value("${lms.account.summary-cache.max-size:10000}") long maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "account-summaries");
+    }
+
+    /** A summary and the ETag that identifies its content. */
+    public record Tagged(AccountSummary summary, String etag) {
+    }
+
+    public Tagged summary(long userId) {
+        return cache.get(userId, this::load);
+    }
+
+    public void invalidate(long userId) {
+        cache.invalidate(userId);
+    }
+
+    @EventListener
+    public void onEntityChanges(EntityChangeBatch batch) {
+        batch.ofType(Loan.class).forEach(c -> invalidate(c.entity().getUserId()));
+        batch.ofType(Reservation.class).forEach(c -> invalidate(c.entity().getUserId()));
+    }
+
+    private Tagged load(long userId) {
+        List<AccountSummary.LoanLine> loans = jdbcTemplate.query(SELECT_LOANS,
+                (rs, i) -> new AccountSummary.LoanLine(rs.getLong("id"), rs.getLong("book_id"), rs.getString("title"),
+                        toLocal(rs.getTimestamp("checkout_at")), toLocal(rs.getTimestamp("due_at")),
+                        LoanStatus.valueOf(rs.getString("status")), rs.getInt("renewal_count"),
+                        rs.getBigDecimal("fine_due")),
+                userId);
+        List<AccountSummary.ReservationLine> reservations = new ArrayList<>();
+        BigDecimal[] finesDue = {BigDecimal.ZERO};
+        int[] unpaidFines = {0};
+        jdbcTemplate.query(SELECT_FINES_AND_RESERVATIONS, (RowCallbackHandler) rs -> {
+            finesDue[0] = rs.getBigDecimal("fines_due");
+            unpaidFines[0] = rs.getInt("unpaid_fines");
+            long reservationId = rs.getLong("id");
+            if (rs.wasNull()) return;
+            reservations.add(new AccountSummary.ReservationLine(reservationId, rs.getLong("book_id"),
+                    rs.getString("title"), ReservationStatus.valueOf(rs.getString("status")),
+                    toLocal(rs.getTimestamp("created_at")), rs.getInt("queue_position")));
+        }, userId, userId);
+        AccountSummary summary = new AccountSummary(userId, loans, reservations, finesDue[0], unpaidFines[0]);
+        return new Tagged(summary, etagOf(summary));
+    }
+
+    /** Records print every component, so equal summaries hash to the same tag across restarts. */
+    private static String etagOf(AccountSummary summary) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(summary.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static LocalDateTime toLocal(Timestamp ts) {
+        return ts != null ? ts.toLocalDateTime() : null;
+    }
+}
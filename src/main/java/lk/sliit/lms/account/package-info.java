@@ -0,0 +1,5 @@
+/**
+ * The signed-in member's own account: open loans, reservations and unpaid fines, read
+ * with projection queries straight into records and cached per user.
+ */
+package lk.sliit.lms.account;
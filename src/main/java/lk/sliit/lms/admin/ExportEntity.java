@@ -0,0 +1,44 @@
+package lk.sliit.lms.admin;
+
+import lk.sliit.lms.common.NotFoundException;
+
+import java.util.List;
+
+/** Tables that can be exported, with the columns written (in order). Every table is paged on {@code id}. */
+public enum ExportEntity {
+    LOANS("loans", "loans",
+            List.of("id", "book_id", "user_id", "checkout_at", "due_at", "returned_at", "status", "renewal_count")),
+    FINES("fines", "fines",
+            List.of("id", "user_id", "loan_id", "amount", "status", "created_at", "paid_at")),
+    AUDIT_LOG("audit-log", "audit_log",
+            List.of("id", "actor_user_id", "action", "target_type", "target_id", "ts", "metadata"));
+
+    private final String path;
+    private final String table;
+    private final List<String> columns;
+
+    ExportEntity(String path, String table, List<String> columns) {
+        this.path = path;
+        this.table = table;
+        this.columns = columns;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    String table() {
+        return table;
+    }
+
+    List<String> columns() {
+        return columns;
+    }
+
+    public static ExportEntity fromPath(String path) {
+        for (ExportEntity e : values()) {
+            if (e.path.equals(path)) return e;
+        }
+        throw new NotFoundException("Nothing to export at: " + path);
+    }
+}
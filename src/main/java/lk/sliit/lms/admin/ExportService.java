@@ -0,0 +1,215 @@
+package lk.sliit.lms.admin;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Streams a whole table as NDJSON or CSV.
+ * <p>
+ * Rows are read in keyset pages ({@code id > last ORDER BY id LIMIT n}) with plain JDBC, so
+ * no entities are materialized. Each page is its own short read-only transaction (on the
+ * replica pool when one is configured) that copies the rows into a list of at most
+ * {@code lms.export.page-size} rows. The page is written and flushed only after that
+ * transaction has returned its connection, so a client that is slow to read holds no
+ * connection and no transaction. The result is not a snapshot; rows inserted during an
+ * export with a higher id are included.
+ */
+@Service
+public class ExportService {
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate reads;
+
+    @Value("${lms.export.page-size:5000}")
+    private int pageSize;
+
+    public ExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.reads = new TransactionTemplate(transactionManager);
+        this.reads.setReadOnly(true);
+    }
+
+    /** Writes rows with {@code id > afterId}; returns the number of rows written. */
+    public long export(ExportEntity entity, ExportFormat format, long afterId, OutputStream out) throws IOException {
+        String sql = "SELECT " + String.join(", ", entity.columns()) + " FROM " + entity.table()
+                + " WHERE id > ? ORDER BY id LIMIT ?";
+        try (RowWriter writer = format == ExportFormat.NDJSON
+                ? new NdjsonWriter(objectMapper.getFactory().createGenerator(out), entity.columns())
+                : new CsvWriter(out, entity.columns())) {
+            long lastId = afterId;
+            long total = 0;
+            while (true) {
+                long from = lastId;
+                List<Object[]> page = reads.execute(status -> jdbcTemplate.query(sql,
+                        (rs, n) -> row(rs, entity.columns().size()), from, pageSize));
+                // The connection is back in the pool; now push the page to the client.
+                for (Object[] row : page) {
+                    writer.write(row);
+                }
+                writer.flush();
+                total += page.size();
+                if (page.size() < pageSize) break;
+                lastId = ((Number) page.get(page.size() - 1)[0]).longValue();
+            }
+            log.info("[Export] {} rows of {} as {} (after id {})", total, entity.table(), format, afterId);
+            return total;
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; nothing left to send it.
+            throw e.getCause();
+        }
+    }
+
+    /** Copies the current row; CLOBs are read here, while the connection is still open. */
+    private static Object[] row(ResultSet rs, int width) throws SQLException {
+        Object[] row = new Object[width];
+        for (int i = 0; i < width; i++) {
+            Object value = rs.getObject(i + 1);
+            row[i] = value instanceof Clob clob ? clob.getSubString(1, (int) clob.length()) : value;
+        }
+        return row;
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        void write(Object[] row);
+
+        void flush();
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class NdjsonWriter implements RowWriter {
+        private final JsonGenerator json;
+        private final List<String> columns;
+
+        NdjsonWriter(JsonGenerator json, List<String> columns) {
+            this.json = json;
+            this.columns = columns;
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(Object[] row) {
+            try {
+                json.writeStartObject();
+                for (int i = 0; i < columns.size(); i++) {
+                    json.writeFieldName(columns.get(i));
+                    Object value = row[i];
+                    switch (value) {
+                        case null -> json.writeNull();
+                        case Long v -> json.writeNumber(v);
+                        case Integer v -> json.writeNumber(v);
+                        case BigDecimal v -> json.writeNumber(v);
+                        case Boolean v -> json.writeBoolean(v);
+                        default -> json.writeString(text(value));
+                    }
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void flush() {
+            try {
+                json.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+
+    private static final class CsvWriter implements RowWriter {
+        private final Writer out;
+        private final int width;
+
+        CsvWriter(OutputStream stream, List<String> columns) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 64 * 1024);
+            this.width = columns.size();
+            out.write(String.join(",", columns));
+            out.write("\r\n");
+        }
+
+        @Override
+        public void write(Object[] row) {
+            try {
+                for (int i = 0; i < width; i++) {
+                    if (i > 0) out.write(',');
+                    Object value = row[i];
+                    if (value != null) writeField(text(value));
+                }
+                out.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /** RFC 4180: quote fields containing separators, quotes or line breaks; double embedded quotes. */
+        private void writeField(String s) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < s.length() && !quote; i++) {
+                char c = s.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.write(s);
+                return;
+            }
+            out.write('"');
+            out.write(s.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void flush() {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static String text(Object value) {
+        // TIMESTAMP columns come back as java.sql.Timestamp; print them like DATETIME (ISO-8601).
+        if (value instanceof Timestamp ts) return ts.toLocalDateTime().toString();
+        if (value instanceof BigDecimal bd) return bd.toPlainString();
+        return value.toString();
+    }
+}
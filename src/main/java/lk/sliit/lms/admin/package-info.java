@@ -1,5 +1,5 @@
 /**
- * Admin endpoints (role mgmt, reports export stubs) — placeholders for now.
+ * Admin tooling: streaming exports of loans, fines and the audit log
+ * ({@link lk.sliit.lms.admin.ExportService}). Role management is still to come.
  */
 package lk.sliit.lms.admin;
-
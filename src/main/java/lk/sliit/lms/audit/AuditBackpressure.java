@@ -0,0 +1,11 @@
+package lk.sliit.lms.audit;
+
+/** What {@link AuditWriter#submit} does when the in-memory buffer is full. */
+public enum AuditBackpressure {
+    /** Wait for the writer to free a slot (login latency absorbs the database stall). */
+    BLOCK,
+    /** Discard the event and count it in {@code lms.audit.dropped}. */
+    DROP,
+    /** Append the event to the local {@link AuditJournal}. */
+    SPILL
+}
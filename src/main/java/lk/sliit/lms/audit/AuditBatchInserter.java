@@ -0,0 +1,50 @@
+package lk.sliit.lms.audit;
+
+import lk.sliit.lms.common.IdAllocator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Writes audit rows with one multi-row {@code INSERT ... VALUES (...), (...)} per
+ * batch, bypassing JPA. Ids for the whole batch are reserved up front from
+ * {@link IdAllocator}, usually without a round trip.
+ */
+@Component
+public class AuditBatchInserter {
+    private static final String INSERT_PREFIX =
+            "INSERT INTO audit_log (id, actor_user_id, action, target_type, target_id, ts, metadata) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdAllocator ids;
+
+    public AuditBatchInserter(JdbcTemplate jdbcTemplate, IdAllocator ids) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = ids;
+    }
+
+    public void insert(List<AuditLog> rows) {
+        if (rows.isEmpty()) return;
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows.size() * (ROW.length() + 2));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[rows.size() * 7];
+        long id = ids.allocate("audit_log", rows.size());
+        int a = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(ROW);
+            AuditLog row = rows.get(i);
+            args[a++] = id++;
+            args[a++] = row.getActorUserId();
+            args[a++] = row.getAction();
+            args[a++] = row.getTargetType();
+            args[a++] = row.getTargetId();
+            args[a++] = Timestamp.valueOf(row.getTimestamp());
+            args[a++] = row.getMetadata();
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+}
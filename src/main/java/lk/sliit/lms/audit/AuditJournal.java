@@ -0,0 +1,385 @@
+package lk.sliit.lms.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal for audit events that could not reach MySQL.
+ * <p>
+ * The journal is a directory of fixed-size segment files ({@code audit-<seq>.seg}).
+ * Each record is framed as {@code [int length][int crc32][payload]}, with the length
+ * written last, so a zero length marks the end of written data (a torn write at the tail
+ * reads as one). A frame that fails its CRC, or a length that cannot be right, is
+ * corruption: it is skipped and reading resumes at the next position holding a valid
+ * frame, so one bad record does not cost the rest of the segment. When a frame does not
+ * fit, the segment is sealed and a new one is started.
+ * <p>
+ * {@link #append} only copies frames into the mapped segment; {@link AuditWriter}'s
+ * thread calls {@link #sync} once per flush interval, so a burst of spilled events shares
+ * one {@code force()} (group commit). State is guarded by a {@code ReentrantLock}, not a
+ * monitor, so virtual threads spilling during a database stall do not pin their carriers.
+ * Mapped segments are unmapped before they are closed or deleted; Windows refuses to
+ * delete a file that is still mapped.
+ * <p>
+ * {@link AuditJournalReplayer} drains sealed segments back into {@code audit_log};
+ * the replay offset of the segment in progress is kept in a {@code .offset} sidecar
+ * so a restart resumes where it stopped (delivery is at-least-once).
+ */
+@Component
+public class AuditJournal {
+    private static final Logger log = LoggerFactory.getLogger(AuditJournal.class);
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".seg";
+    private static final int HEADER_BYTES = 8;
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("sun.misc.Unsafe not available, journal segments are unmapped by the GC: {}", e.toString());
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Path dir;
+    private final int segmentBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private long activeSeq = -1;
+    /** Frames appended since the last {@link #sync}. */
+    private boolean dirty;
+
+    public AuditJournal(@Value("${lms.audit.journal.dir:var/audit-journal}") Path dir,
+                        @Value("${lms.audit.journal.segment-size:16MB}") DataSize segmentSize) {
+        this.dir = dir;
+        this.segmentBytes = (int) segmentSize.toBytes();
+    }
+
+    /** Copies the rows into the active segment; they are durable after the next {@link #sync}. */
+    public void append(List<AuditLog> rows) {
+        lock.lock();
+        try {
+            for (AuditLog row : rows) {
+                byte[] payload = encode(row);
+                if (payload.length + HEADER_BYTES > segmentBytes) {
+                    throw new IOException("Audit record larger than a journal segment (" + payload.length + " bytes)");
+                }
+                ensureActive();
+                if (active.remaining() < HEADER_BYTES + payload.length) {
+                    roll();
+                }
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                // Write the body first and the length last, so a torn frame reads as end-of-data.
+                int start = active.position();
+                active.position(start + 4);
+                active.putInt((int) crc.getValue());
+                active.put(payload);
+                int end = active.position();
+                active.putInt(start, payload.length);
+                active.position(end);
+                dirty = true;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to audit journal " + dir, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Forces frames appended since the last call to disk; a no-op when there are none. */
+    public void sync() {
+        lock.lock();
+        try {
+            if (!dirty || active == null) return;
+            active.force();
+            dirty = false;
+        } catch (UncheckedIOException e) {
+            log.warn("Audit journal sync failed, will retry: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** True if any journaled events are waiting to be replayed. */
+    public boolean hasBacklog() {
+        lock.lock();
+        try {
+            if (active != null && active.position() > 0) return true;
+            return !sealedSegments().isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Seals the active segment (if it holds data) so the replayer can drain it,
+     * and returns all sealed segments, oldest first.
+     */
+    public List<Path> sealForReplay() {
+        lock.lock();
+        try {
+            if (active != null && active.position() > 0) {
+                closeActive();
+            }
+            return sealedSegments();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Reads complete frames of a sealed segment starting at {@code offset}. */
+    public Segment read(Path segment) throws IOException {
+        long offset = readOffset(segment);
+        List<AuditLog> rows = new ArrayList<>();
+        List<Long> ends = new ArrayList<>();
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            try {
+                int pos = (int) offset;
+                while (pos + HEADER_BYTES <= buf.limit()) {
+                    int length = buf.getInt(pos);
+                    if (length == 0) break;
+                    byte[] payload = frameAt(buf, pos);
+                    if (payload == null) {
+                        int next = nextFrame(buf, pos + 1);
+                        log.warn("Audit journal {}: corrupt frame at offset {}, {}", segment.getFileName(), pos,
+                                next < 0 ? "no valid frame after it" : "resuming at offset " + next);
+                        if (next < 0) break;
+                        pos = next;
+                        continue;
+                    }
+                    rows.add(decode(payload));
+                    pos += HEADER_BYTES + payload.length;
+                    ends.add((long) pos);
+                }
+            } finally {
+                unmap(buf);
+            }
+        }
+        return new Segment(segment, rows, ends);
+    }
+
+    /** Payload of the frame at {@code pos}, or {@code null} if its length or CRC is wrong. */
+    private static byte[] frameAt(ByteBuffer buf, int pos) {
+        int length = buf.getInt(pos);
+        if (length <= 0 || length > buf.limit() - pos - HEADER_BYTES) return null;
+        byte[] payload = new byte[length];
+        buf.get(pos + HEADER_BYTES, payload);
+        CRC32 check = new CRC32();
+        check.update(payload);
+        return (int) check.getValue() == buf.getInt(pos + 4) ? payload : null;
+    }
+
+    /** First position at or after {@code from} that holds a valid frame, or -1. */
+    private static int nextFrame(ByteBuffer buf, int from) {
+        for (int pos = from; pos + HEADER_BYTES <= buf.limit(); pos++) {
+            if (buf.getInt(pos) != 0 && frameAt(buf, pos) != null) return pos;
+        }
+        return -1;
+    }
+
+    public void commitOffset(Path segment, long offset) throws IOException {
+        Path tmp = segment.resolveSibling(segment.getFileName() + ".offset.tmp");
+        Files.writeString(tmp, Long.toString(offset));
+        Files.move(tmp, offsetFile(segment), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void delete(Path segment) throws IOException {
+        Files.deleteIfExists(offsetFile(segment));
+        Files.deleteIfExists(segment);
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            closeActive();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureActive() throws IOException {
+        if (active != null) return;
+        Files.createDirectories(dir);
+        long seq = nextSequence();
+        Path file = dir.resolve(String.format("%s%016d%s", PREFIX, seq, SUFFIX));
+        activeChannel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        activeSeq = seq;
+    }
+
+    private void roll() throws IOException {
+        closeActive();
+        ensureActive();
+    }
+
+    private void closeActive() {
+        if (active == null) return;
+        try {
+            active.force();
+            unmap(active);
+            activeChannel.close();
+        } catch (IOException e) {
+            log.warn("Closing audit journal segment {} failed: {}", activeSeq, e.getMessage());
+        }
+        active = null;
+        activeChannel = null;
+        dirty = false;
+    }
+
+    /**
+     * Releases a mapping now instead of when the buffer is collected. There is no public
+     * API for this before the FFM {@code Arena} overload of {@code FileChannel.map} (final
+     * in Java 22), so this goes through {@code sun.misc.Unsafe.invokeCleaner}; if that is
+     * unavailable the mapping is left to the GC. The buffer must not be used afterwards.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Could not unmap audit journal segment: {}", e.toString());
+        }
+    }
+
+    private long nextSequence() throws IOException {
+        long max = activeSeq;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                long seq = sequenceOf(p);
+                if (seq > max) max = seq;
+            }
+        }
+        return max + 1;
+    }
+
+    private List<Path> sealedSegments() {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> sequenceOf(p) >= 0)
+                    .filter(p -> active == null || sequenceOf(p) != activeSeq)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sequenceOf(Path p) {
+        String name = p.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) return -1;
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Path offsetFile(Path segment) {
+        return segment.resolveSibling(segment.getFileName() + ".offset");
+    }
+
+    private static long readOffset(Path segment) throws IOException {
+        Path f = offsetFile(segment);
+        return Files.exists(f) ? Long.parseLong(Files.readString(f).trim()) : 0L;
+    }
+
+    static byte[] encode(AuditLog row) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeNullableLong(out, row.getActorUserId());
+            out.writeUTF(row.getAction());
+            out.writeUTF(row.getTargetType());
+            writeNullableLong(out, row.getTargetId());
+            out.writeUTF(row.getTimestamp().toString());
+            writeNullableString(out, row.getMetadata());
+        }
+        return bytes.toByteArray();
+    }
+
+    static AuditLog decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) throw new IOException("Unknown audit journal format " + version);
+            return AuditLog.builder()
+                    .actorUserId(readNullableLong(in))
+                    .action(in.readUTF())
+                    .targetType(in.readUTF())
+                    .targetId(readNullableLong(in))
+                    .timestamp(LocalDateTime.parse(in.readUTF()))
+                    .metadata(readNullableString(in))
+                    .build();
+        }
+    }
+
+    private static void writeNullableLong(DataOutputStream out, Long v) throws IOException {
+        out.writeBoolean(v != null);
+        if (v != null) out.writeLong(v);
+    }
+
+    private static Long readNullableLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String v) throws IOException {
+        if (v == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = v.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        return new String(in.readNBytes(len), StandardCharsets.UTF_8);
+    }
+
+    /** Frames read from one segment; {@code ends.get(i)} is the file offset just past row i. */
+    public record Segment(Path path, List<AuditLog> rows, List<Long> ends) {
+    }
+}
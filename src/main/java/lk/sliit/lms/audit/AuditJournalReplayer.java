@@ -0,0 +1,76 @@
+package lk.sliit.lms.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Periodically drains the {@link AuditJournal} into {@code audit_log} once the
+ * database answers again, then lets {@link AuditWriter} go back to writing directly.
+ */
+@Component
+public class AuditJournalReplayer {
+    private static final Logger log = LoggerFactory.getLogger(AuditJournalReplayer.class);
+
+    private final AuditJournal journal;
+    private final AuditBatchInserter inserter;
+    private final AuditWriter writer;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public AuditJournalReplayer(AuditJournal journal,
+                                AuditBatchInserter inserter,
+                                AuditWriter writer,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${lms.audit.batch-size:200}") int batchSize) {
+        this.journal = journal;
+        this.inserter = inserter;
+        this.writer = writer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${lms.audit.journal.replay-interval:30s}",
+               initialDelayString = "${lms.audit.journal.replay-interval:30s}")
+    public void replay() {
+        if (!journal.hasBacklog() && writer.isDatabaseHealthy()) return;
+        if (!databaseAnswers()) return;
+
+        long replayed = 0;
+        try {
+            for (Path segment : journal.sealForReplay()) {
+                AuditJournal.Segment read = journal.read(segment);
+                List<AuditLog> rows = read.rows();
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    int to = Math.min(rows.size(), from + batchSize);
+                    inserter.insert(rows.subList(from, to));
+                    journal.commitOffset(segment, read.ends().get(to - 1));
+                    replayed += to - from;
+                }
+                journal.delete(segment);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Audit journal replay stopped after {} events: {}", replayed, e.getMessage());
+            return;
+        }
+        if (replayed > 0) log.info("Audit journal replayed {} events into audit_log", replayed);
+        if (!journal.hasBacklog()) writer.markDatabaseHealthy();
+    }
+
+    private boolean databaseAnswers() {
+        try {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("Audit journal replay skipped, database not reachable: {}", e.getMessage());
+            return false;
+        }
+    }
+}
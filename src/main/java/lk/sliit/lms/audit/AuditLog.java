@@ -1,6 +1,7 @@
 package lk.sliit.lms.audit;
 
 import jakarta.persistence.*;
+import lk.sliit.lms.common.IdAllocator;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -15,7 +16,9 @@ import java.time.LocalDateTime;
 public class AuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "audit_log_ids")
+    @TableGenerator(name = "audit_log_ids", table = IdAllocator.TABLE, pkColumnName = IdAllocator.NAME_COLUMN,
+            valueColumnName = IdAllocator.VALUE_COLUMN, pkColumnValue = "audit_log", allocationSize = IdAllocator.ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "actor_user_id")
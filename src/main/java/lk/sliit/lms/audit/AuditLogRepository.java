@@ -1,7 +1,17 @@
 package lk.sliit.lms.audit;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDateTime;
+
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-}
 
+    /** Newest first; idx_audit_log_ts. */
+    Slice<AuditLog> findByTimestampBetweenOrderByTimestampDescIdDesc(LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    /** One actor's entries, newest first; idx_audit_log_actor_ts. */
+    Slice<AuditLog> findByActorUserIdAndTimestampBetweenOrderByTimestampDescIdDesc(Long actorUserId, LocalDateTime from,
+                                                                                    LocalDateTime to, Pageable pageable);
+}
@@ -0,0 +1,201 @@
+package lk.sliit.lms.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous audit pipeline. Request threads {@link #submit} into a bounded buffer
+ * and return immediately; one background writer drains it and inserts rows in
+ * batches of up to {@code lms.audit.batch-size}, or whatever arrived within
+ * {@code lms.audit.flush-interval} of the first buffered event.
+ * <p>
+ * When the buffer is full the configured {@link AuditBackpressure} policy applies; under
+ * SPILL the request thread only copies the event into the journal's mapped segment and the
+ * writer forces everything spilled since its last pass to disk in one go, at least once
+ * per flush interval.
+ * When a batch insert fails the writer journals that batch and every later one to the
+ * local {@link AuditJournal} (no more waiting on a sick pool) until
+ * {@link AuditJournalReplayer} has drained the backlog and reports the database healthy.
+ * On shutdown the writer is asked to finish its current batch and exit (it is not
+ * interrupted); once it has, the rest of the buffer is flushed before the DataSource
+ * is closed.
+ */
+@Component
+public class AuditWriter implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(AuditWriter.class);
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final AuditBatchInserter inserter;
+    private final AuditJournal journal;
+    private final BlockingQueue<AuditLog> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final AuditBackpressure backpressure;
+    private final Counter dropped;
+    private final Counter journaled;
+    private final Counter written;
+    private final Timer insertTimer;
+
+    private volatile boolean running;
+    private volatile boolean databaseHealthy = true;
+    private Thread writer;
+
+    public AuditWriter(AuditBatchInserter inserter,
+                       AuditJournal journal,
+                       MeterRegistry meterRegistry,
+                       @Value("${lms.audit.buffer-size:8192}") int bufferSize,
+                       @Value("${lms.audit.batch-size:200}") int batchSize,
+                       @Value("${lms.audit.flush-interval:250ms}") Duration flushInterval,
+                       @Value("${lms.audit.backpressure:SPILL}") AuditBackpressure backpressure) {
+        this.inserter = inserter;
+        this.journal = journal;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.backpressure = backpressure;
+        this.dropped = meterRegistry.counter("lms.audit.dropped");
+        this.journaled = meterRegistry.counter("lms.audit.journaled");
+        this.written = meterRegistry.counter("lms.audit.written");
+        this.insertTimer = meterRegistry.timer("lms.audit.insert");
+        Gauge.builder("lms.audit.buffer.depth", buffer, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public void submit(AuditLog event) {
+        if (buffer.offer(event)) return;
+        switch (backpressure) {
+            case BLOCK -> {
+                try {
+                    buffer.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                }
+            }
+            case DROP -> dropped.increment();
+            case SPILL -> journal(List.of(event));
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        // No interrupt: it would abort an insert mid-batch and close the journal's channel
+        // under a spill. The writer sees the flag within one flush interval, finishes its
+        // pass and exits; only then is the buffer drained here.
+        running = false;
+        boolean stuck = false;
+        if (writer != null) {
+            try {
+                writer.join(STOP_TIMEOUT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stuck = writer.isAlive();
+        }
+        // Whatever the writer did not get to before it exited.
+        List<AuditLog> rest = new ArrayList<>();
+        buffer.drainTo(rest);
+        if (stuck) {
+            // Still inside an insert: don't race it for the pool, keep the rest for replay.
+            log.warn("Audit writer did not finish within {}, journaling {} buffered events", STOP_TIMEOUT, rest.size());
+            if (!rest.isEmpty()) journal(rest);
+        } else {
+            for (int i = 0; i < rest.size(); i += batchSize) {
+                flush(rest.subList(i, Math.min(rest.size(), i + batchSize)));
+            }
+        }
+        journal.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runWriter() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                AuditLog first = buffer.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    journal.sync();
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    AuditLog next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Not how stop() ends us, but if something else does: flush what we hold and exit.
+                running = false;
+            }
+            flush(batch);
+            batch.clear();
+            journal.sync();
+        }
+    }
+
+    public boolean isDatabaseHealthy() {
+        return databaseHealthy;
+    }
+
+    void markDatabaseHealthy() {
+        if (!databaseHealthy) log.info("Audit writer: database healthy again, writing directly");
+        databaseHealthy = true;
+    }
+
+    private void flush(List<AuditLog> batch) {
+        if (batch.isEmpty()) return;
+        if (!databaseHealthy) {
+            journal(batch);
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            inserter.insert(batch);
+            insertTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Audit batch of {} rows failed, journaling until the database recovers: {}", batch.size(), e.getMessage());
+            databaseHealthy = false;
+            journal(batch);
+        }
+    }
+
+    private void journal(List<AuditLog> events) {
+        try {
+            journal.append(events);
+            journaled.increment(events.size());
+        } catch (RuntimeException e) {
+            log.error("Audit journal append failed, {} events lost: {}", events.size(), e.getMessage());
+            dropped.increment(events.size());
+        }
+    }
+}
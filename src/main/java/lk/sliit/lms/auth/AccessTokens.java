@@ -0,0 +1,95 @@
+package lk.sliit.lms.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and verifies compact HMAC-SHA256 access tokens for API clients
+ * ({@code lms.auth.token.enabled=true}).
+ * <p>
+ * A token is {@code base64url(payload) "." base64url(hmac)} where the payload is
+ * {@code v1|userId|issuedAtMs|expiresAtMs|ROLE,ROLE} (role codes from {@link RoleEntity#getCode()}).
+ * Verification is a MAC and a few string splits; nothing is read from the database, so any
+ * node holding the same {@code lms.auth.token.secret} accepts any other node's tokens.
+ * Role changes take effect when the token expires; {@link TokenRevocations} cuts it short.
+ */
+@Component
+@ConditionalOnProperty(name = "lms.auth.token.enabled", havingValue = "true")
+public class AccessTokens {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "v1";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    public AccessTokens(@Value("${lms.auth.token.secret:}") String secret,
+                        @Value("${lms.auth.token.ttl:15m}") Duration ttl) {
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < 32) {
+            throw new IllegalStateException("lms.auth.token.secret must be at least 32 bytes when lms.auth.token.enabled=true");
+        }
+        this.key = new SecretKeySpec(bytes, ALGORITHM);
+        this.ttl = ttl;
+    }
+
+    public Issued issue(PrincipalSnapshot user) {
+        long issuedAt = System.currentTimeMillis();
+        long expiresAt = issuedAt + ttl.toMillis();
+        String roles = user.roles().stream().sorted().collect(Collectors.joining(","));
+        String payload = ENCODER.encodeToString(
+                String.join("|", VERSION, Long.toString(user.id()), Long.toString(issuedAt), Long.toString(expiresAt), roles)
+                        .getBytes(StandardCharsets.UTF_8));
+        return new Issued(payload + "." + ENCODER.encodeToString(sign(payload)), Instant.ofEpochMilli(expiresAt));
+    }
+
+    /** Empty if the token is malformed, carries a bad signature or has expired at {@code nowMs}. */
+    public Optional<Claims> verify(String token, long nowMs) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) return Optional.empty();
+        String payload = token.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(sign(payload), DECODER.decode(token.substring(dot + 1)))) return Optional.empty();
+            String[] fields = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\\|", -1);
+            if (fields.length != 5 || !VERSION.equals(fields[0])) return Optional.empty();
+            long expiresAt = Long.parseLong(fields[3]);
+            if (nowMs >= expiresAt) return Optional.empty();
+            List<String> roles = fields[4].isEmpty() ? List.of() : Arrays.asList(fields[4].split(","));
+            return Optional.of(new Claims(Long.parseLong(fields[1]), roles, Long.parseLong(fields[2]), expiresAt));
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or a non-numeric field (NumberFormatException is an IllegalArgumentException).
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " unavailable", e);
+        }
+    }
+
+    public record Issued(String token, Instant expiresAt) {
+    }
+
+    public record Claims(long userId, List<String> roles, long issuedAtMs, long expiresAtMs) {
+    }
+}
@@ -0,0 +1,9 @@
+package lk.sliit.lms.auth;
+
+/**
+ * A signed-in library account, whichever way it authenticated: a session login
+ * ({@link DbUserDetails}) or a bearer token ({@link TokenPrincipal}).
+ */
+public interface AccountPrincipal {
+    long userId();
+}
@@ -0,0 +1,35 @@
+package lk.sliit.lms.auth;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt cost for this machine: the highest cost whose hash still fits in the
+ * target time, never below {@link #MIN_COST} (Spring's default) or above {@link #MAX_COST}.
+ * One cost-{@value #MIN_COST} hash is timed (after a warm-up) and extrapolated, since each
+ * step doubles the work.
+ */
+public final class BcryptCost {
+    public static final int MIN_COST = 10;
+    public static final int MAX_COST = 16;
+
+    private BcryptCost() {
+    }
+
+    public static int calibrate(Duration target) {
+        String salt = BCrypt.gensalt(MIN_COST);
+        BCrypt.hashpw("calibration", salt);
+        long started = System.nanoTime();
+        BCrypt.hashpw("calibration", salt);
+        long minCostNanos = Math.max(1, System.nanoTime() - started);
+
+        int cost = MIN_COST;
+        long nanos = minCostNanos;
+        while (cost < MAX_COST && nanos * 2 <= target.toNanos()) {
+            nanos *= 2;
+            cost++;
+        }
+        return cost;
+    }
+}
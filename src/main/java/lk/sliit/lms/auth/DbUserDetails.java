@@ -1,5 +1,6 @@
 package lk.sliit.lms.auth;
 
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -8,28 +9,38 @@ import java.util.Collection;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
-public class DbUserDetails implements UserDetails {
-    private final User user;
+/**
+ * A signed-in member: the cached {@link PrincipalSnapshot} plus the password hash read for
+ * this login, which Spring Security erases once authentication has finished.
+ */
+public class DbUserDetails implements UserDetails, AccountPrincipal, CredentialsContainer {
+    private final PrincipalSnapshot principal;
+    private String passwordHash;
 
     public DbUserDetails(User user) {
-        this.user = Objects.requireNonNull(user);
+        this(PrincipalSnapshot.of(user), user.getPasswordHash());
+    }
+
+    public DbUserDetails(PrincipalSnapshot principal, String passwordHash) {
+        this.principal = Objects.requireNonNull(principal);
+        this.passwordHash = passwordHash;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles().stream()
-                .map(r -> new SimpleGrantedAuthority("ROLE_" + r.getCode()))
+        return principal.roles().stream()
+                .map(code -> new SimpleGrantedAuthority("ROLE_" + code))
                 .collect(Collectors.toSet());
     }
 
     @Override
     public String getPassword() {
-        return user.getPasswordHash();
+        return passwordHash;
     }
 
     @Override
     public String getUsername() {
-        return user.getEmail();
+        return principal.email();
     }
 
     @Override
@@ -41,9 +52,16 @@ public class DbUserDetails implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return user.getStatus() == UserStatus.ACTIVE;
+        return principal.status() == UserStatus.ACTIVE;
     }
 
-    public User getUser() { return user; }
-}
+    @Override
+    public void eraseCredentials() {
+        passwordHash = null;
+    }
+
+    public PrincipalSnapshot getPrincipal() { return principal; }
 
+    @Override
+    public long userId() { return principal.id(); }
+}
@@ -1,23 +1,63 @@
 package lk.sliit.lms.auth;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Login lookups, timed as {@code lms.auth.user.lookup}: the member from {@link PrincipalCache}
+ * (a hit, or one query) and then the password hash by primary key, which is never cached.
+ * <p>
+ * Also stores re-encoded password hashes: after a successful login whose hash is below the
+ * configured BCrypt cost, Spring Security hands over a fresh hash of the same password.
+ */
 @Service
-public class DbUserDetailsService implements UserDetailsService {
+public class DbUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+    private final PrincipalCache principalCache;
     private final UserRepository userRepository;
+    private final TransactionTemplate tx;
+    private final Timer lookups;
 
-    public DbUserDetailsService(UserRepository userRepository) {
+    public DbUserDetailsService(PrincipalCache principalCache,
+                                UserRepository userRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.principalCache = principalCache;
         this.userRepository = userRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.lookups = meterRegistry.timer("lms.auth.user.lookup");
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByEmailIgnoreCase(username)
-                .map(DbUserDetails::new)
+        return lookups.record(() -> principalCache.findByEmail(username)
+                        .flatMap(p -> userRepository.findPasswordHashById(p.id()).map(hash -> new DbUserDetails(p, hash))))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
-}
 
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        long userId = ((DbUserDetails) user).userId();
+        // Reload rather than save the cached copy, so a concurrent change to the user is not overwritten.
+        User updated;
+        try {
+            updated = tx.execute(status -> userRepository.findById(userId)
+                    .map(u -> {
+                        u.setPasswordHash(newPassword);
+                        return u;
+                    })
+                    .orElse(null));
+        } catch (OptimisticLockingFailureException e) {
+            // Another login or an admin edit got there first; the next login re-encodes if still needed.
+            return user;
+        }
+        return updated != null ? new DbUserDetails(updated) : user;
+    }
+}
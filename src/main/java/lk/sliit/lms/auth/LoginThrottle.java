@@ -0,0 +1,114 @@
+package lk.sliit.lms.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Failed sign-in counters per client address and per email-and-address pair, so a
+ * credential-stuffing wave is slowed down before its passwords are hashed.
+ * <p>
+ * A key under its limit is never delayed. Past the limit the key backs off: one attempt
+ * is let through {@code lms.auth.throttle.backoff} after the last failure, twice that after
+ * the next, and so on up to {@code lms.auth.throttle.window}; attempts inside the delay are
+ * refused without hashing. An attempt that is let through and has the right password
+ * signs in and clears the pair. Counters expire {@code window} after a key's first failure.
+ * <p>
+ * There is no counter per email alone: failures from one address never delay the same
+ * email from another, so nobody can lock a member out by guessing at their account.
+ * The address is the client's, not a proxy's, when {@code server.forward-headers-strategy}
+ * is set. Counters live in a bounded Caffeine cache on each node, so the limits are per
+ * node. Refusals count {@code lms.auth.throttled}.
+ */
+@Component
+public class LoginThrottle {
+    private static final int MAX_DOUBLINGS = 20;
+
+    private final Cache<String, Failures> failures;
+    private final int maxPerEmail;
+    private final int maxPerAddress;
+    private final long backoffNanos;
+    private final long windowNanos;
+    private final Counter throttled;
+
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${lms.auth.throttle.window:5m}") Duration window,
+                         @Value("${lms.auth.throttle.backoff:1s}") Duration backoff,
+                         @Value("${lms.auth.throttle.max-failures-per-email:10}") int maxPerEmail,
+                         @Value("${lms.auth.throttle.max-failures-per-address:50}") int maxPerAddress,
+                         @Value("${lms.auth.throttle.max-keys:100000}") long maxKeys) {
+        this.failures = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxKeys)
+                .build();
+        this.maxPerEmail = maxPerEmail;
+        this.maxPerAddress = maxPerAddress;
+        this.backoffNanos = backoff.toNanos();
+        this.windowNanos = window.toNanos();
+        this.throttled = meterRegistry.counter("lms.auth.throttled");
+    }
+
+    /** How long this client must wait before trying this email again; zero if it may try now. */
+    public Duration retryAfter(String email, String address) {
+        long now = System.nanoTime();
+        long wait = Math.max(waitNanos(pairKey(email, address), maxPerEmail, now),
+                waitNanos(addressKey(address), maxPerAddress, now));
+        if (wait > 0) throttled.increment();
+        return Duration.ofNanos(wait);
+    }
+
+    public void recordFailure(String email, String address) {
+        long now = System.nanoTime();
+        increment(pairKey(email, address), now);
+        increment(addressKey(address), now);
+    }
+
+    /** Clears the pair; the address keeps its count, so one valid account cannot launder another's guesses. */
+    public void recordSuccess(String email, String address) {
+        String key = pairKey(email, address);
+        if (key != null) failures.invalidate(key);
+    }
+
+    private long waitNanos(String key, int limit, long now) {
+        if (key == null) return 0;
+        Failures f = failures.getIfPresent(key);
+        return f == null ? 0 : f.waitNanos(limit, backoffNanos, windowNanos, now);
+    }
+
+    private void increment(String key, long now) {
+        // The window starts at the first failure: get() does not reset expireAfterWrite.
+        if (key != null) failures.get(key, k -> new Failures()).record(now);
+    }
+
+    private static String pairKey(String email, String address) {
+        if (email == null || email.isBlank()) return null;
+        return "email:" + email.trim().toLowerCase(Locale.ROOT) + "|" + (address == null ? "" : address);
+    }
+
+    private static String addressKey(String address) {
+        return address == null ? null : "addr:" + address;
+    }
+
+    private static final class Failures {
+        private int count;
+        private long lastNanos;
+
+        synchronized void record(long now) {
+            count++;
+            lastNanos = now;
+        }
+
+        synchronized long waitNanos(int limit, long backoffNanos, long windowNanos, long now) {
+            if (count < limit) return 0;
+            int doublings = Math.min(count - limit, MAX_DOUBLINGS);
+            long delay = Math.min(backoffNanos << doublings, windowNanos);
+            return Math.max(0, lastNanos + delay - now);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package lk.sliit.lms.auth;
+
+import org.springframework.security.authentication.LockedException;
+
+import java.time.Duration;
+
+/** A sign-in refused by {@link LoginThrottle} before any password was hashed. */
+public class LoginThrottledException extends LockedException {
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(Duration retryAfter) {
+        this(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+
+    private LoginThrottledException(long retryAfterSeconds) {
+        super("Too many failed sign-in attempts, try again in " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /** Whole seconds, rounded up, until this client may try again. */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,103 @@
+package lk.sliit.lms.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lk.sliit.lms.common.ChangeType;
+import lk.sliit.lms.common.EntityChange;
+import lk.sliit.lms.common.EntityChangeBatch;
+import lk.sliit.lms.keyfilter.KnownKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded, time-limited cache of {@link PrincipalSnapshot}s (id, status and roles, never the
+ * password hash) keyed by lower-cased email. Shared by login and the auth audit listener, so
+ * a login costs a primary-key read of the hash instead of the user-and-roles query.
+ * <p>
+ * A committed update or delete of a {@link User} drops that member's entry, including one
+ * cached under an email the update just changed. Role edits count: {@code User} is
+ * versioned (V15), so a change to {@code user_roles} alone also raises an update. An
+ * id-to-email map finds the entry, so eviction costs the same whatever the cache size.
+ * Hit/miss/eviction counts are exported as {@code cache.*{cache="principals"}}.
+ * <p>
+ * Misses are checked against the {@link KnownKeys} email filter first, so sign-in attempts
+ * for emails that do not exist (typos, credential stuffing) cost no query.
+ */
+@Component
+public class PrincipalCache {
+    private final UserRepository userRepository;
+    private final KnownKeys knownKeys;
+    private final Cache<String, PrincipalSnapshot> cache;
+    /** The key each cached member is under; one email per member. */
+    private final ConcurrentMap<Long, String> emailsById = new ConcurrentHashMap<>();
+
+    public PrincipalCache(UserRepository userRepository,
+                          KnownKeys knownKeys,
+                          MeterRegistry meterRegistry,
+                          @Value("${lms.auth.principal-cache.ttl:5m}") Duration ttl,
+                          @Value("${lms.auth.principal-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.knownKeys = knownKeys;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .<String, PrincipalSnapshot>removalListener((email, principal, cause) -> {
+                    if (principal != null) emailsById.remove(principal.id(), email);
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    /** Unknown emails are not cached, so a user created after a failed login can sign in at once. */
+    public Optional<PrincipalSnapshot> findByEmail(String email) {
+        if (email == null) return Optional.empty();
+        String key = email.trim().toLowerCase(Locale.ROOT);
+        PrincipalSnapshot principal = cache.get(key, this::load);
+        if (principal == null) return Optional.empty();
+        String previous = emailsById.put(principal.id(), key);
+        // Still cached under an address the member no longer has.
+        if (previous != null && !previous.equals(key)) cache.invalidate(previous);
+        return Optional.of(principal);
+    }
+
+    private PrincipalSnapshot load(String email) {
+        if (!knownKeys.mightBeEmail(email)) return null;
+        User user = userRepository.findByEmailIgnoreCase(email).orElse(null);
+        if (user == null) {
+            knownKeys.emailNotFound();
+            return null;
+        }
+        return PrincipalSnapshot.of(user);
+    }
+
+    public void invalidate(String email) {
+        if (email != null) cache.invalidate(email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        emailsById.clear();
+    }
+
+    @EventListener
+    public void onEntityChanges(EntityChangeBatch batch) {
+        for (EntityChange<User> change : batch.ofType(User.class)) {
+            // Inserts need nothing: unknown emails are never cached.
+            if (change.type() == ChangeType.INSERTED) continue;
+            Long id = change.entity().getId();
+            String cached = id == null ? null : emailsById.remove(id);
+            if (cached != null) cache.invalidate(cached);
+            invalidate(change.entity().getEmail());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package lk.sliit.lms.auth;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * What sign-in needs of a {@link User}, copied out of the entity: immutable, detached from
+ * any persistence context, and without the password hash, so {@link PrincipalCache} keeps
+ * no credentials in memory.
+ */
+public record PrincipalSnapshot(long id, String email, String name, UserStatus status, Set<String> roles) {
+
+    public PrincipalSnapshot {
+        roles = Set.copyOf(roles);
+    }
+
+    public static PrincipalSnapshot of(User user) {
+        return new PrincipalSnapshot(user.getId(), user.getEmail(), user.getName(), user.getStatus(),
+                user.getRoles().stream().map(RoleEntity::getCode).collect(Collectors.toSet()));
+    }
+}
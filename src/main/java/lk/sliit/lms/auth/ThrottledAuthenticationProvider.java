@@ -0,0 +1,49 @@
+package lk.sliit.lms.auth;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.time.Duration;
+
+/**
+ * Checks {@link LoginThrottle} before handing a sign-in to the wrapped provider, so an
+ * attempt inside a client's backoff delay is refused without a user lookup or a password
+ * hash. Attempts outside it are checked normally, so the right password still signs in.
+ * The refusal is a {@link LoginThrottledException}, audited as LOGIN_FAILED with that reason.
+ */
+public class ThrottledAuthenticationProvider implements AuthenticationProvider {
+    private final AuthenticationProvider delegate;
+    private final LoginThrottle throttle;
+
+    public ThrottledAuthenticationProvider(AuthenticationProvider delegate, LoginThrottle throttle) {
+        this.delegate = delegate;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String email = authentication.getName();
+        String address = authentication.getDetails() instanceof WebAuthenticationDetails web ? web.getRemoteAddress() : null;
+        Duration retryAfter = throttle.retryAfter(email, address);
+        if (!retryAfter.isZero()) {
+            throw new LoginThrottledException(retryAfter);
+        }
+        try {
+            Authentication result = delegate.authenticate(authentication);
+            if (result != null) throttle.recordSuccess(email, address);
+            return result;
+        } catch (BadCredentialsException e) {
+            // Unknown emails surface as BadCredentialsException too (user-not-found is hidden).
+            throttle.recordFailure(email, address);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
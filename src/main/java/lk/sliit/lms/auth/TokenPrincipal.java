@@ -0,0 +1,7 @@
+package lk.sliit.lms.auth;
+
+import java.util.List;
+
+/** Principal of a request authenticated by an access token; built from the token alone, no user row is loaded. */
+public record TokenPrincipal(long userId, List<String> roles) implements AccountPrincipal {
+}
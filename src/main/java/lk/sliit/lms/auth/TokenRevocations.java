@@ -0,0 +1,104 @@
+package lk.sliit.lms.auth;
+
+import lk.sliit.lms.common.ChangeType;
+import lk.sliit.lms.common.EntityChange;
+import lk.sliit.lms.common.EntityChangeBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Users whose access tokens issued before a given instant must be refused
+ * ({@code token_revocations}, V11).
+ * <p>
+ * The table is small: a row only matters until every token issued before it has expired,
+ * so rows older than {@code lms.auth.token.ttl} are deleted on refresh. Each node keeps the
+ * live rows in an immutable map, swapped on every {@code lms.auth.token.revocation-refresh};
+ * a revocation made on another node is honoured here within that interval. Users that are
+ * deactivated or deleted are revoked automatically.
+ */
+@Component
+@ConditionalOnProperty(name = "lms.auth.token.enabled", havingValue = "true")
+public class TokenRevocations {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocations.class);
+
+    private static final String UPSERT =
+            "INSERT INTO token_revocations (user_id, revoked_before) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE revoked_before = GREATEST(revoked_before, VALUES(revoked_before))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final Duration ttl;
+    private volatile Map<Long, Long> revokedBefore = Map.of();
+
+    public TokenRevocations(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${lms.auth.token.ttl:15m}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        // Revocations are written from after-commit callbacks, so always start a fresh transaction.
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+    }
+
+    public boolean isRevoked(long userId, long issuedAtMs) {
+        Long before = revokedBefore.get(userId);
+        return before != null && issuedAtMs <= before;
+    }
+
+    /** Refuses every token issued to the user up to now, on this node at once and on others after their next refresh. */
+    public void revoke(long userId) {
+        long now = System.currentTimeMillis();
+        tx.executeWithoutResult(status -> jdbcTemplate.update(UPSERT, userId, new Timestamp(now)));
+        synchronized (this) {
+            Map<Long, Long> next = new HashMap<>(revokedBefore);
+            next.merge(userId, now, Math::max);
+            revokedBefore = Map.copyOf(next);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${lms.auth.token.revocation-refresh:30s}",
+               initialDelayString = "${lms.auth.token.revocation-refresh:30s}")
+    public void refresh() {
+        Timestamp horizon = new Timestamp(System.currentTimeMillis() - ttl.toMillis());
+        try {
+            jdbcTemplate.update("DELETE FROM token_revocations WHERE revoked_before < ?", horizon);
+            Map<Long, Long> loaded = new HashMap<>();
+            jdbcTemplate.query("SELECT user_id, revoked_before FROM token_revocations",
+                    rs -> { loaded.put(rs.getLong(1), rs.getTimestamp(2).getTime()); });
+            synchronized (this) {
+                // Keep local revocations newer than the rows just read.
+                revokedBefore.forEach((userId, before) -> loaded.merge(userId, before, Math::max));
+                loaded.values().removeIf(before -> before < horizon.getTime());
+                revokedBefore = Map.copyOf(loaded);
+            }
+        } catch (RuntimeException e) {
+            // Keep the last list; tokens still expire on their own.
+            log.warn("[Auth] Token revocation list not refreshed: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onEntityChanges(EntityChangeBatch batch) {
+        for (EntityChange<User> change : batch.ofType(User.class)) {
+            if (change.type() == ChangeType.DELETED || change.entity().getStatus() != UserStatus.ACTIVE) {
+                revoke((Long) change.id());
+            }
+        }
+    }
+}
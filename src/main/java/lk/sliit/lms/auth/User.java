@@ -1,7 +1,11 @@
 package lk.sliit.lms.auth;
 
 import jakarta.persistence.*;
+import lk.sliit.lms.common.EntityChangeListener;
+import lk.sliit.lms.common.IdAllocator;
+import lk.sliit.lms.common.Identifiable;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.LinkedHashSet;
@@ -14,10 +18,13 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class User {
+@EntityListeners(EntityChangeListener.class)
+public class User implements Identifiable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "users_ids")
+    @TableGenerator(name = "users_ids", table = IdAllocator.TABLE, pkColumnName = IdAllocator.NAME_COLUMN,
+            valueColumnName = IdAllocator.VALUE_COLUMN, pkColumnValue = "users", allocationSize = IdAllocator.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -26,6 +33,9 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
+    @Column(length = 32)
+    private String phone; // SMS reminders (V13); optional
+
     @Column(nullable = false)
     private String passwordHash;
 
@@ -43,4 +53,9 @@ public class User {
         inverseJoinColumns = @JoinColumn(name = "role_id")
     )
     private Set<RoleEntity> roles = new LinkedHashSet<>();
+
+    @Version
+    @ColumnDefault("0") // role edits bump it, so they raise a User update (V15)
+    @Column(nullable = false)
+    private Long version;
 }
@@ -1,10 +1,15 @@
 package lk.sliit.lms.auth;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmailIgnoreCase(String email);
+
+    @Query("select u.passwordHash from User u where u.id = :id")
+    Optional<String> findPasswordHashById(@Param("id") Long id);
 }
 
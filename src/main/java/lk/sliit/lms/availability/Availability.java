@@ -0,0 +1,9 @@
+package lk.sliit.lms.availability;
+
+/** Availability of one title; {@code loanable} is false for books that are not AVAILABLE (archived, lost, ...). */
+public record Availability(long bookId, int onShelf, int activeLoans, int queueLength, boolean loanable) {
+
+    public boolean available() {
+        return loanable && onShelf > 0;
+    }
+}
@@ -0,0 +1,198 @@
+package lk.sliit.lms.availability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookStatus;
+import lk.sliit.lms.books.CatalogImportedEvent;
+import lk.sliit.lms.common.ChangeType;
+import lk.sliit.lms.common.EntityChange;
+import lk.sliit.lms.common.EntityChangeBatch;
+import lk.sliit.lms.loans.Loan;
+import lk.sliit.lms.loans.LoanStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Copies on shelf, open loans and queue length per book, answered from memory.
+ * <p>
+ * Committed book and loan changes are applied per book in one step, so a checkout moves
+ * a copy from the shelf to the loan count atomically. Queue lengths are pushed by
+ * {@code ReservationQueueService}, which owns the queues. JDBC writers (catalog import)
+ * bypass change capture; the table is reloaded after an import and compared with the
+ * database every {@code lms.availability.drift-check-interval}. The check skips entries
+ * that changed while it was reading, so it never overwrites a newer update with an older
+ * row.
+ * <p>
+ * One race is left to the next check: a transaction that commits before the check reads
+ * its page, but whose after-commit change arrives after the page is repaired, is counted
+ * twice (once in the row, once as a delta). The entry is off by that change until the
+ * next drift check, which reads it again and corrects it.
+ */
+@Service
+public class AvailabilityService {
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityService.class);
+
+    /** Ints per book written by {@link #fill}: on shelf (-1 if unknown), open loans, queue length, loanable (1/0). */
+    public static final int FIELDS = AvailabilityTable.FIELDS;
+
+    /** Public so QueryPlanTest EXPLAINs this exact statement. */
+    public static final String SELECT_PAGE =
+            "SELECT b.id, b.quantity, b.status, " +
+            "(SELECT COUNT(*) FROM loans l WHERE l.book_id = b.id AND l.status IN ('ACTIVE', 'OVERDUE')) AS open_loans, " +
+            "(SELECT COUNT(*) FROM reservations r WHERE r.book_id = b.id AND r.status = 'PENDING') AS queued " +
+            "FROM books b WHERE b.id > ? ORDER BY b.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AvailabilityTable table = new AvailabilityTable(1024);
+    private final AtomicBoolean syncing = new AtomicBoolean();
+
+    @Value("${lms.availability.page-size:2000}")
+    private int pageSize;
+
+    public AvailabilityService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Optional<Availability> get(long bookId) {
+        int[] out = new int[FIELDS];
+        table.fill(new long[]{bookId}, 1, out);
+        return out[AvailabilityTable.ON_SHELF] == AvailabilityTable.UNKNOWN
+                ? Optional.empty() : Optional.of(toAvailability(bookId, out, 0));
+    }
+
+    /**
+     * Writes {@link #FIELDS} ints per book for the first {@code count} ids into {@code out}
+     * (which needs {@code count * FIELDS} slots). Allocation-free, for callers that reuse
+     * their arrays.
+     */
+    public void fill(long[] bookIds, int count, int[] out) {
+        table.fill(bookIds, count, out);
+    }
+
+    /** Availability of each book in order; unknown ids are left out. */
+    public List<Availability> of(long[] bookIds) {
+        int[] out = new int[bookIds.length * FIELDS];
+        table.fill(bookIds, bookIds.length, out);
+        List<Availability> result = new ArrayList<>(bookIds.length);
+        for (int i = 0; i < bookIds.length; i++) {
+            if (out[i * FIELDS + AvailabilityTable.ON_SHELF] != AvailabilityTable.UNKNOWN) {
+                result.add(toAvailability(bookIds[i], out, i * FIELDS));
+            }
+        }
+        return result;
+    }
+
+    private static Availability toAvailability(long bookId, int[] out, int o) {
+        return new Availability(bookId, out[o + AvailabilityTable.ON_SHELF], out[o + AvailabilityTable.ACTIVE_LOANS],
+                out[o + AvailabilityTable.QUEUED], out[o + AvailabilityTable.LOANABLE] == 1);
+    }
+
+    /** Called by the reservation queues after every committed change to a book's queue. */
+    public void queueChanged(long bookId, int length) {
+        table.setQueued(bookId, length);
+    }
+
+    @EventListener
+    public void onEntityChanges(EntityChangeBatch batch) {
+        Map<Long, Delta> deltas = new LinkedHashMap<>();
+        for (EntityChange<Book> change : batch.ofType(Book.class)) {
+            if (change.type() == ChangeType.DELETED) {
+                deltas.remove((Long) change.id());
+                table.remove((Long) change.id());
+                continue;
+            }
+            Book book = change.entity();
+            Delta d = deltas.computeIfAbsent(book.getId(), k -> new Delta());
+            d.shelf = book.getQuantity() != null ? book.getQuantity() : 0;
+            d.loanable = book.getStatus() == BookStatus.AVAILABLE;
+        }
+        for (EntityChange<Loan> change : batch.ofType(Loan.class)) {
+            Loan loan = change.entity();
+            boolean open = loan.getStatus() == LoanStatus.ACTIVE || loan.getStatus() == LoanStatus.OVERDUE;
+            if (change.type() == ChangeType.INSERTED && open) {
+                deltas.computeIfAbsent(loan.getBookId(), k -> new Delta()).loans++;
+            } else if (change.type() == ChangeType.UPDATED && loan.getStatus() == LoanStatus.RETURNED
+                    && loan.getReturnedAt() != null) {
+                deltas.computeIfAbsent(loan.getBookId(), k -> new Delta()).loans--;
+            } else if (change.type() == ChangeType.DELETED && open) {
+                deltas.computeIfAbsent(loan.getBookId(), k -> new Delta()).loans--;
+            }
+        }
+        deltas.forEach((bookId, d) -> table.apply(bookId, d.shelf, d.loanable, d.loans));
+    }
+
+    /** Loads the table once the app is ready, and again after a bulk import. */
+    @EventListener({ApplicationReadyEvent.class, CatalogImportedEvent.class})
+    public void reload() {
+        long started = System.nanoTime();
+        int changed = sync();
+        log.info("[Availability] Loaded {} books ({} entries written) in {} ms",
+                table.size(), changed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${lms.availability.drift-check-interval:10m}",
+               initialDelayString = "${lms.availability.drift-check-interval:10m}")
+    public void checkDrift() {
+        int drifted = sync();
+        if (drifted > 0) {
+            meterRegistry.counter("lms.availability.drift").increment(drifted);
+            log.warn("[Availability] Corrected {} books that differed from the database", drifted);
+        }
+    }
+
+    /**
+     * Compares every book with the database and fixes entries that differ; returns how many
+     * were fixed. The clock is read before each page, so an entry written after the read is
+     * left alone; a delta that lands after the repair is applied on top of it (see the class
+     * comment).
+     */
+    int sync() {
+        if (!syncing.compareAndSet(false, true)) return 0;
+        try {
+            long[] ids = new long[pageSize];
+            int[] values = new int[pageSize * FIELDS];
+            long lastId = 0;
+            int fixed = 0;
+            while (true) {
+                long readAt = table.clock();
+                int[] n = {0};
+                jdbcTemplate.query(SELECT_PAGE, (RowCallbackHandler) rs -> {
+                    int i = n[0]++;
+                    int v = i * FIELDS;
+                    ids[i] = rs.getLong("id");
+                    values[v + AvailabilityTable.ON_SHELF] = rs.getInt("quantity");
+                    values[v + AvailabilityTable.ACTIVE_LOANS] = rs.getInt("open_loans");
+                    values[v + AvailabilityTable.QUEUED] = rs.getInt("queued");
+                    values[v + AvailabilityTable.LOANABLE] = BookStatus.AVAILABLE.name().equals(rs.getString("status")) ? 1 : 0;
+                }, lastId, pageSize);
+                fixed += table.repair(ids, values, n[0], readAt);
+                if (n[0] < pageSize) return fixed;
+                lastId = ids[n[0] - 1];
+            }
+        } finally {
+            syncing.set(false);
+        }
+    }
+
+    private static final class Delta {
+        int shelf = -1;
+        Boolean loanable;
+        int loans;
+    }
+}
@@ -0,0 +1,291 @@
+package lk.sliit.lms.availability;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing map from book id to (copies on shelf, open loans, queue length,
+ * loanable) held in parallel primitive arrays, so there are no boxed keys or entry
+ * objects.
+ * <p>
+ * Writers take the write lock. Every write stamps the entry with the next value of a
+ * logical clock, which lets the drift check leave alone entries that changed after it
+ * read the database. Bulk reads run under an optimistic stamp and fall back to the read
+ * lock only if a writer got in. The arrays live in one immutable {@link Slots} holder
+ * that a reader dereferences once: a resize publishes a new holder and never touches the
+ * old one, so a reader racing it probes arrays that all have the same length (no index
+ * can run past one of them), sees stale values and then fails validation.
+ */
+final class AvailabilityTable {
+    /** Ints written per book by {@link #fill}. */
+    static final int FIELDS = 4;
+    static final int ON_SHELF = 0;
+    static final int ACTIVE_LOANS = 1;
+    static final int QUEUED = 2;
+    static final int LOANABLE = 3;
+    /** Marks an unknown book in the first field of its {@link #fill} slot. */
+    static final int UNKNOWN = -1;
+
+    private static final long FREE = 0; // book ids start at 1
+
+    private final StampedLock lock = new StampedLock();
+    private Slots slots;
+    private int size;
+    private long clock;
+
+    AvailabilityTable(int expected) {
+        slots = new Slots(capacityFor(expected));
+    }
+
+    /** Current value of the write clock; entries written later carry a higher version. */
+    long clock() {
+        long stamp = lock.readLock();
+        try {
+            return clock;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Copies {@link #FIELDS} ints per book into {@code out}, starting at {@code out[0]}:
+     * copies on shelf ({@link #UNKNOWN} if the book is not in the table), open loans,
+     * queue length and 1/0 for loanable. Allocates nothing.
+     */
+    void fill(long[] bookIds, int count, int[] out) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            read(bookIds, count, out);
+            if (lock.validate(stamp)) return;
+        }
+        stamp = lock.readLock();
+        try {
+            read(bookIds, count, out);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void read(long[] bookIds, int count, int[] out) {
+        Slots t = slots;
+        long[] k = t.keys;
+        int[] shelf = t.onShelf;
+        int[] loans = t.activeLoans;
+        int[] queue = t.queued;
+        boolean[] ok = t.loanable;
+        int mask = k.length - 1;
+        for (int i = 0, o = 0; i < count; i++, o += FIELDS) {
+            long id = bookIds[i];
+            int slot = UNKNOWN;
+            // Bounded probe: a concurrent writer may be shifting entries under an optimistic read.
+            for (int s = mix(id) & mask, probes = 0; probes <= mask; s = (s + 1) & mask, probes++) {
+                long key = k[s];
+                if (key == id) {
+                    slot = s;
+                    break;
+                }
+                if (key == FREE) break;
+            }
+            if (slot == UNKNOWN) {
+                out[o + ON_SHELF] = UNKNOWN;
+                out[o + ACTIVE_LOANS] = 0;
+                out[o + QUEUED] = 0;
+                out[o + LOANABLE] = 0;
+            } else {
+                out[o + ON_SHELF] = shelf[slot];
+                out[o + ACTIVE_LOANS] = loans[slot];
+                out[o + QUEUED] = queue[slot];
+                out[o + LOANABLE] = ok[slot] ? 1 : 0;
+            }
+        }
+    }
+
+    /**
+     * Applies one book's change atomically. {@code shelf} and {@code canLoan} replace the
+     * stored values unless negative / null; {@code loanDelta} is added to the open loans.
+     */
+    void apply(long bookId, int shelf, Boolean canLoan, int loanDelta) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotForWrite(bookId);
+            Slots t = slots;
+            if (shelf >= 0) t.onShelf[slot] = shelf;
+            if (canLoan != null) t.loanable[slot] = canLoan;
+            t.activeLoans[slot] = Math.max(0, t.activeLoans[slot] + loanDelta);
+            t.versions[slot] = ++clock;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void setQueued(long bookId, int length) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotForWrite(bookId);
+            Slots t = slots;
+            t.queued[slot] = length;
+            t.versions[slot] = ++clock;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Overwrites entries with values read from the database, skipping any entry written
+     * after {@code readAt} (its change is newer than the read). Returns how many entries
+     * were missing or differed.
+     */
+    int repair(long[] bookIds, int[] values, int count, long readAt) {
+        long stamp = lock.writeLock();
+        try {
+            int fixed = 0;
+            for (int i = 0, v = 0; i < count; i++, v += FIELDS) {
+                int slot = find(bookIds[i]);
+                Slots t = slots;
+                if (slot >= 0 && t.versions[slot] > readAt) continue;
+                if (slot >= 0
+                        && t.onShelf[slot] == values[v + ON_SHELF]
+                        && t.activeLoans[slot] == values[v + ACTIVE_LOANS]
+                        && t.queued[slot] == values[v + QUEUED]
+                        && t.loanable[slot] == (values[v + LOANABLE] == 1)) {
+                    continue;
+                }
+                if (slot < 0) {
+                    slot = slotForWrite(bookIds[i]);
+                    t = slots; // may have been resized
+                }
+                t.onShelf[slot] = values[v + ON_SHELF];
+                t.activeLoans[slot] = values[v + ACTIVE_LOANS];
+                t.queued[slot] = values[v + QUEUED];
+                t.loanable[slot] = values[v + LOANABLE] == 1;
+                t.versions[slot] = ++clock;
+                fixed++;
+            }
+            return fixed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void remove(long bookId) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = find(bookId);
+            if (slot < 0) return;
+            // Backward-shift deletion keeps probe chains intact without tombstones.
+            Slots t = slots;
+            int mask = t.keys.length - 1;
+            int hole = slot;
+            for (int s = (hole + 1) & mask; t.keys[s] != FREE; s = (s + 1) & mask) {
+                int home = mix(t.keys[s]) & mask;
+                boolean movable = hole <= s ? (home <= hole || home > s) : (home <= hole && home > s);
+                if (movable) {
+                    t.move(s, hole);
+                    hole = s;
+                }
+            }
+            t.keys[hole] = FREE;
+            size--;
+            clock++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private int find(long bookId) {
+        long[] keys = slots.keys;
+        int mask = keys.length - 1;
+        for (int s = mix(bookId) & mask; ; s = (s + 1) & mask) {
+            long key = keys[s];
+            if (key == bookId) return s;
+            if (key == FREE) return -1;
+        }
+    }
+
+    /** Slot of {@code bookId}, inserting a zeroed entry if absent. Caller holds the write lock. */
+    private int slotForWrite(long bookId) {
+        int slot = find(bookId);
+        if (slot >= 0) return slot;
+        if ((size + 1) * 2 > slots.keys.length) slots = slots.rehash(slots.keys.length * 2);
+        Slots t = slots;
+        int mask = t.keys.length - 1;
+        int s = mix(bookId) & mask;
+        while (t.keys[s] != FREE) s = (s + 1) & mask;
+        t.keys[s] = bookId;
+        t.onShelf[s] = 0;
+        t.activeLoans[s] = 0;
+        t.queued[s] = 0;
+        t.loanable[s] = false;
+        t.versions[s] = 0;
+        size++;
+        return s;
+    }
+
+    private static int capacityFor(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) capacity <<= 1;
+        return capacity;
+    }
+
+    /** Spreads sequential ids over the table (Stafford variant 13 finalizer). */
+    private static int mix(long id) {
+        long h = id;
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return (int) (h ^ (h >>> 31));
+    }
+
+    /** The parallel arrays, all of one capacity; replaced as a whole on resize. */
+    private static final class Slots {
+        final long[] keys;
+        final int[] onShelf;
+        final int[] activeLoans;
+        final int[] queued;
+        final boolean[] loanable;
+        final long[] versions;
+
+        Slots(int capacity) {
+            keys = new long[capacity];
+            onShelf = new int[capacity];
+            activeLoans = new int[capacity];
+            queued = new int[capacity];
+            loanable = new boolean[capacity];
+            versions = new long[capacity];
+        }
+
+        void move(int from, int to) {
+            keys[to] = keys[from];
+            onShelf[to] = onShelf[from];
+            activeLoans[to] = activeLoans[from];
+            queued[to] = queued[from];
+            loanable[to] = loanable[from];
+            versions[to] = versions[from];
+        }
+
+        /** Copies the live entries into a fresh holder of {@code capacity}; this one is left as is. */
+        Slots rehash(int capacity) {
+            Slots grown = new Slots(capacity);
+            int mask = capacity - 1;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == FREE) continue;
+                int s = mix(keys[i]) & mask;
+                while (grown.keys[s] != FREE) s = (s + 1) & mask;
+                grown.keys[s] = keys[i];
+                grown.onShelf[s] = onShelf[i];
+                grown.activeLoans[s] = activeLoans[i];
+                grown.queued[s] = queued[i];
+                grown.loanable[s] = loanable[i];
+                grown.versions[s] = versions[i];
+            }
+            return grown;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Per-book availability (copies on the shelf, open loans, reservation queue length) kept
+ * in memory, updated from committed changes and checked against the database on a schedule.
+ */
+package lk.sliit.lms.availability;
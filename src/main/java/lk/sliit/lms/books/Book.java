@@ -1,6 +1,9 @@
 package lk.sliit.lms.books;
 
 import jakarta.persistence.*;
+import lk.sliit.lms.common.EntityChangeListener;
+import lk.sliit.lms.common.IdAllocator;
+import lk.sliit.lms.common.Identifiable;
 import lombok.*;
 
 @Entity
@@ -10,10 +13,13 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Book {
+@EntityListeners(EntityChangeListener.class)
+public class Book implements Identifiable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "books_ids")
+    @TableGenerator(name = "books_ids", table = IdAllocator.TABLE, pkColumnName = IdAllocator.NAME_COLUMN,
+            valueColumnName = IdAllocator.VALUE_COLUMN, pkColumnValue = "books", allocationSize = IdAllocator.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -28,10 +34,13 @@ public class Book {
     private String genre;
 
     @Column(nullable = false)
-    private Integer quantity;
+    private Integer quantity; // copies on the shelf; checkout decrements, return increments
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BookStatus status;
+
+    @Version
+    private Long version;
 }
 
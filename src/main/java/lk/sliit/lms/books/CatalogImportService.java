@@ -0,0 +1,270 @@
+package lk.sliit.lms.books;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.sliit.lms.common.BusinessRuleException;
+import lk.sliit.lms.common.IdAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bulk catalog import from CSV (header row: isbn,title,author[,genre][,quantity][,status])
+ * or JSON lines with the same field names.
+ * <p>
+ * The upload is parsed as it streams in and processed in chunks of
+ * {@code lms.catalog.import.chunk-size} rows. Per chunk: one {@code isbn IN (...)}
+ * lookup to tell new titles from known ones (new ones get ids from {@link IdAllocator}),
+ * then one JDBC batch of
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE} in its own transaction. Existing books get
+ * their title, author and genre refreshed; their copy count is left alone because it
+ * tracks copies on the shelf, which loans move.
+ * <p>
+ * Only one import runs at a time; {@link #progress()} reports the running one. The
+ * search index is rebuilt once at the end ({@link CatalogImportedEvent}).
+ */
+@Service
+public class CatalogImportService {
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private static final String UPSERT =
+            "INSERT INTO books (id, isbn, title, author, genre, quantity, status, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0) " +
+            "ON DUPLICATE KEY UPDATE title = VALUES(title), author = VALUES(author), genre = VALUES(genre), " +
+            "version = version + 1";
+    /** Per-row errors kept in the report; the rest are only counted. */
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+    private final IdAllocator ids;
+    private final TransactionTemplate tx;
+    private final AtomicReference<ImportProgress> running = new AtomicReference<>();
+
+    @Value("${lms.catalog.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public CatalogImportService(JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                ApplicationEventPublisher events,
+                                IdAllocator ids,
+                                PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.events = events;
+        this.ids = ids;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    public enum Format { CSV, NDJSON }
+
+    public ImportReport importCatalog(InputStream body, Format format) throws IOException {
+        ImportProgress progress = new ImportProgress();
+        if (!running.compareAndSet(null, progress)) {
+            throw new BusinessRuleException("A catalog import is already running");
+        }
+        long started = System.nanoTime();
+        Batch batch = new Batch(progress);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024)) {
+            if (format == Format.CSV) readCsv(reader, batch);
+            else readNdjson(reader, batch);
+            batch.flush();
+        } finally {
+            running.set(null);
+        }
+        if (progress.inserted + progress.updated > 0) {
+            events.publishEvent(new CatalogImportedEvent(progress.inserted, progress.updated));
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        log.info("[Import] {} rows read: {} inserted, {} updated, {} skipped, {} rejected in {} ms",
+                progress.rowsRead, progress.inserted, progress.updated, progress.skipped, progress.rejected, millis);
+        return new ImportReport(progress.rowsRead, progress.inserted, progress.updated, progress.skipped,
+                progress.rejected, millis, List.copyOf(batch.errors));
+    }
+
+    /** Counters of the import in progress, or empty when none is running. */
+    public Optional<ImportProgress.Snapshot> progress() {
+        ImportProgress p = running.get();
+        return p == null ? Optional.empty() : Optional.of(p.snapshot());
+    }
+
+    private void readCsv(BufferedReader reader, Batch batch) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return;
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("isbn", "title", "author")) {
+            if (!columns.containsKey(required)) {
+                throw new BusinessRuleException("CSV header must include '" + required + "'");
+            }
+        }
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            long line = csv.recordLine();
+            batch.add(line, field(record, columns, "isbn"), field(record, columns, "title"),
+                    field(record, columns, "author"), field(record, columns, "genre"),
+                    field(record, columns, "quantity"), field(record, columns, "status"));
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, Batch batch) throws IOException {
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) continue;
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (IOException e) {
+                batch.reject(line, null, "Malformed JSON");
+                continue;
+            }
+            batch.add(line, text(node, "isbn"), text(node, "title"), text(node, "author"),
+                    text(node, "genre"), text(node, "quantity"), text(node, "status"));
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer i = columns.get(name);
+        return i == null || i >= record.size() ? null : record.get(i);
+    }
+
+    private static String text(JsonNode node, String name) {
+        JsonNode v = node.get(name);
+        return v == null || v.isNull() ? null : v.asText();
+    }
+
+    /** Collects validated rows and writes them a chunk at a time. */
+    private final class Batch {
+        private final ImportProgress progress;
+        private final Map<String, Row> rows = new LinkedHashMap<>();
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        Batch(ImportProgress progress) {
+            this.progress = progress;
+        }
+
+        void add(long line, String rawIsbn, String title, String author, String genre, String quantity, String status) {
+            progress.rowsRead++;
+            String isbn = Isbn.toIsbn13(rawIsbn);
+            if (isbn == null) {
+                reject(line, rawIsbn, "Invalid ISBN");
+                return;
+            }
+            title = trimToNull(title);
+            author = trimToNull(author);
+            genre = trimToNull(genre);
+            if (title == null || author == null) {
+                reject(line, isbn, "title and author are required");
+                return;
+            }
+            if (title.length() > 255 || author.length() > 255 || (genre != null && genre.length() > 100)) {
+                reject(line, isbn, "title/author longer than 255 or genre longer than 100 characters");
+                return;
+            }
+            int copies;
+            try {
+                copies = trimToNull(quantity) == null ? 1 : Integer.parseInt(quantity.trim());
+            } catch (NumberFormatException e) {
+                reject(line, isbn, "quantity is not a number");
+                return;
+            }
+            if (copies < 0) {
+                reject(line, isbn, "quantity must be >= 0");
+                return;
+            }
+            BookStatus bookStatus;
+            try {
+                bookStatus = trimToNull(status) == null ? BookStatus.AVAILABLE
+                        : BookStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                reject(line, isbn, "unknown status " + status);
+                return;
+            }
+            // A later row for the same ISBN in the chunk wins; the earlier one counts as skipped.
+            if (rows.remove(isbn) != null) progress.skipped++;
+            rows.put(isbn, new Row(line, isbn, title, author, genre, copies, bookStatus));
+            if (rows.size() >= chunkSize) flush();
+        }
+
+        void reject(long line, String isbn, String message) {
+            progress.rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new ImportReport.RowError(line, isbn, message));
+        }
+
+        void flush() {
+            if (rows.isEmpty()) return;
+            List<Row> chunk = new ArrayList<>(rows.values());
+            rows.clear();
+            try {
+                int known = tx.execute(status -> {
+                    Map<String, Long> existing = existingIds(chunk);
+                    int fresh = chunk.size() - existing.size();
+                    long nextId = fresh == 0 ? 0 : ids.allocate("books", fresh);
+                    List<Object[]> args = new ArrayList<>(chunk.size());
+                    for (Row r : chunk) {
+                        Long id = existing.get(r.isbn());
+                        args.add(new Object[]{id != null ? id : nextId++, r.isbn(), r.title(), r.author(), r.genre(),
+                                r.quantity(), r.status().name()});
+                    }
+                    jdbcTemplate.batchUpdate(UPSERT, args);
+                    return existing.size();
+                });
+                progress.updated += known;
+                progress.inserted += chunk.size() - known;
+            } catch (RuntimeException e) {
+                log.warn("[Import] Chunk of {} rows starting at line {} failed: {}", chunk.size(), chunk.get(0).line(), e.getMessage());
+                for (Row r : chunk) reject(r.line(), r.isbn(), "database error: " + e.getClass().getSimpleName());
+            }
+            progress.chunks++;
+            if (progress.chunks % 50 == 0) {
+                log.info("[Import] {} rows read, {} inserted, {} updated, {} rejected",
+                        progress.rowsRead, progress.inserted, progress.updated, progress.rejected);
+            }
+        }
+    }
+
+    private Map<String, Long> existingIds(List<Row> chunk) {
+        String in = String.join(",", Collections.nCopies(chunk.size(), "?"));
+        Object[] isbns = chunk.stream().map(Row::isbn).toArray();
+        Map<String, Long> found = new HashMap<>();
+        jdbcTemplate.query("SELECT id, isbn FROM books WHERE isbn IN (" + in + ")",
+                (RowCallbackHandler) rs -> found.put(rs.getString("isbn"), rs.getLong("id")),
+                isbns);
+        return found;
+    }
+
+    private static String trimToNull(String s) {
+        if (s == null) return null;
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+
+    private record Row(long line, String isbn, String title, String author, String genre, int quantity, BookStatus status) {
+    }
+}
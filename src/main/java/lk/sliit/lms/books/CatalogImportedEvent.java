@@ -0,0 +1,5 @@
+package lk.sliit.lms.books;
+
+/** Published after a bulk import wrote books through JDBC, which bypasses entity change capture. */
+public record CatalogImportedEvent(long inserted, long updated) {
+}
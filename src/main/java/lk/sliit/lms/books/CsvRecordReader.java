@@ -0,0 +1,104 @@
+package lk.sliit.lms.books;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 reader: one record per {@link #next()}, quoted fields may contain
+ * separators, doubled quotes and line breaks. Only the current record is held in memory.
+ */
+final class CsvRecordReader {
+    private final Reader in;
+    private final StringBuilder field = new StringBuilder(64);
+    private int pushback = -2;
+    private long line = 1;
+    private long recordLine;
+
+    CsvRecordReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Line on which the record last returned by {@link #next()} started. */
+    long recordLine() {
+        return recordLine;
+    }
+
+    /** Next record, or {@code null} at end of input. Blank lines are skipped. */
+    List<String> next() throws IOException {
+        List<String> record = new ArrayList<>(8);
+        field.setLength(0);
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        recordLine = line;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (!fieldStarted && record.isEmpty()) return null;
+                record.add(field.toString());
+                return record;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(n);
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> {
+                    quoted = true;
+                    fieldStarted = true;
+                }
+                case ',' -> {
+                    record.add(field.toString());
+                    field.setLength(0);
+                    fieldStarted = true;
+                }
+                case '\r' -> {
+                    int n = read();
+                    if (n != '\n') unread(n);
+                    if (endOfRecord(record, fieldStarted)) return record;
+                    recordLine = line;
+                }
+                case '\n' -> {
+                    if (endOfRecord(record, fieldStarted)) return record;
+                    recordLine = line;
+                }
+                default -> {
+                    field.append((char) c);
+                    fieldStarted = true;
+                }
+            }
+        }
+    }
+
+    private boolean endOfRecord(List<String> record, boolean fieldStarted) {
+        line++;
+        if (!fieldStarted && record.isEmpty()) return false; // blank line
+        record.add(field.toString());
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pushback = c;
+    }
+}
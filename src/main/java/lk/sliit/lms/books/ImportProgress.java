@@ -0,0 +1,21 @@
+package lk.sliit.lms.books;
+
+import java.time.LocalDateTime;
+
+/** Live counters of a running import; written by the importing thread only. */
+public final class ImportProgress {
+    final LocalDateTime startedAt = LocalDateTime.now();
+    volatile long rowsRead;
+    volatile long inserted;
+    volatile long updated;
+    volatile long skipped;
+    volatile long rejected;
+    volatile long chunks;
+
+    Snapshot snapshot() {
+        return new Snapshot(startedAt, rowsRead, inserted, updated, skipped, rejected);
+    }
+
+    public record Snapshot(LocalDateTime startedAt, long rowsRead, long inserted, long updated, long skipped, long rejected) {
+    }
+}
@@ -0,0 +1,15 @@
+package lk.sliit.lms.books;
+
+import java.util.List;
+
+/**
+ * Outcome of a catalog import; {@code errors} lists at most the first 1000 rejected rows.
+ * {@code skipped} rows were valid but superseded by a later row for the same ISBN in their chunk.
+ */
+public record ImportReport(long rowsRead, long inserted, long updated, long skipped, long rejected, long durationMs,
+                           List<RowError> errors) {
+
+    /** {@code line} is 1-based in the uploaded file (the CSV header is line 1). */
+    public record RowError(long line, String isbn, String message) {
+    }
+}
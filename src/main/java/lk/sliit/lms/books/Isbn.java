@@ -0,0 +1,68 @@
+package lk.sliit.lms.books;
+
+/**
+ * ISBN validation. Books are stored under their ISBN-13 (digits only); ISBN-10 input is
+ * converted, so the same title imported in either form maps to one row.
+ */
+public final class Isbn {
+    private Isbn() {
+    }
+
+    /** Returns the ISBN-13 for a valid ISBN-10 or ISBN-13 (hyphens and spaces ignored), else {@code null}. */
+    public static String toIsbn13(String raw) {
+        if (raw == null) return null;
+        char[] digits = new char[13];
+        int n = 0;
+        boolean checkX = false;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '-' || c == ' ') continue;
+            // 'X' (ten) is only an ISBN-10 check digit, so nothing may follow it.
+            if (n == 13 || checkX) return null;
+            if (c == 'X' || c == 'x') {
+                if (n != 9) return null;
+                checkX = true;
+                digits[n++] = 'X';
+            } else if (c >= '0' && c <= '9') {
+                digits[n++] = c;
+            } else {
+                return null;
+            }
+        }
+        if (n == 13) return validIsbn13(digits) ? new String(digits) : null;
+        if (n == 10) return validIsbn10(digits) ? isbn10To13(digits) : null;
+        return null;
+    }
+
+    private static boolean validIsbn13(char[] d) {
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            if (d[i] == 'X') return false;
+            sum += (d[i] - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return sum % 10 == 0;
+    }
+
+    private static boolean validIsbn10(char[] d) {
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            int v = d[i] == 'X' ? 10 : d[i] - '0';
+            sum += v * (10 - i);
+        }
+        return sum % 11 == 0;
+    }
+
+    private static String isbn10To13(char[] d) {
+        char[] out = new char[13];
+        out[0] = '9';
+        out[1] = '7';
+        out[2] = '8';
+        System.arraycopy(d, 0, out, 3, 9);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (out[i] - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        out[12] = (char) ('0' + (10 - sum % 10) % 10);
+        return new String(out);
+    }
+}
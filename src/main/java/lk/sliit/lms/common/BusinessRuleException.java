@@ -0,0 +1,15 @@
+package lk.sliit.lms.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A request that is well-formed but not allowed by a library rule
+ * (no copies left, renewal limit reached, ...). Mapped to 409 Conflict.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BusinessRuleException extends RuntimeException {
+    public BusinessRuleException(String message) {
+        super(message);
+    }
+}
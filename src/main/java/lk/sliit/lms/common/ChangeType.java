@@ -0,0 +1,7 @@
+package lk.sliit.lms.common;
+
+public enum ChangeType {
+    INSERTED,
+    UPDATED,
+    DELETED
+}
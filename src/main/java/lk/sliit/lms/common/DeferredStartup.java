@@ -0,0 +1,154 @@
+package lk.sliit.lms.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the {@link DeferredStartupTask}s after startup instead of as
+ * {@code ApplicationRunner}s, so the context is ready without waiting for them.
+ * <p>
+ * They start once readiness is ACCEPTING_TRAFFIC, i.e. after the catalog, availability and
+ * key-filter loads, on one background thread. Until every task that
+ * {@linkplain DeferredStartupTask#gatesReadiness() gates readiness} has run, this health
+ * indicator ({@code deferredStartup}, part of the readiness group) is OUT_OF_SERVICE, and DOWN
+ * if one fails. Each task is timed as {@code lms.startup.deferred{task,outcome}}.
+ * <p>
+ * When they are done a startup report is logged: time to started and to ready, the JVM's own
+ * share before {@code main}, the deferred tasks, and with {@code -Dlms.startup.steps=true} the
+ * slowest startup steps (also served at {@code /actuator/startup}).
+ */
+@Component
+public class DeferredStartup implements HealthIndicator {
+    private static final Logger log = LoggerFactory.getLogger(DeferredStartup.class);
+    private static final String PENDING = "pending";
+    private static final int REPORTED_STEPS = 10;
+
+    private final List<DeferredStartupTask> tasks;
+    private final MeterRegistry meterRegistry;
+    private final ConfigurableApplicationContext context;
+    private final Map<String, String> states = new LinkedHashMap<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private volatile Duration startedIn;
+    private volatile Duration readyIn;
+    private volatile long uptimeAtReadyMs;
+
+    public DeferredStartup(ObjectProvider<DeferredStartupTask> tasks,
+                           MeterRegistry meterRegistry,
+                           ConfigurableApplicationContext context) {
+        this.tasks = tasks.orderedStream().toList();
+        this.meterRegistry = meterRegistry;
+        this.context = context;
+        this.tasks.forEach(task -> states.put(task.name(), PENDING));
+    }
+
+    @EventListener
+    public void onStarted(ApplicationStartedEvent event) {
+        startedIn = event.getTimeTaken();
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        readyIn = event.getTimeTaken();
+        uptimeAtReadyMs = ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    @EventListener
+    public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || !started.compareAndSet(false, true)) return;
+        Thread runner = new Thread(this::runAll, "deferred-startup");
+        runner.setDaemon(true);
+        runner.start();
+    }
+
+    @Override
+    public Health health() {
+        Map<String, String> snapshot = snapshotStates();
+        Status status = Status.UP;
+        for (DeferredStartupTask task : tasks) {
+            if (!task.gatesReadiness()) continue;
+            String state = snapshot.get(task.name());
+            if (state.startsWith("failed")) {
+                status = Status.DOWN;
+                break;
+            }
+            if (state.equals(PENDING)) status = Status.OUT_OF_SERVICE;
+        }
+        return Health.status(status).withDetails(snapshot).build();
+    }
+
+    private void runAll() {
+        long began = System.nanoTime();
+        for (DeferredStartupTask task : tasks) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            long taskBegan = System.nanoTime();
+            String outcome = "success";
+            String state;
+            try {
+                task.run();
+                state = (System.nanoTime() - taskBegan) / 1_000_000 + " ms";
+            } catch (Exception e) {
+                outcome = "failure";
+                state = "failed: " + e.getMessage();
+                log.error("[Startup] Deferred task {} failed", task.name(), e);
+            }
+            sample.stop(meterRegistry.timer("lms.startup.deferred", "task", task.name(), "outcome", outcome));
+            synchronized (states) {
+                states.put(task.name(), state);
+            }
+        }
+        report((System.nanoTime() - began) / 1_000_000);
+    }
+
+    private void report(long deferredMs) {
+        long readyMs = readyIn != null ? readyIn.toMillis() : -1;
+        log.info("[Startup] Started in {} ms, ready in {} ms ({} ms since JVM start), deferred tasks {} ms {}",
+                startedIn != null ? startedIn.toMillis() : -1, readyMs, uptimeAtReadyMs, deferredMs, snapshotStates());
+        if (context.getApplicationStartup() instanceof BufferingApplicationStartup buffering) {
+            // Durations include nested steps (a bean's time includes its dependencies).
+            buffering.getBufferedTimeline().getEvents().stream()
+                    .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                    .limit(REPORTED_STEPS)
+                    .forEach(e -> log.info("[Startup]   {} ms {}{}", e.getDuration().toMillis(),
+                            e.getStartupStep().getName(), tags(e.getStartupStep())));
+        }
+    }
+
+    private Map<String, String> snapshotStates() {
+        synchronized (states) {
+            return new LinkedHashMap<>(states);
+        }
+    }
+
+    private static String tags(StartupStep step) {
+        StringBuilder sb = new StringBuilder();
+        for (StartupStep.Tag tag : step.getTags()) {
+            sb.append(' ').append(tag.getKey()).append('=').append(tag.getValue());
+        }
+        return sb.toString();
+    }
+}
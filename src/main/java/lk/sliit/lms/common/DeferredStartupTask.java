@@ -0,0 +1,19 @@
+package lk.sliit.lms.common;
+
+/**
+ * Startup work that need not finish before the context is ready (demo seeding, banners).
+ * {@link DeferredStartup} runs these one after another on a background thread once the
+ * app accepts traffic.
+ */
+public interface DeferredStartupTask {
+
+    /** Used in logs, the {@code deferredStartup} health details and the {@code task} meter tag. */
+    String name();
+
+    /** Whether {@code /actuator/health/readiness} stays OUT_OF_SERVICE until this task has run. */
+    default boolean gatesReadiness() {
+        return true;
+    }
+
+    void run() throws Exception;
+}
@@ -0,0 +1,8 @@
+package lk.sliit.lms.common;
+
+/**
+ * One committed change to an entity. {@code entity} is the instance as it was
+ * flushed; treat it as read-only.
+ */
+public record EntityChange<T>(ChangeType type, Class<T> entityType, Object id, T entity) {
+}
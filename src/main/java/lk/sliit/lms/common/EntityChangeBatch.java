@@ -0,0 +1,31 @@
+package lk.sliit.lms.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application event carrying every change one transaction committed, coalesced
+ * per entity (insert + update = insert, insert + delete = nothing, ...).
+ * <p>
+ * Published synchronously after commit, while the finished transaction's resources
+ * are still bound to the thread: listeners that write to the database must start
+ * their own transaction ({@code Propagation.REQUIRES_NEW}).
+ */
+public record EntityChangeBatch(List<EntityChange<?>> changes) {
+
+    @SuppressWarnings("unchecked")
+    public <T> List<EntityChange<T>> ofType(Class<T> type) {
+        List<EntityChange<T>> out = new ArrayList<>();
+        for (EntityChange<?> change : changes) {
+            if (change.entityType() == type) out.add((EntityChange<T>) change);
+        }
+        return out;
+    }
+
+    public boolean contains(Class<?> type) {
+        for (EntityChange<?> change : changes) {
+            if (change.entityType() == type) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,122 @@
+package lk.sliit.lms.common;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JPA entity listener that turns flushed inserts/updates/deletes into an
+ * {@link EntityChangeBatch} published once the surrounding transaction commits.
+ * Rolled-back work is discarded. Changes made outside a transaction are published
+ * immediately, one per batch. A {@code REQUIRES_NEW} transaction gets its own buffer
+ * while the outer one is suspended, so its changes are published when it commits,
+ * including one started from another transaction's {@code afterCommit}.
+ * <p>
+ * Instantiated by Hibernate through Spring's bean container, so constructor
+ * injection works. Bulk JPQL/JDBC writes bypass entity callbacks and are not seen here.
+ */
+public class EntityChangeListener {
+    private final ApplicationEventPublisher publisher;
+
+    public EntityChangeListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    public void onInsert(Object entity) {
+        record(ChangeType.INSERTED, entity);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        record(ChangeType.UPDATED, entity);
+    }
+
+    @PostRemove
+    public void onDelete(Object entity) {
+        record(ChangeType.DELETED, entity);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void record(ChangeType type, Object entity) {
+        Class entityType = Hibernate.getClass(entity);
+        Object id = entity instanceof Identifiable identifiable ? identifiable.getId() : System.identityHashCode(entity);
+        EntityChange<?> change = new EntityChange(type, entityType, id, entity);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publisher.publishEvent(new EntityChangeBatch(List.of(change)));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(PendingChanges.class);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(PendingChanges.class, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.merge(change);
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+        private final Map<List<Object>, EntityChange<?>> changes = new LinkedHashMap<>();
+
+        void merge(EntityChange<?> change) {
+            List<Object> key = List.of(change.entityType(), change.id());
+            EntityChange<?> previous = changes.get(key);
+            if (previous == null) {
+                changes.put(key, change);
+                return;
+            }
+            ChangeType merged = coalesce(previous.type(), change.type());
+            if (merged == null) {
+                changes.remove(key);
+            } else {
+                changes.put(key, withType(change, merged));
+            }
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(PendingChanges.class);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(PendingChanges.class, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            if (!changes.isEmpty()) {
+                publisher.publishEvent(new EntityChangeBatch(new ArrayList<>(changes.values())));
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PendingChanges.class);
+        }
+    }
+
+    /** Returns the net effect of two consecutive changes, or null if they cancel out. */
+    static ChangeType coalesce(ChangeType first, ChangeType second) {
+        return switch (first) {
+            case INSERTED -> second == ChangeType.DELETED ? null : ChangeType.INSERTED;
+            case UPDATED -> second;
+            case DELETED -> second == ChangeType.INSERTED ? ChangeType.UPDATED : ChangeType.DELETED;
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static EntityChange<?> withType(EntityChange<?> change, ChangeType type) {
+        return new EntityChange(type, change.entityType(), change.id(), change.entity());
+    }
+}
@@ -0,0 +1,98 @@
+package lk.sliit.lms.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Primary keys for JDBC batch writers, drawn from the same {@code id_sequences} rows
+ * (V9) that the entities' pooled-lo table generators use.
+ * <p>
+ * A sequence row holds the highest id reserved so far (Hibernate's "last used value"
+ * layout for table generators). Reserving a block is one short
+ * {@code SELECT ... FOR UPDATE} plus {@code UPDATE} in its own transaction, so it never
+ * holds the row lock for the caller's batch. Blocks are cached per sequence and handed
+ * out as contiguous ranges; ids left in a block when the application stops are skipped.
+ * Hibernate reserves from the same rows, so JPA and JDBC inserts never collide.
+ */
+@Component
+public class IdAllocator {
+    public static final String TABLE = "id_sequences";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "last_reserved_id";
+    /** Block size of the entity generators; JDBC writers reserve at least {@code lms.ids.block-size}. */
+    public static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final int blockSize;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public IdAllocator(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${lms.ids.block-size:1000}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /** Reserves {@code count} consecutive ids of {@code sequence} and returns the first. */
+    public long allocate(String sequence, int count) {
+        if (count < 1) throw new IllegalArgumentException("count must be positive");
+        Block block = blocks.computeIfAbsent(sequence, k -> new Block());
+        // A lock rather than synchronized: reserving does I/O and callers may be virtual threads.
+        block.lock.lock();
+        try {
+            if (block.end - block.next < count) {
+                int size = Math.max(count, blockSize);
+                block.next = reserve(sequence, size);
+                block.end = block.next + size;
+            }
+            long first = block.next;
+            block.next += count;
+            return first;
+        } finally {
+            block.lock.unlock();
+        }
+    }
+
+    private long reserve(String sequence, int size) {
+        try {
+            return tx.execute(status -> reserveInTx(sequence, size));
+        } catch (DuplicateKeyException e) {
+            // Another node (or Hibernate) created the row first; it exists now.
+            return tx.execute(status -> reserveInTx(sequence, size));
+        }
+    }
+
+    private long reserveInTx(String sequence, int size) {
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT " + VALUE_COLUMN + " FROM " + TABLE + " WHERE " + NAME_COLUMN + " = ? FOR UPDATE",
+                Long.class, sequence);
+        if (current.isEmpty()) {
+            // Only on schemas not created by Flyway (tests): V9 seeds every sequence.
+            jdbcTemplate.update("INSERT INTO " + TABLE + " (" + NAME_COLUMN + ", " + VALUE_COLUMN + ") VALUES (?, ?)",
+                    sequence, (long) size);
+            return 1L;
+        }
+        jdbcTemplate.update("UPDATE " + TABLE + " SET " + VALUE_COLUMN + " = " + VALUE_COLUMN + " + ? WHERE " + NAME_COLUMN + " = ?",
+                size, sequence);
+        return current.get(0) + 1;
+    }
+
+    private static final class Block {
+        final ReentrantLock lock = new ReentrantLock();
+        long next;
+        long end;
+    }
+}
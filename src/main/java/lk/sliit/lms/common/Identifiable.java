@@ -0,0 +1,9 @@
+package lk.sliit.lms.common;
+
+/**
+ * Implemented by entities that publish change events; Lombok's {@code @Getter}
+ * on the {@code id} field satisfies it.
+ */
+public interface Identifiable {
+    Long getId();
+}
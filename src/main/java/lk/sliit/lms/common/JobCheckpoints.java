@@ -0,0 +1,53 @@
+package lk.sliit.lms.common;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Progress markers for resumable batch jobs, stored in {@code job_checkpoints}.
+ * Callers save the checkpoint in the same transaction as the page it covers.
+ * <p>
+ * Jobs that page on {@code id} alone store just {@code lastId}. Jobs that page on a
+ * composite key, such as {@code (status, due_at, id)}, also store the leading columns
+ * of the last row as {@code lastKey} and {@code lastAt}.
+ */
+@Component
+public class JobCheckpoints {
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobCheckpoints(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Checkpoint> load(String jobName) {
+        List<Checkpoint> rows = jdbcTemplate.query(
+                "SELECT run_key, last_key, last_at, last_id, completed FROM job_checkpoints WHERE job_name = ?",
+                (rs, i) -> {
+                    Timestamp lastAt = rs.getTimestamp("last_at");
+                    return new Checkpoint(rs.getString("run_key"), rs.getString("last_key"),
+                            lastAt == null ? null : lastAt.toLocalDateTime(), rs.getLong("last_id"), rs.getBoolean("completed"));
+                },
+                jobName);
+        return rows.stream().findFirst();
+    }
+
+    public void save(String jobName, String runKey, long lastId, boolean completed) {
+        save(jobName, runKey, null, null, lastId, completed);
+    }
+
+    public void save(String jobName, String runKey, String lastKey, LocalDateTime lastAt, long lastId, boolean completed) {
+        jdbcTemplate.update(
+                "INSERT INTO job_checkpoints (job_name, run_key, last_key, last_at, last_id, completed) VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE run_key = VALUES(run_key), last_key = VALUES(last_key), last_at = VALUES(last_at), " +
+                "last_id = VALUES(last_id), completed = VALUES(completed)",
+                jobName, runKey, lastKey, lastAt == null ? null : Timestamp.valueOf(lastAt), lastId, completed);
+    }
+
+    public record Checkpoint(String runKey, String lastKey, LocalDateTime lastAt, long lastId, boolean completed) {
+    }
+}
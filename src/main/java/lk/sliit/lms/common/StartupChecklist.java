@@ -3,15 +3,16 @@ package lk.sliit.lms.common;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 
+/** Logs the startup banner once the app is up; deferred, and does not hold back readiness. */
 @Component
-public class StartupChecklist implements ApplicationRunner {
+@Order(0)
+public class StartupChecklist implements DeferredStartupTask {
     private static final Logger log = LoggerFactory.getLogger(StartupChecklist.class);
 
     private final Environment env;
@@ -24,7 +25,17 @@ public class StartupChecklist implements ApplicationRunner {
     }
 
     @Override
-    public void run(ApplicationArguments args) {
+    public String name() {
+        return "checklist";
+    }
+
+    @Override
+    public boolean gatesReadiness() {
+        return false;
+    }
+
+    @Override
+    public void run() {
         String[] profiles = env.getActiveProfiles();
         if (profiles.length == 0) profiles = env.getDefaultProfiles();
         String activeProfile = profiles.length > 0 ? profiles[0] : "default";
@@ -36,7 +47,7 @@ public class StartupChecklist implements ApplicationRunner {
         if ("local".equalsIgnoreCase(activeProfile)) {
             log.info("LMS started (profile=local, DB={}@{}:{}, PORT={})", dbName, dbHost, dbPort, serverPort);
             String jdbcUrl = String.format(
-                "jdbc:mysql://%s:%s/%s?useUnicode=true&characterEncoding=utf8&connectionCollation=utf8mb4_0900_ai_ci&serverTimezone=UTC&allowPublicKeyRetrieval=true&useSSL=false",
+                "jdbc:mysql://%s:%s/%s?useUnicode=true&characterEncoding=utf8&connectionCollation=utf8mb4_0900_ai_ci&serverTimezone=UTC&allowPublicKeyRetrieval=true&useSSL=false&rewriteBatchedStatements=true",
                 dbHost, dbPort, dbName
             );
             log.info("[Datasource] JDBC URL: {}", jdbcUrl);
@@ -0,0 +1,26 @@
+package lk.sliit.lms.common;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks selected by key hash. Operations on the same key always
+ * serialize; unrelated keys rarely share a stripe.
+ */
+public class StripedLocks {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public ReentrantLock forKey(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return locks[(int) (h ^ (h >>> 32)) & mask];
+    }
+}
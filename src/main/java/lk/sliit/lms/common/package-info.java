@@ -1,5 +1,5 @@
 /**
- * Common utilities, constants, error handling — placeholders for now.
+ * Common utilities: committed-change capture ({@link lk.sliit.lms.common.EntityChangeBatch}),
+ * constants and error handling.
  */
 package lk.sliit.lms.common;
-
@@ -0,0 +1,79 @@
+package lk.sliit.lms.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for {@code /api/**} when requests run on virtual threads
+ * ({@code lms.execution.virtual-threads=true}).
+ * <p>
+ * With a platform thread pool, Tomcat's 200 workers capped how many requests could be
+ * waiting on the 10 pooled connections. Virtual threads remove that cap, so this gate puts
+ * one back: at most {@code lms.execution.admission.max-concurrent} requests run at once,
+ * others wait up to {@code max-wait} for a permit and then get 503 with Retry-After
+ * instead of queueing on Hikari until they time out. Runs after Spring Security, so
+ * unauthenticated requests never take a permit.
+ */
+@Component
+@ConditionalOnProperty(name = "lms.execution.virtual-threads", havingValue = "true")
+public class AdmissionGateFilter extends OncePerRequestFilter {
+    private final Semaphore permits;
+    private final long maxWaitNanos;
+    private final Counter rejected;
+
+    public AdmissionGateFilter(MeterRegistry meterRegistry,
+                               @Value("${lms.execution.admission.max-concurrent:20}") int maxConcurrent,
+                               @Value("${lms.execution.admission.max-wait:1s}") Duration maxWait) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.rejected = meterRegistry.counter("lms.admission.rejected");
+        Gauge.builder("lms.admission.active", permits, p -> maxConcurrent - p.availablePermits()).register(meterRegistry);
+        Gauge.builder("lms.admission.waiting", permits, Semaphore::getQueueLength).register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server busy, please retry\"}");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package lk.sliit.lms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends read-only transactions to a replica pool when {@code lms.datasource.replica.jdbc-url}
+ * is set; without it this class stays out of the way and Boot's single pool serves everything.
+ * <p>
+ * The application {@code DataSource} is a {@link LazyConnectionDataSourceProxy}: a transaction
+ * marked read-only ({@code @Transactional(readOnly = true)} or a read-only
+ * {@code TransactionTemplate}) sets the flag before the first statement, so the physical
+ * connection is taken from the replica pool. Everything else, including reads outside a
+ * transaction, uses the primary. Reports, exports and the startup search build run read-only.
+ * Spring Data wraps a repository call made outside any transaction in its own read-only one;
+ * those stay on the primary too, so a read right after a write sees it.
+ * <p>
+ * Each pool has its own settings: {@code spring.datasource.hikari.*} for the primary and
+ * {@code lms.datasource.replica.*} (Hikari property names) for the replica. Both pools are
+ * beans, so they get their own {@code hikaricp.*} meters and health entries.
+ */
+@Configuration
+@ConditionalOnExpression("T(org.springframework.util.StringUtils).hasText(environment['lms.datasource.replica.jdbc-url'])")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("lms.datasource.replica")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource replica = new HikariDataSource();
+        // Same account as the primary unless lms.datasource.replica.username/password are set.
+        replica.setUsername(properties.determineUsername());
+        replica.setPassword(properties.determinePassword());
+        replica.setPoolName("LmsReplicaPool");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") HikariDataSource replica) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(new DelegatingDataSource(replica) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return repositoryDefaultTransaction() ? primary.getConnection() : super.getConnection();
+            }
+        });
+        return routing;
+    }
+
+    /** True inside the read-only transaction Spring Data opens around a standalone repository call. */
+    private static boolean repositoryDefaultTransaction() {
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return name != null && name.startsWith("org.springframework.data.");
+    }
+}
@@ -2,13 +2,13 @@ package lk.sliit.lms.config;
 
 import lk.sliit.lms.auth.*;
 import lk.sliit.lms.books.*;
+import lk.sliit.lms.common.DeferredStartupTask;
 import lk.sliit.lms.loans.*;
 import lk.sliit.lms.reservations.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -16,9 +16,15 @@ import org.springframework.stereotype.Component;
 import java.time.LocalDateTime;
 import java.util.*;
 
+/**
+ * Seeds the demo roles, users, books and sample loans. Runs as a deferred startup task, after
+ * the app is up, so its lookups do not delay startup; readiness waits for it, and the search
+ * index, availability table and key filters pick up what it writes from the entity events.
+ */
 @Component
 @Profile("local")
-public class DemoDataSeeder implements ApplicationRunner {
+@Order(1)
+public class DemoDataSeeder implements DeferredStartupTask {
     private static final Logger log = LoggerFactory.getLogger(DemoDataSeeder.class);
 
     private final UserRepository userRepository;
@@ -43,7 +49,12 @@ public class DemoDataSeeder implements ApplicationRunner {
     }
 
     @Override
-    public void run(ApplicationArguments args) {
+    public String name() {
+        return "demo-data";
+    }
+
+    @Override
+    public void run() {
         log.info("Starting local data seeding...");
 
         // Seed data
@@ -1,27 +1,121 @@
 package lk.sliit.lms.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.sliit.lms.auth.AccessTokens;
+import lk.sliit.lms.auth.BcryptCost;
+import lk.sliit.lms.auth.BoundedPasswordEncoder;
+import lk.sliit.lms.auth.DbUserDetailsService;
+import lk.sliit.lms.auth.LoginThrottle;
+import lk.sliit.lms.auth.LoginThrottledException;
+import lk.sliit.lms.auth.ThrottledAuthenticationProvider;
+import lk.sliit.lms.auth.TimedPasswordEncoder;
+import lk.sliit.lms.auth.TokenRevocations;
+import lk.sliit.lms.security.TokenAuthenticationFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.DefaultAuthenticationEventPublisher;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authentication.event.AuthenticationFailureLockedEvent;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 public class SecurityConfig {
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
+    /** Port the actuator's own server listens on, once it has started (-1 when it shares the app's). */
+    private final AtomicInteger managementPort = new AtomicInteger(-1);
+
+    @EventListener
+    public void onWebServerStarted(WebServerInitializedEvent event) {
+        if ("management".equals(event.getApplicationContext().getServerNamespace())) {
+            managementPort.set(event.getWebServer().getPort());
+        }
+    }
+
+    /**
+     * BCrypt at {@code lms.auth.password.bcrypt-cost}, or (0) the cost calibrated to
+     * {@code target-hash-time} on this machine, hashed on the bounded pool. Stored hashes
+     * below that cost are re-encoded on the user's next successful login.
+     */
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                                  @Value("${lms.auth.password.bcrypt-cost:0}") int configuredCost,
+                                                  @Value("${lms.auth.password.target-hash-time:250ms}") Duration targetHashTime,
+                                                  @Value("${lms.auth.password.threads:0}") int threads,
+                                                  @Value("${lms.auth.password.queue-capacity:64}") int queueCapacity,
+                                                  @Value("${lms.auth.password.max-wait:2s}") Duration maxWait) {
+        int cost = configuredCost > 0 ? configuredCost : BcryptCost.calibrate(targetHashTime);
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        log.info("[Security] BCrypt cost {} ({}), {} hashing threads, queue {}",
+                cost, configuredCost > 0 ? "configured" : "calibrated to " + targetHashTime.toMillis() + " ms", poolSize, queueCapacity);
+        return new BoundedPasswordEncoder(new TimedPasswordEncoder(new BCryptPasswordEncoder(cost), meterRegistry),
+                poolSize, queueCapacity, maxWait, meterRegistry);
+    }
+
+    /**
+     * Boot's default publisher, plus a mapping for throttled sign-ins: it maps exception
+     * classes by exact name, so without one they would publish no failure event and never
+     * reach the LOGIN_FAILED audit.
+     */
+    @Bean
+    public AuthenticationEventPublisher authenticationEventPublisher(ApplicationEventPublisher publisher) {
+        DefaultAuthenticationEventPublisher events = new DefaultAuthenticationEventPublisher(publisher);
+        events.setAdditionalExceptionMappings(Map.of(LoginThrottledException.class, AuthenticationFailureLockedEvent.class));
+        return events;
+    }
 
+    /** The only provider, so Spring Security uses it instead of building its own DAO provider. */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public AuthenticationProvider authenticationProvider(DbUserDetailsService userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         LoginThrottle loginThrottle) {
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider(userDetailsService);
+        dao.setPasswordEncoder(passwordEncoder);
+        dao.setUserDetailsPasswordService(userDetailsService);
+        return new ThrottledAuthenticationProvider(dao, loginThrottle);
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   ObjectProvider<AccessTokens> accessTokens,
+                                                   ObjectProvider<TokenRevocations> tokenRevocations,
+                                                   MeterRegistry meterRegistry) throws Exception {
+        AccessTokens tokens = accessTokens.getIfAvailable();
+        if (tokens != null) {
+            // lms.auth.token.enabled: Bearer tokens are checked before the session login.
+            http.addFilterBefore(new TokenAuthenticationFilter(tokens, tokenRevocations.getObject(), meterRegistry),
+                    UsernamePasswordAuthenticationFilter.class);
+        }
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                .requestMatchers(HttpMethod.POST, "/api/auth/token").permitAll()
                 .requestMatchers("/", "/login", "/login.html", "/dashboard.html", "/error", "/css/**", "/js/**", "/images/**", "/webjars/**").permitAll()
-                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/livez", "/readyz").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/health/liveness", "/actuator/health/readiness").permitAll()
+                // Scraped without a session, but only on the management port (loopback unless
+                // MANAGEMENT_ADDRESS says otherwise); the application port never serves it.
+                .requestMatchers(request -> request.getLocalPort() == managementPort.get()
+                        && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/me").authenticated()
                 .anyRequest().authenticated()
             )
@@ -0,0 +1,531 @@
+package lk.sliit.lms.config;
+
+import lk.sliit.lms.books.CatalogImportedEvent;
+import lk.sliit.lms.common.DeferredStartupTask;
+import lk.sliit.lms.common.IdAllocator;
+import lk.sliit.lms.common.JobCheckpoints;
+import lk.sliit.lms.fines.FineCalculator;
+import lk.sliit.lms.keyfilter.KnownKeys;
+import lk.sliit.lms.reports.ReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a production-sized library on top of the demo data, for load tests and
+ * benchmarks: {@code lms.synthetic.users} members, {@code books} titles, {@code loans} loans
+ * with their fines, and {@code reservations}. Enable with the {@code synthetic} profile
+ * (e.g. {@code local,synthetic}); {@code lms.synthetic.exit-when-done=true} makes it a
+ * one-shot command.
+ * <p>
+ * Every row is derived from {@code lms.synthetic.seed} and its own index, so the same settings
+ * give the same data. Loans and reservations favour a few popular books and busy members
+ * (Zipf-like, {@code popularity-skew} / {@code borrower-skew}). Open loans and PENDING
+ * reservations are the most recent ones, at most one per member, so no member holds two open
+ * loans of a title. A book never has more open loans than the copies it had on the shelf when
+ * the run started; a draw that lands on a fully lent book moves to the next book with a copy,
+ * and the shelf counts are reduced by exactly the open loans this run wrote.
+ * <p>
+ * Rows are written with multi-row {@code INSERT}s of {@code batch-rows} rows, a chunk of
+ * {@code chunk-rows} per transaction together with a {@code job_checkpoints} entry, so an
+ * interrupted run resumes where it stopped and a finished one is not repeated. Members and
+ * books have fixed keys ({@code synthetic.<n>@lms.local}, ISBN {@code 9790<n>}) and are
+ * skipped if present. Afterwards the report tables, search index, availability table and
+ * key filters are rebuilt, since JDBC writes bypass entity events.
+ */
+@Component
+@Profile("synthetic")
+@Order(2)
+public class SyntheticDataSeeder implements DeferredStartupTask {
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataSeeder.class);
+
+    static final String JOB_NAME = "synthetic-data";
+    static final String EMAIL_PREFIX = "synthetic.";
+    static final String EMAIL_DOMAIN = "@lms.local";
+    static final String ISBN_PREFIX = "9790";
+    /** Password of every synthetic member. */
+    static final String PASSWORD = "Member@123";
+
+    private static final int LOAN_DAYS = 14;
+    /** A prime above any table size, so {@code rank * SHUFFLE % n} visits every index once. */
+    private static final long SHUFFLE = 1_000_000_007L;
+    private static final long USERS = 1, BOOKS = 2, LOANS = 3, RESERVATIONS = 4;
+
+    private static final String[] FIRST_NAMES = {"Amal", "Nimali", "Kasun", "Dilini", "Ravi", "Sanduni", "Tharindu",
+            "Ishara", "Chamara", "Harini", "Nuwan", "Sachini", "Ashen", "Madhavi", "Pasindu", "Yasodha"};
+    private static final String[] LAST_NAMES = {"Perera", "Fernando", "Silva", "Jayasinghe", "Bandara", "Wickramasinghe",
+            "Gunawardena", "Rajapaksha", "Dissanayake", "Herath", "Karunaratne", "Weerasinghe"};
+    private static final String[] TITLE_WORDS = {"Practical", "Modern", "Distributed", "Applied", "Introduction",
+            "Systems", "Data", "Algorithms", "Design", "Networks", "Patterns", "Theory", "Engineering", "Machine",
+            "Learning", "Databases", "Security", "Compilers", "Cloud", "Mathematics", "Physics", "History", "Economics",
+            "Biology", "Chemistry", "Statistics", "Architecture", "Programming", "Concurrency", "Graphics"};
+    private static final String[] GENRES = {"Programming", "Databases", "Algorithms", "Frameworks", "DevOps",
+            "Mathematics", "Science", "Business", "Fiction", "History"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdAllocator ids;
+    private final JobCheckpoints checkpoints;
+    private final PasswordEncoder passwordEncoder;
+    private final FineCalculator fineCalculator;
+    private final ReportService reportService;
+    private final KnownKeys knownKeys;
+    private final ApplicationEventPublisher events;
+    private final ConfigurableApplicationContext context;
+    private final TransactionTemplate tx;
+
+    @Value("${lms.synthetic.users:10000}")
+    private int users;
+
+    @Value("${lms.synthetic.books:50000}")
+    private int books;
+
+    @Value("${lms.synthetic.loans:1000000}")
+    private long loans;
+
+    @Value("${lms.synthetic.reservations:50000}")
+    private long reservations;
+
+    @Value("${lms.synthetic.seed:42}")
+    private long seed;
+
+    @Value("${lms.synthetic.as-of:}")
+    private String asOfSetting;
+
+    @Value("${lms.synthetic.history-days:730}")
+    private int historyDays;
+
+    @Value("${lms.synthetic.open-loan-share:0.03}")
+    private double openLoanShare;
+
+    @Value("${lms.synthetic.pending-reservation-share:0.1}")
+    private double pendingReservationShare;
+
+    @Value("${lms.synthetic.popularity-skew:1.1}")
+    private double popularitySkew;
+
+    @Value("${lms.synthetic.borrower-skew:0.8}")
+    private double borrowerSkew;
+
+    @Value("${lms.synthetic.batch-rows:1000}")
+    private int batchRows;
+
+    @Value("${lms.synthetic.chunk-rows:20000}")
+    private int chunkRows;
+
+    @Value("${lms.synthetic.exit-when-done:false}")
+    private boolean exitWhenDone;
+
+    public SyntheticDataSeeder(JdbcTemplate jdbcTemplate,
+                               IdAllocator ids,
+                               JobCheckpoints checkpoints,
+                               PasswordEncoder passwordEncoder,
+                               FineCalculator fineCalculator,
+                               ReportService reportService,
+                               KnownKeys knownKeys,
+                               ApplicationEventPublisher events,
+                               ConfigurableApplicationContext context,
+                               PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = ids;
+        this.checkpoints = checkpoints;
+        this.passwordEncoder = passwordEncoder;
+        this.fineCalculator = fineCalculator;
+        this.reportService = reportService;
+        this.knownKeys = knownKeys;
+        this.events = events;
+        this.context = context;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public String name() {
+        return "synthetic-data";
+    }
+
+    @Override
+    public void run() {
+        String runKey = "s" + seed + "-u" + users + "-b" + books + "-l" + loans + "-r" + reservations;
+        JobCheckpoints.Checkpoint checkpoint = checkpoints.load(JOB_NAME).orElse(null);
+        long done = 0;
+        if (checkpoint != null && checkpoint.runKey().equals(runKey)) {
+            if (checkpoint.completed()) {
+                log.info("[Synthetic] Data for {} already generated", runKey);
+                exitIfRequested();
+                return;
+            }
+            done = checkpoint.lastId();
+            log.info("[Synthetic] Resuming {} after {} rows", runKey, done);
+        } else if (checkpoint != null) {
+            log.warn("[Synthetic] Previous run {} differs from {}; existing members and books are kept, loans and reservations are added",
+                    checkpoint.runKey(), runKey);
+        }
+
+        long started = System.nanoTime();
+        LocalDateTime asOf = (asOfSetting.isBlank() ? LocalDate.now() : LocalDate.parse(asOfSetting)).atStartOfDay();
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        Long studentRole = jdbcTemplate.queryForList("SELECT id FROM roles WHERE code = 'STUDENT'", Long.class)
+                .stream().findFirst().orElse(null);
+        if (studentRole == null) log.warn("[Synthetic] No STUDENT role; members are created without roles");
+
+        long offset = 0;
+        done = stage(runKey, done, offset, users, (from, to) -> writeUsers(from, to, asOf, passwordHash, studentRole));
+        offset += users;
+        done = stage(runKey, done, offset, books, this::writeBooks);
+        offset += books;
+
+        Skewed borrowers = new Skewed(loadUserIds(), borrowerSkew);
+        int[] onShelf = new int[books];
+        Skewed titles = new Skewed(loadBookIds(onShelf), popularitySkew);
+        long openLoans = Math.min(Math.min(Math.round(loans * openLoanShare), users), Arrays.stream(onShelf).asLongStream().sum());
+        long[] openBooks = openLoanBooks(openLoans, titles, onShelf);
+        long pending = Math.min(Math.round(reservations * pendingReservationShare), users);
+        done = stage(runKey, done, offset, loans, (from, to) -> writeLoans(from, to, openBooks, borrowers, titles, asOf));
+        offset += loans;
+        done = stage(runKey, done, offset, reservations, (from, to) -> writeReservations(from, to, pending, borrowers, titles, asOf));
+
+        long total = done;
+        tx.executeWithoutResult(status -> {
+            // Copies out on this run's open loans are not on the shelf; earlier runs already took theirs off.
+            Map<Long, Integer> lent = new HashMap<>();
+            for (long bookId : openBooks) lent.merge(bookId, 1, Integer::sum);
+            List<Object[]> args = new ArrayList<>(lent.size());
+            lent.forEach((bookId, count) -> args.add(new Object[]{count, bookId}));
+            jdbcTemplate.batchUpdate("UPDATE books SET quantity = quantity - ? WHERE id = ?", args);
+            checkpoints.save(JOB_NAME, runKey, total, true);
+        });
+        log.info("[Synthetic] Generated {} ({} open loans, {} pending reservations) in {} ms",
+                runKey, openLoans, pending, (System.nanoTime() - started) / 1_000_000);
+
+        refreshDerivedState();
+        exitIfRequested();
+    }
+
+    /** Writes rows {@code [done - offset, count)} of one table, a chunk per transaction with its checkpoint. */
+    private long stage(String runKey, long done, long offset, long count, RangeWriter writer) {
+        for (long from = Math.max(0, done - offset); from < count; from += chunkRows) {
+            long start = from;
+            long end = Math.min(count, from + chunkRows);
+            tx.executeWithoutResult(status -> {
+                writer.write(start, end);
+                checkpoints.save(JOB_NAME, runKey, offset + end, false);
+            });
+        }
+        return Math.max(done, offset + count);
+    }
+
+    private void writeUsers(long from, long to, LocalDateTime asOf, String passwordHash, Long studentRole) {
+        List<String> emails = new ArrayList<>();
+        for (long i = from; i < to; i++) emails.add(email(i));
+        Set<String> existing = existing("SELECT email FROM users WHERE email IN ", emails);
+
+        List<Object[]> rows = new ArrayList<>();
+        int fresh = (int) (to - from) - existing.size();
+        long id = fresh == 0 ? 0 : ids.allocate("users", fresh);
+        List<Object[]> roles = new ArrayList<>();
+        for (long i = from; i < to; i++) {
+            String email = email(i);
+            if (existing.contains(email)) continue;
+            SplittableRandom rng = random(USERS, i);
+            double s = rng.nextDouble();
+            String status = s < 0.97 ? "ACTIVE" : s < 0.99 ? "INACTIVE" : "SUSPENDED";
+            String name = FIRST_NAMES[rng.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[rng.nextInt(LAST_NAMES.length)];
+            LocalDateTime createdAt = asOf.minusDays(historyDays + rng.nextInt(365)).plusMinutes(rng.nextInt(24 * 60));
+            rows.add(new Object[]{id, name, email, passwordHash, status, Timestamp.valueOf(createdAt)});
+            if (studentRole != null) roles.add(new Object[]{id, studentRole});
+            id++;
+        }
+        insert("INSERT INTO users (id, name, email, password_hash, status, created_at) VALUES ", 6, rows);
+        insert("INSERT INTO user_roles (user_id, role_id) VALUES ", 2, roles);
+    }
+
+    private void writeBooks(long from, long to) {
+        List<String> isbns = new ArrayList<>();
+        for (long i = from; i < to; i++) isbns.add(isbn(i));
+        Set<String> existing = existing("SELECT isbn FROM books WHERE isbn IN ", isbns);
+
+        List<Object[]> rows = new ArrayList<>();
+        int fresh = (int) (to - from) - existing.size();
+        long id = fresh == 0 ? 0 : ids.allocate("books", fresh);
+        for (long i = from; i < to; i++) {
+            String isbn = isbn(i);
+            if (existing.contains(isbn)) continue;
+            SplittableRandom rng = random(BOOKS, i);
+            StringBuilder title = new StringBuilder();
+            for (int w = 2 + rng.nextInt(3); w > 0; w--) {
+                if (!title.isEmpty()) title.append(' ');
+                title.append(TITLE_WORDS[rng.nextInt(TITLE_WORDS.length)]);
+            }
+            title.append(' ').append(i + 1);
+            String author = FIRST_NAMES[rng.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[rng.nextInt(LAST_NAMES.length)];
+            int copies = rng.nextDouble() < 0.1 ? 5 + rng.nextInt(6) : 1 + rng.nextInt(4);
+            String status = rng.nextDouble() < 0.99 ? "AVAILABLE" : "UNAVAILABLE";
+            rows.add(new Object[]{id++, isbn, title.toString(), author, GENRES[rng.nextInt(GENRES.length)], copies, status, 0});
+        }
+        insert("INSERT INTO books (id, isbn, title, author, genre, quantity, status, version) VALUES ", 8, rows);
+    }
+
+    /**
+     * Book of each open loan (the last {@code openLoans} rows): the row's own draw while that book
+     * has a copy left, else the next book in catalog order that has. {@code openLoans} never
+     * exceeds the copies on the shelf, so every loan finds one.
+     */
+    private long[] openLoanBooks(long openLoans, Skewed titles, int[] onShelf) {
+        int[] left = onShelf.clone();
+        long[] chosen = new long[(int) openLoans];
+        long firstOpen = loans - openLoans;
+        for (int k = 0; k < chosen.length; k++) {
+            int b = titles.pickIndex(random(LOANS, firstOpen + k));
+            while (left[b] == 0) b = (b + 1) % left.length;
+            left[b]--;
+            chosen[k] = titles.id(b);
+        }
+        return chosen;
+    }
+
+    private void writeLoans(long from, long to, long[] openBooks, Skewed borrowers, Skewed titles, LocalDateTime asOf) {
+        List<Object[]> loanRows = new ArrayList<>((int) (to - from));
+        List<Object[]> fineRows = new ArrayList<>();
+        long id = ids.allocate("loans", (int) (to - from));
+        long firstOpen = loans - openBooks.length;
+        long historySeconds = (long) historyDays * 24 * 3600;
+        for (long i = from; i < to; i++, id++) {
+            SplittableRandom rng = random(LOANS, i);
+            boolean open = i >= firstOpen;
+            // Drawn for open loans too, so the rest of the row's draws do not depend on the cap.
+            long drawn = titles.pick(rng);
+            long bookId = open ? openBooks[(int) (i - firstOpen)] : drawn;
+            // Open loans go to distinct members (one each), so (member, book) is unique among them.
+            long userId = open ? borrowers.at(i - firstOpen) : borrowers.pick(rng);
+            int renewals = rng.nextDouble() < 0.15 ? 1 + rng.nextInt(2) : 0;
+            LocalDateTime checkout = open
+                    ? asOf.minusSeconds(rng.nextLong((LOAN_DAYS + 7) * 24 * 3600L))
+                    // Spread evenly over the history, oldest first, ending a day before as-of.
+                    : asOf.minusDays(1).minusSeconds(historySeconds - (long) ((i + rng.nextDouble()) * historySeconds / Math.max(1, firstOpen)));
+            LocalDateTime due = checkout.plusDays((long) LOAN_DAYS * (1 + renewals));
+            LocalDateTime returned = null;
+            String status;
+            if (open) {
+                status = due.isBefore(asOf) ? "OVERDUE" : "ACTIVE";
+                BigDecimal owed = fineCalculator.amountFor(due, asOf);
+                if (owed.signum() > 0) fineRows.add(fine(userId, id, owed, "PENDING", asOf, null));
+            } else {
+                status = "RETURNED";
+                // Most come back in time; about one in five is late by up to ten days.
+                long keptHours = rng.nextDouble() < 0.8
+                        ? 24 + rng.nextLong(Math.max(1, LOAN_DAYS * (1 + renewals) * 24L - 24))
+                        : LOAN_DAYS * (1 + renewals) * 24L + 1 + rng.nextLong(10 * 24);
+                returned = checkout.plusHours(keptHours);
+                if (!returned.isBefore(asOf)) returned = asOf.minusMinutes(1);
+                BigDecimal owed = fineCalculator.amountFor(due, returned);
+                if (owed.signum() > 0) {
+                    boolean waived = rng.nextDouble() < 0.15;
+                    fineRows.add(fine(userId, id, owed, waived ? "WAIVED" : "PAID", returned, waived ? null : returned));
+                }
+            }
+            loanRows.add(new Object[]{id, bookId, userId, Timestamp.valueOf(checkout), Timestamp.valueOf(due),
+                    returned == null ? null : Timestamp.valueOf(returned), status, renewals});
+        }
+        insert("INSERT INTO loans (id, book_id, user_id, checkout_at, due_at, returned_at, status, renewal_count) VALUES ", 8, loanRows);
+        if (!fineRows.isEmpty()) {
+            long fineId = ids.allocate("fines", fineRows.size());
+            for (Object[] row : fineRows) row[0] = fineId++;
+            insert("INSERT INTO fines (id, user_id, loan_id, amount, status, created_at, paid_at) VALUES ", 7, fineRows);
+        }
+    }
+
+    private static Object[] fine(long userId, long loanId, BigDecimal amount, String status, LocalDateTime createdAt, LocalDateTime paidAt) {
+        return new Object[]{null, userId, loanId, amount, status, Timestamp.valueOf(createdAt),
+                paidAt == null ? null : Timestamp.valueOf(paidAt)};
+    }
+
+    private void writeReservations(long from, long to, long pending, Skewed borrowers, Skewed titles, LocalDateTime asOf) {
+        List<Object[]> rows = new ArrayList<>((int) (to - from));
+        long id = ids.allocate("reservations", (int) (to - from));
+        long firstPending = reservations - pending;
+        long historySeconds = (long) historyDays * 24 * 3600;
+        for (long i = from; i < to; i++) {
+            SplittableRandom rng = random(RESERVATIONS, i);
+            boolean queued = i >= firstPending;
+            long bookId = titles.pick(rng);
+            // Counted from the other end than open loans, so a member rarely queues for a book they hold.
+            long userId = queued ? borrowers.at(borrowers.size() - 1 - (i - firstPending)) : borrowers.pick(rng);
+            LocalDateTime createdAt = queued
+                    ? asOf.minusSeconds(rng.nextLong(LOAN_DAYS * 24 * 3600L))
+                    : asOf.minusDays(LOAN_DAYS).minusSeconds(rng.nextLong(historySeconds));
+            String status = queued ? "PENDING" : rng.nextDouble() < 0.7 ? "FULFILLED" : "CANCELLED";
+            // Positions only need to grow per book, so the row number serves.
+            rows.add(new Object[]{id++, bookId, userId, Timestamp.valueOf(createdAt), status, (int) (i + 1)});
+        }
+        insert("INSERT INTO reservations (id, book_id, user_id, created_at, status, position) VALUES ", 6, rows);
+    }
+
+    /** One multi-row INSERT per {@code batch-rows} rows. */
+    private void insert(String prefix, int columns, List<Object[]> rows) {
+        String row = "(" + "?, ".repeat(columns - 1) + "?)";
+        for (int start = 0; start < rows.size(); start += batchRows) {
+            int end = Math.min(rows.size(), start + batchRows);
+            StringBuilder sql = new StringBuilder(prefix.length() + (end - start) * (row.length() + 2));
+            sql.append(prefix);
+            Object[] args = new Object[(end - start) * columns];
+            for (int r = start; r < end; r++) {
+                if (r > start) sql.append(", ");
+                sql.append(row);
+                System.arraycopy(rows.get(r), 0, args, (r - start) * columns, columns);
+            }
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+
+    private Set<String> existing(String selectIn, List<String> keys) {
+        Set<String> found = new HashSet<>();
+        for (int start = 0; start < keys.size(); start += batchRows) {
+            List<String> part = keys.subList(start, Math.min(keys.size(), start + batchRows));
+            String in = "(" + String.join(",", Collections.nCopies(part.size(), "?")) + ")";
+            jdbcTemplate.query(selectIn + in, (RowCallbackHandler) rs -> found.add(rs.getString(1)), part.toArray());
+        }
+        return found;
+    }
+
+    private long[] loadUserIds() {
+        long[] userIds = new long[users];
+        jdbcTemplate.query("SELECT id, email FROM users WHERE email LIKE '" + EMAIL_PREFIX + "%" + EMAIL_DOMAIN + "'",
+                (RowCallbackHandler) rs -> {
+                    String email = rs.getString(2);
+                    int i = Integer.parseInt(email.substring(EMAIL_PREFIX.length(), email.indexOf('@'))) - 1;
+                    if (i < users) userIds[i] = rs.getLong(1);
+                });
+        return requireAll(userIds, "member");
+    }
+
+    /** Ids of the synthetic books by number; {@code onShelf} gets the copies each can lend (none if unavailable). */
+    private long[] loadBookIds(int[] onShelf) {
+        long[] bookIds = new long[books];
+        jdbcTemplate.query("SELECT id, isbn, quantity, status FROM books WHERE isbn LIKE '" + ISBN_PREFIX + "%'", (RowCallbackHandler) rs -> {
+            int i = Integer.parseInt(rs.getString(2).substring(ISBN_PREFIX.length(), 12)) - 1;
+            if (i >= books) return;
+            bookIds[i] = rs.getLong(1);
+            onShelf[i] = "AVAILABLE".equals(rs.getString(4)) ? Math.max(0, rs.getInt(3)) : 0;
+        });
+        return requireAll(bookIds, "book");
+    }
+
+    private static long[] requireAll(long[] ids, String what) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == 0) throw new IllegalStateException("Synthetic " + what + " " + (i + 1) + " is missing");
+        }
+        return ids;
+    }
+
+    private void refreshDerivedState() {
+        try {
+            reportService.rebuild();
+        } catch (RuntimeException e) {
+            log.warn("[Synthetic] Report rebuild failed: {}", e.getMessage());
+        }
+        // Search index, availability table and ISBN filter reload on this event.
+        events.publishEvent(new CatalogImportedEvent(books, 0));
+        knownKeys.rebuildEmails();
+    }
+
+    private void exitIfRequested() {
+        if (exitWhenDone) {
+            log.info("[Synthetic] Done; exiting (lms.synthetic.exit-when-done)");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private SplittableRandom random(long table, long row) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + table * 0xBF58476D1CE4E5B9L + row);
+    }
+
+    static String email(long i) {
+        return EMAIL_PREFIX + (i + 1) + EMAIL_DOMAIN;
+    }
+
+    /** {@code 9790} + the 8-digit book number + ISBN-13 check digit. */
+    static String isbn(long i) {
+        String digits = ISBN_PREFIX + String.format("%08d", i + 1);
+        int sum = 0;
+        for (int d = 0; d < 12; d++) {
+            sum += (digits.charAt(d) - '0') * (d % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+
+    @FunctionalInterface
+    private interface RangeWriter {
+        void write(long from, long to);
+    }
+
+    /** Ids drawn with probability proportional to {@code 1 / rank^skew}; ranks are shuffled over the ids. */
+    private static final class Skewed {
+        private final long[] ids;
+        private final double[] cumulative;
+
+        Skewed(long[] ids, double skew) {
+            this.ids = ids;
+            this.cumulative = new double[ids.length];
+            double sum = 0;
+            for (int k = 0; k < ids.length; k++) {
+                sum += Math.pow(k + 1, -skew);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < ids.length; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        long pick(SplittableRandom rng) {
+            return ids[pickIndex(rng)];
+        }
+
+        /** Position in {@code ids} of a drawn id. */
+        int pickIndex(SplittableRandom rng) {
+            int rank = Arrays.binarySearch(cumulative, rng.nextDouble());
+            if (rank < 0) rank = -rank - 1;
+            return index(Math.min(rank, ids.length - 1));
+        }
+
+        /** The id at a rank, for callers that need distinct ids. */
+        long at(long rank) {
+            return ids[index(rank)];
+        }
+
+        long id(int index) {
+            return ids[index];
+        }
+
+        private int index(long rank) {
+            return (int) (rank % ids.length * SHUFFLE % ids.length);
+        }
+
+        int size() {
+            return ids.length;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package lk.sliit.lms.fines;
 
 import jakarta.persistence.*;
+import lk.sliit.lms.common.IdAllocator;
 import lombok.*;
 
 import java.math.BigDecimal;
@@ -16,7 +17,9 @@ import java.time.LocalDateTime;
 public class Fine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "fines_ids")
+    @TableGenerator(name = "fines_ids", table = IdAllocator.TABLE, pkColumnName = IdAllocator.NAME_COLUMN,
+            valueColumnName = IdAllocator.VALUE_COLUMN, pkColumnValue = "fines", allocationSize = IdAllocator.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
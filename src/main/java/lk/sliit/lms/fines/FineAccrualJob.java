@@ -0,0 +1,201 @@
+package lk.sliit.lms.fines;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lk.sliit.lms.common.IdAllocator;
+import lk.sliit.lms.common.JobCheckpoints;
+import lk.sliit.lms.reports.ReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly overdue detection and fine accrual.
+ * <p>
+ * Open loans past {@code due_at} are read in keyset pages along
+ * {@code idx_loans_status_due}, one status at a time ({@code status = ? AND (due_at, id) >
+ * last ORDER BY due_at, id LIMIT n}), so each page is a range read in index order and
+ * memory stays flat. OVERDUE loans go first: the ACTIVE pass moves the loans it flips into
+ * the OVERDUE range, which has already been read, so no loan is seen twice. Each page flips
+ * ACTIVE loans to OVERDUE, upserts one PENDING fine per loan that owes something (none while
+ * inside the grace period) and saves the checkpoint, the {@code (status, due_at, id)} of its
+ * last row, in a single transaction; a run that is interrupted resumes after the last
+ * committed page. Paid or waived fines are never changed. The day's overdue count
+ * for reporting is added in the same transaction, so a resumed run does not double it.
+ * <p>
+ * Writes go through JDBC batches, so they do not raise entity change events.
+ * <p>
+ * Runs are timed as {@code lms.fines.accrual} and pages as {@code lms.fines.accrual.page};
+ * {@code lms.fines.accrual.loans} counts the overdue loans processed.
+ */
+@Component
+public class FineAccrualJob {
+    private static final Logger log = LoggerFactory.getLogger(FineAccrualJob.class);
+    static final String JOB_NAME = "fine-accrual";
+
+    /** Public so QueryPlanTest EXPLAINs this exact statement. */
+    public static final String SELECT_PAGE =
+            "SELECT id, user_id, due_at FROM loans " +
+            "WHERE status = ? AND returned_at IS NULL AND due_at < ? " +
+            "AND due_at >= ? AND (due_at > ? OR id > ?) " +
+            "ORDER BY due_at, id LIMIT ?";
+    /** Pass order; see the class comment. */
+    private static final List<String> STATUSES = List.of("OVERDUE", "ACTIVE");
+    private static final String MARK_OVERDUE =
+            "UPDATE loans SET status = 'OVERDUE', version = version + 1 WHERE id = ? AND status = 'ACTIVE'";
+    private static final String UPSERT_FINE =
+            "INSERT INTO fines (id, user_id, loan_id, amount, status, created_at) VALUES (?, ?, ?, ?, 'PENDING', ?) " +
+            "ON DUPLICATE KEY UPDATE amount = CASE WHEN status = 'PENDING' THEN VALUES(amount) ELSE amount END";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobCheckpoints checkpoints;
+    private final FineCalculator calculator;
+    private final ReportService reports;
+    private final IdAllocator ids;
+    private final TransactionTemplate tx;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final MeterRegistry meterRegistry;
+    private final Timer pageTimer;
+    private final Counter accruedLoans;
+
+    @Value("${lms.fines.page-size:1000}")
+    private int pageSize;
+
+    public FineAccrualJob(JdbcTemplate jdbcTemplate,
+                          JobCheckpoints checkpoints,
+                          FineCalculator calculator,
+                          ReportService reports,
+                          IdAllocator ids,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpoints = checkpoints;
+        this.calculator = calculator;
+        this.reports = reports;
+        this.ids = ids;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.pageTimer = meterRegistry.timer("lms.fines.accrual.page");
+        this.accruedLoans = meterRegistry.counter("lms.fines.accrual.loans");
+    }
+
+    @Scheduled(cron = "${lms.fines.accrual-cron:0 30 1 * * *}")
+    public void nightly() {
+        run(LocalDateTime.now());
+    }
+
+    /** Runs (or resumes) accrual as of {@code asOf}. Safe to call again the same day; a finished run is skipped. */
+    public Result run(LocalDateTime asOf) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Result result = accrue(asOf);
+        sample.stop(meterRegistry.timer("lms.fines.accrual", "outcome", result.completed() ? "completed" : "skipped"));
+        return result;
+    }
+
+    private Result accrue(LocalDateTime asOf) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("[Fines] Accrual already running, skipping");
+            return new Result(0, 0, 0, false);
+        }
+        try {
+            String runKey = asOf.toLocalDate().toString();
+            JobCheckpoints.Checkpoint checkpoint = checkpoints.load(JOB_NAME).orElse(null);
+            Position from = Position.START;
+            if (checkpoint != null && checkpoint.runKey().equals(runKey)) {
+                if (checkpoint.completed()) {
+                    log.info("[Fines] Accrual for {} already completed", runKey);
+                    return new Result(0, 0, 0, true);
+                }
+                if (checkpoint.lastKey() != null) {
+                    from = new Position(checkpoint.lastKey(), Timestamp.valueOf(checkpoint.lastAt()), checkpoint.lastId());
+                    log.info("[Fines] Resuming accrual for {} after {} loan due {} (id {})",
+                            runKey, from.status(), checkpoint.lastAt(), from.id());
+                }
+            }
+
+            Timestamp cutoff = Timestamp.valueOf(asOf);
+            long loans = 0;
+            long flipped = 0;
+            long pages = 0;
+            for (String status : STATUSES.subList(STATUSES.indexOf(from.status()), STATUSES.size())) {
+                Position last = status.equals(from.status()) ? from : Position.start(status);
+                while (true) {
+                    Position after = last;
+                    List<OverdueLoan> page = jdbcTemplate.query(SELECT_PAGE,
+                            (rs, i) -> new OverdueLoan(
+                                    rs.getLong("id"),
+                                    rs.getLong("user_id"),
+                                    rs.getTimestamp("due_at").toLocalDateTime(),
+                                    "ACTIVE".equals(status)),
+                            status, cutoff, after.dueAt(), after.dueAt(), after.id(), pageSize);
+                    if (page.isEmpty()) break;
+
+                    OverdueLoan tail = page.get(page.size() - 1);
+                    Position pageLast = new Position(status, Timestamp.valueOf(tail.dueAt()), tail.id());
+                    long pageStarted = System.nanoTime();
+                    int pageFlipped = tx.execute(txStatus -> applyPage(page, asOf, runKey, pageLast));
+                    pageTimer.record(System.nanoTime() - pageStarted, TimeUnit.NANOSECONDS);
+                    accruedLoans.increment(page.size());
+                    last = pageLast;
+                    loans += page.size();
+                    flipped += pageFlipped;
+                    pages++;
+                    if (page.size() < pageSize) break;
+                }
+            }
+            checkpoints.save(JOB_NAME, runKey, 0, true);
+            log.info("[Fines] Accrual for {} done: {} overdue loans ({} newly overdue) in {} pages", runKey, loans, flipped, pages);
+            return new Result(loans, flipped, pages, true);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int applyPage(List<OverdueLoan> page, LocalDateTime asOf, String runKey, Position pageLast) {
+        List<Object[]> flips = new ArrayList<>();
+        List<Object[]> fines = new ArrayList<>(page.size());
+        Timestamp now = Timestamp.valueOf(asOf);
+        // One id per loan; rows that already have a fine keep theirs and the reserved id is skipped.
+        long id = ids.allocate("fines", page.size());
+        for (OverdueLoan loan : page) {
+            if (loan.active()) flips.add(new Object[]{loan.id()});
+            BigDecimal amount = calculator.amountFor(loan.dueAt(), asOf);
+            if (amount.signum() == 0) continue; // still inside the grace period
+            fines.add(new Object[]{id++, loan.userId(), loan.id(), amount, now});
+        }
+        if (!flips.isEmpty()) jdbcTemplate.batchUpdate(MARK_OVERDUE, flips);
+        if (!fines.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_FINE, fines);
+        reports.addOverdue(asOf.toLocalDate(), page.size());
+        checkpoints.save(JOB_NAME, runKey, pageLast.status(), pageLast.dueAt().toLocalDateTime(), pageLast.id(), false);
+        return flips.size();
+    }
+
+    /** Keyset position: the {@code (status, due_at, id)} of the last row read. */
+    private record Position(String status, Timestamp dueAt, long id) {
+        static final Position START = start(STATUSES.get(0));
+
+        static Position start(String status) {
+            return new Position(status, new Timestamp(0), 0);
+        }
+    }
+
+    private record OverdueLoan(long id, long userId, LocalDateTime dueAt, boolean active) {
+    }
+
+    public record Result(long overdueLoans, long newlyOverdue, long pages, boolean completed) {
+    }
+}
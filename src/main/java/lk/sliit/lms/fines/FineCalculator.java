@@ -0,0 +1,40 @@
+package lk.sliit.lms.fines;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Overdue fine: a flat daily rate for every whole day past the due date (after an
+ * optional grace period), capped at {@code lms.fines.max-amount}.
+ */
+@Component
+public class FineCalculator {
+    private final BigDecimal dailyRate;
+    private final BigDecimal maxAmount;
+    private final int graceDays;
+
+    public FineCalculator(@Value("${lms.fines.daily-rate:10.00}") BigDecimal dailyRate,
+                          @Value("${lms.fines.max-amount:500.00}") BigDecimal maxAmount,
+                          @Value("${lms.fines.grace-days:0}") int graceDays) {
+        this.dailyRate = dailyRate;
+        this.maxAmount = maxAmount;
+        this.graceDays = graceDays;
+    }
+
+    public long daysOverdue(LocalDateTime dueAt, LocalDateTime asOf) {
+        return Math.max(0, ChronoUnit.DAYS.between(dueAt.toLocalDate(), asOf.toLocalDate()));
+    }
+
+    public BigDecimal amountFor(LocalDateTime dueAt, LocalDateTime asOf) {
+        long chargeable = daysOverdue(dueAt, asOf) - graceDays;
+        if (chargeable <= 0) return BigDecimal.ZERO.setScale(2);
+        BigDecimal amount = dailyRate.multiply(BigDecimal.valueOf(chargeable));
+        // Rates and caps may carry more than two decimals; round to cents instead of failing.
+        return amount.min(maxAmount).setScale(2, RoundingMode.HALF_UP);
+    }
+}
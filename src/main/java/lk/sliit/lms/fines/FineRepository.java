@@ -0,0 +1,11 @@
+package lk.sliit.lms.fines;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface FineRepository extends JpaRepository<Fine, Long> {
+    Optional<Fine> findByLoanId(Long loanId);
+    List<Fine> findByUserIdAndStatus(Long userId, FineStatus status);
+}
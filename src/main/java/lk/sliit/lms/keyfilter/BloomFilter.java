@@ -0,0 +1,88 @@
+package lk.sliit.lms.keyfilter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size Bloom filter over strings, safe for concurrent {@link #put} and
+ * {@link #mightContain} (bits are set with CAS; a reader may miss a put still in progress,
+ * never one that has returned).
+ * <p>
+ * Bit positions come from double hashing ({@code h1 + i * h2}) of one 64-bit FNV-1a hash
+ * split by two murmur3 finalizers, so a probe hashes the key once. There is no delete: a
+ * removed key keeps its bits until the filter is rebuilt.
+ */
+final class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    private BloomFilter(long bits, int hashes) {
+        this.words = new AtomicLongArray((int) ((bits + 63) >>> 6));
+        this.bits = (long) words.length() << 6;
+        this.hashes = hashes;
+    }
+
+    /** Sized for {@code expectedKeys} at false-positive rate {@code fpp}. */
+    static BloomFilter create(long expectedKeys, double fpp) {
+        long n = Math.max(1, expectedKeys);
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        m = Math.min(Math.max(m, 64), (long) Integer.MAX_VALUE << 6);
+        int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        return new BloomFilter(m, k);
+    }
+
+    void put(CharSequence key) {
+        long h = fnv1a(key);
+        long h1 = fmix(h);
+        long h2 = fmix(h ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long old = words.get(word);
+            while ((old & mask) == 0 && !words.compareAndSet(word, old, old | mask)) {
+                old = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(CharSequence key) {
+        long h = fnv1a(key);
+        long h1 = fmix(h);
+        long h2 = fmix(h ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /** Current false-positive probability from the share of bits set: {@code fill^k}. One pass over the bits. */
+    double estimatedFpp() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) set += Long.bitCount(words.get(i));
+        return Math.pow((double) set / bits, hashes);
+    }
+
+    long sizeBytes() {
+        return bits >>> 3;
+    }
+
+    private static long fnv1a(CharSequence key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long fmix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53e4ba5L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
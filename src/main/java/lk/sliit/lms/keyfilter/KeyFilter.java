@@ -0,0 +1,73 @@
+package lk.sliit.lms.keyfilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.Consumer;
+
+/**
+ * One maintained filter: rebuilt from the database, topped up with keys committed on this
+ * node. Until the first build finishes every key "might" exist, so nothing is rejected.
+ * <p>
+ * Keys added while a rebuild is streaming go into both the old and the new filter, so a
+ * swap never loses them. Meters are tagged {@code filter=<name>}.
+ */
+final class KeyFilter {
+    private final double fpp;
+    private final Counter rejected;
+    private final Counter falsePositives;
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+
+    KeyFilter(String name, double fpp, MeterRegistry meterRegistry) {
+        this.fpp = fpp;
+        this.rejected = meterRegistry.counter("lms.keyfilter.rejected", "filter", name);
+        this.falsePositives = meterRegistry.counter("lms.keyfilter.false.positives", "filter", name);
+        Gauge.builder("lms.keyfilter.fpp", this, KeyFilter::estimatedFpp).tag("filter", name).register(meterRegistry);
+        Gauge.builder("lms.keyfilter.bytes", this, f -> f.current == null ? 0 : f.current.sizeBytes())
+                .tag("filter", name).baseUnit("bytes").register(meterRegistry);
+    }
+
+    /** False only when the key is certainly absent (counted as {@code lms.keyfilter.rejected}). */
+    boolean mightContain(String key) {
+        BloomFilter filter = current;
+        if (filter == null || filter.mightContain(key)) return true;
+        rejected.increment();
+        return false;
+    }
+
+    void add(String key) {
+        // Read building before current: see rebuild() for why this order cannot lose a key.
+        BloomFilter next = building;
+        BloomFilter filter = current;
+        if (filter != null) filter.put(key);
+        if (next != null) next.put(key);
+    }
+
+    /** A key the filter passed turned out not to exist. */
+    void falsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * Builds a filter for {@code expectedKeys} from {@code loader} and swaps it in. A key
+     * committed before the load starts is read by the load; one committed later goes through
+     * {@link #add}, which sees {@code building} already set.
+     */
+    void rebuild(long expectedKeys, Consumer<Consumer<String>> loader) {
+        BloomFilter next = BloomFilter.create(expectedKeys, fpp);
+        building = next;
+        try {
+            loader.accept(next::put);
+            current = next;
+        } finally {
+            building = null;
+        }
+    }
+
+    double estimatedFpp() {
+        BloomFilter filter = current;
+        return filter == null ? 0 : filter.estimatedFpp();
+    }
+}
@@ -0,0 +1,167 @@
+package lk.sliit.lms.keyfilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.sliit.lms.auth.User;
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.CatalogImportedEvent;
+import lk.sliit.lms.common.ChangeType;
+import lk.sliit.lms.common.EntityChange;
+import lk.sliit.lms.common.EntityChangeBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloom filters over every {@code users.email} (lower-cased) and {@code books.isbn}, so a
+ * login for an unknown email or a lookup of an unknown ISBN is answered without a query.
+ * <p>
+ * Each filter is built on startup by reading the keys in keyset pages, sized for twice the
+ * current row count. Committed inserts and updates on this node are added at once; a bulk
+ * catalog import (JDBC, no entity events) rebuilds the ISBN filter. Deleted keys keep their
+ * bits, so the filters are rebuilt every {@code lms.key-filters.rebuild-interval}; that
+ * rebuild is also when rows inserted by another node reach this one's filters, and until
+ * then such a member cannot sign in here. So the filters are off unless
+ * {@code lms.key-filters.enabled=true}, which suits a single node. Rebuilds of either filter
+ * never overlap: the scheduled one is skipped while another runs, the others wait for it.
+ * <p>
+ * Meters per filter ({@code filter=emails|isbns}): {@code lms.keyfilter.rejected} (answered
+ * without a query), {@code lms.keyfilter.false.positives} (passed but not found),
+ * {@code lms.keyfilter.fpp} (estimated from the bits set) and {@code lms.keyfilter.bytes}.
+ */
+@Service
+public class KnownKeys {
+    private static final Logger log = LoggerFactory.getLogger(KnownKeys.class);
+    private static final long MIN_CAPACITY = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final KeyFilter emails;
+    private final KeyFilter isbns;
+    private final boolean enabled;
+    private final ReentrantLock rebuilding = new ReentrantLock();
+
+    @Value("${lms.key-filters.page-size:10000}")
+    private int pageSize;
+
+    public KnownKeys(JdbcTemplate jdbcTemplate,
+                     MeterRegistry meterRegistry,
+                     @Value("${lms.key-filters.enabled:false}") boolean enabled,
+                     @Value("${lms.key-filters.fpp:0.01}") double fpp) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.emails = new KeyFilter("emails", fpp, meterRegistry);
+        this.isbns = new KeyFilter("isbns", fpp, meterRegistry);
+    }
+
+    /** False only if no user has this email (case-insensitive). */
+    public boolean mightBeEmail(String email) {
+        return emails.mightContain(normalize(email));
+    }
+
+    /** False only if no book has this ISBN-13. */
+    public boolean mightBeIsbn(String isbn13) {
+        return isbns.mightContain(isbn13);
+    }
+
+    /** Reports that a lookup the email filter let through found nothing. */
+    public void emailNotFound() {
+        emails.falsePositive();
+    }
+
+    public void isbnNotFound() {
+        isbns.falsePositive();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${lms.key-filters.rebuild-interval:5m}",
+               initialDelayString = "${lms.key-filters.rebuild-interval:5m}")
+    public void rebuild() {
+        if (!enabled || !rebuilding.tryLock()) return;
+        try {
+            long started = System.nanoTime();
+            long users = load(emails, "users", "email");
+            long books = load(isbns, "books", "isbn");
+            log.info("[KeyFilters] Built from {} emails and {} ISBNs in {} ms", users, books, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            // The previous filters stay in use (or none, which rejects nothing).
+            log.warn("[KeyFilters] Rebuild failed: {}", e.getMessage());
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    /**
+     * After a bulk import. Waits for a rebuild already running rather than skipping: that
+     * one may have read {@code books} before the import committed.
+     */
+    @EventListener(CatalogImportedEvent.class)
+    public void rebuildIsbns() {
+        if (!enabled) return;
+        rebuilding.lock();
+        try {
+            load(isbns, "books", "isbn");
+        } catch (RuntimeException e) {
+            log.warn("[KeyFilters] ISBN rebuild after import failed: {}", e.getMessage());
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    /** For users written through JDBC (synthetic data), which bypasses entity events. */
+    public void rebuildEmails() {
+        if (!enabled) return;
+        rebuilding.lock();
+        try {
+            load(emails, "users", "email");
+        } catch (RuntimeException e) {
+            log.warn("[KeyFilters] Email rebuild failed: {}", e.getMessage());
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    @EventListener
+    public void onEntityChanges(EntityChangeBatch batch) {
+        for (EntityChange<User> change : batch.ofType(User.class)) {
+            if (change.type() != ChangeType.DELETED) emails.add(normalize(change.entity().getEmail()));
+        }
+        for (EntityChange<Book> change : batch.ofType(Book.class)) {
+            if (change.type() != ChangeType.DELETED) isbns.add(change.entity().getIsbn());
+        }
+    }
+
+    private long load(KeyFilter filter, String table, String column) {
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        long expected = Math.max(MIN_CAPACITY, 2 * (rows == null ? 0 : rows));
+        String page = "SELECT id, " + column + " FROM " + table + " WHERE id > ? ORDER BY id LIMIT ?";
+        long[] loaded = {0};
+        filter.rebuild(expected, put -> {
+            long lastId = 0;
+            while (true) {
+                long from = lastId;
+                long[] last = {from, 0};
+                jdbcTemplate.query(page, rs -> {
+                    last[0] = rs.getLong(1);
+                    last[1]++;
+                    String key = rs.getString(2);
+                    if (key != null) put.accept(table.equals("users") ? normalize(key) : key);
+                }, from, pageSize);
+                loaded[0] += last[1];
+                lastId = last[0];
+                if (last[1] < pageSize) break;
+            }
+        });
+        return loaded[0];
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
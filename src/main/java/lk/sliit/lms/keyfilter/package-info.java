@@ -0,0 +1,5 @@
+/**
+ * In-memory Bloom filters over {@code users.email} and {@code books.isbn}, so lookups of
+ * keys that do not exist are answered without a query.
+ */
+package lk.sliit.lms.keyfilter;
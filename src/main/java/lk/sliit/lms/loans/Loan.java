@@ -1,7 +1,11 @@
 package lk.sliit.lms.loans;
 
 import jakarta.persistence.*;
+import lk.sliit.lms.common.EntityChangeListener;
+import lk.sliit.lms.common.IdAllocator;
+import lk.sliit.lms.common.Identifiable;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -12,19 +16,22 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Loan {
+@EntityListeners(EntityChangeListener.class)
+public class Loan implements Identifiable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "loans_ids")
+    @TableGenerator(name = "loans_ids", table = IdAllocator.TABLE, pkColumnName = IdAllocator.NAME_COLUMN,
+            valueColumnName = IdAllocator.VALUE_COLUMN, pkColumnValue = "loans", allocationSize = IdAllocator.ALLOCATION_SIZE)
     private Long id;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false) // report counters key on these (V8)
     private Long bookId;
 
     @Column(nullable = false)
     private Long userId;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private LocalDateTime checkoutAt;
 
     @Column(nullable = false)
@@ -35,4 +42,13 @@ public class Loan {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private LoanStatus status;
+
+    @Column(name = "renewal_count", nullable = false)
+    @Builder.Default
+    private Integer renewalCount = 0;
+
+    @Version
+    @ColumnDefault("0") // rows written through JDBC start at 0 (V12)
+    @Column(nullable = false)
+    private Long version;
 }
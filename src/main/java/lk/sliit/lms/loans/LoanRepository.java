@@ -2,6 +2,7 @@ package lk.sliit.lms.loans;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,4 +10,5 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
     List<Loan> findByUserId(Long userId);
     List<Loan> findByBookId(Long bookId);
     Optional<Loan> findByUserIdAndBookIdAndStatus(Long userId, Long bookId, LoanStatus status);
+    boolean existsByUserIdAndBookIdAndStatusIn(Long userId, Long bookId, Collection<LoanStatus> statuses);
 }
@@ -0,0 +1,249 @@
+package lk.sliit.lms.loans;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.BookStatus;
+import lk.sliit.lms.common.BusinessRuleException;
+import lk.sliit.lms.common.NotFoundException;
+import lk.sliit.lms.common.StripedLocks;
+import lk.sliit.lms.reservations.Reservation;
+import lk.sliit.lms.reservations.ReservationRepository;
+import lk.sliit.lms.reservations.ReservationStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Checkout, return and renewal.
+ * <p>
+ * Copy counts and loans change under two guards: a per-book striped lock, so checkouts,
+ * returns and renewals of the same title on this node queue in memory instead of on an
+ * InnoDB row lock, and the {@code @Version} columns on {@link Book} and {@link Loan}, which
+ * catch writers on other nodes. Version conflicts are retried with jittered backoff; an
+ * interrupt while waiting ends the operation.
+ * <p>
+ * A checkout takes the member's READY reservation for the book (marking it FULFILLED);
+ * members without one cannot take the copies that READY reservations hold.
+ * <p>
+ * The {@code userId} overloads of return and renew act for a member and treat someone
+ * else's loan as not found.
+ * <p>
+ * Each operation is timed as {@code lms.loans.checkout|return|renew} with an
+ * {@code outcome} tag (ok, rejected, error); time spent waiting for the book lock is
+ * {@code lms.loans.lock.wait} and version-conflict retries count {@code lms.loans.retries}.
+ */
+@Service
+public class LoanService {
+    private static final Logger log = LoggerFactory.getLogger(LoanService.class);
+
+    static final int MAX_RENEWALS = 2;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final List<LoanStatus> OPEN = List.of(LoanStatus.ACTIVE, LoanStatus.OVERDUE);
+
+    private final LoanRepository loanRepository;
+    private final BookRepository bookRepository;
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate tx;
+    private final StripedLocks bookLocks = new StripedLocks(256);
+    private final MeterRegistry meterRegistry;
+    private final Timer lockWait;
+    private final Counter retries;
+
+    @Value("${lms.loans.period-days:14}")
+    private int loanPeriodDays;
+
+    @Value("${lms.loans.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    public LoanService(LoanRepository loanRepository,
+                       BookRepository bookRepository,
+                       ReservationRepository reservationRepository,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.loanRepository = loanRepository;
+        this.bookRepository = bookRepository;
+        this.reservationRepository = reservationRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.lockWait = meterRegistry.timer("lms.loans.lock.wait");
+        this.retries = meterRegistry.counter("lms.loans.retries");
+    }
+
+    public Loan checkout(long bookId, long userId) {
+        return timed("checkout", () -> withBookLock(bookId, () -> {
+            Book book = bookRepository.findById(bookId)
+                    .orElseThrow(() -> new NotFoundException("Book not found: " + bookId));
+            if (book.getStatus() != BookStatus.AVAILABLE) {
+                throw new BusinessRuleException("Book is not available for loan");
+            }
+            if (book.getQuantity() <= 0) {
+                throw new BusinessRuleException("No copies available");
+            }
+            if (loanRepository.existsByUserIdAndBookIdAndStatusIn(userId, bookId, OPEN)) {
+                throw new BusinessRuleException("User already has an open loan for this book");
+            }
+            // READY reservations hold copies on the shelf: their owners take them, everyone
+            // else only gets the copies left over.
+            Optional<Reservation> hold = reservationRepository
+                    .findFirstByUserIdAndBookIdAndStatus(userId, bookId, ReservationStatus.READY);
+            if (hold.isPresent()) {
+                hold.get().setStatus(ReservationStatus.FULFILLED);
+                reservationRepository.save(hold.get());
+            } else if (book.getQuantity() <= reservationRepository.countByBookIdAndStatus(bookId, ReservationStatus.READY)) {
+                throw new BusinessRuleException("Remaining copies are held for reservations");
+            }
+
+            book.setQuantity(book.getQuantity() - 1);
+            bookRepository.save(book);
+
+            LocalDateTime now = LocalDateTime.now();
+            return loanRepository.save(Loan.builder()
+                    .bookId(bookId)
+                    .userId(userId)
+                    .checkoutAt(now)
+                    .dueAt(now.plusDays(loanPeriodDays))
+                    .status(LoanStatus.ACTIVE)
+                    .build());
+        }));
+    }
+
+    public Loan returnLoan(long loanId) {
+        return timed("return", () -> returnLocked(loanId, null));
+    }
+
+    /** Returns a loan of {@code userId}; anyone else's loan is reported as not found. */
+    public Loan returnLoan(long loanId, long userId) {
+        return timed("return", () -> returnLocked(loanId, userId));
+    }
+
+    private Loan returnLocked(long loanId, Long userId) {
+        long bookId = bookOf(loanId, userId);
+        return withBookLock(bookId, () -> {
+            Loan loan = load(loanId, userId);
+            if (loan.getStatus() != LoanStatus.ACTIVE && loan.getStatus() != LoanStatus.OVERDUE) {
+                throw new BusinessRuleException("Loan is not open: " + loan.getStatus());
+            }
+            Book book = bookRepository.findById(bookId)
+                    .orElseThrow(() -> new NotFoundException("Book not found: " + bookId));
+
+            loan.setStatus(LoanStatus.RETURNED);
+            loan.setReturnedAt(LocalDateTime.now());
+            book.setQuantity(book.getQuantity() + 1);
+            bookRepository.save(book);
+            return loanRepository.save(loan);
+        });
+    }
+
+    /** Extends the due date; allowed up to {@value #MAX_RENEWALS} times while nobody is queued for the book. */
+    public Loan renew(long loanId) {
+        return timed("renew", () -> renewLocked(loanId, null));
+    }
+
+    /** Renews a loan of {@code userId}; anyone else's loan is reported as not found. */
+    public Loan renew(long loanId, long userId) {
+        return timed("renew", () -> renewLocked(loanId, userId));
+    }
+
+    private Loan renewLocked(long loanId, Long userId) {
+        long bookId = bookOf(loanId, userId);
+        return withBookLock(bookId, () -> {
+            Loan loan = load(loanId, userId);
+            if (loan.getStatus() != LoanStatus.ACTIVE) {
+                throw new BusinessRuleException("Only active loans can be renewed");
+            }
+            if (loan.getRenewalCount() >= MAX_RENEWALS) {
+                throw new BusinessRuleException("Renewal limit reached (" + MAX_RENEWALS + ")");
+            }
+            if (reservationRepository.existsByBookIdAndStatus(loan.getBookId(), ReservationStatus.PENDING)) {
+                throw new BusinessRuleException("Book is reserved by another user");
+            }
+            loan.setRenewalCount(loan.getRenewalCount() + 1);
+            loan.setDueAt(loan.getDueAt().plusDays(loanPeriodDays));
+            return loanRepository.save(loan);
+        });
+    }
+
+    private long bookOf(long loanId, Long userId) {
+        return load(loanId, userId).getBookId();
+    }
+
+    /** The loan, if it exists and (when {@code userId} is given) belongs to that member. */
+    private Loan load(long loanId, Long userId) {
+        return loanRepository.findById(loanId)
+                .filter(l -> userId == null || l.getUserId().equals(userId))
+                .orElseThrow(() -> new NotFoundException("Loan not found: " + loanId));
+    }
+
+    private <T> T timed(String operation, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = work.get();
+            outcome = "ok";
+            return result;
+        } catch (BusinessRuleException | NotFoundException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("lms.loans." + operation, "outcome", outcome));
+        }
+    }
+
+    private <T> T withBookLock(long bookId, Supplier<T> work) {
+        ReentrantLock lock = bookLocks.forKey(bookId);
+        boolean locked;
+        long waitStarted = System.nanoTime();
+        try {
+            locked = lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessRuleException("Interrupted while waiting for book " + bookId);
+        } finally {
+            lockWait.record(System.nanoTime() - waitStarted, TimeUnit.NANOSECONDS);
+        }
+        if (!locked) {
+            throw new BusinessRuleException("Book is busy, please retry");
+        }
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return tx.execute(status -> work.get());
+                } catch (ObjectOptimisticLockingFailureException e) {
+                    if (attempt >= MAX_ATTEMPTS) {
+                        throw new BusinessRuleException("Book is busy, please retry");
+                    }
+                    log.debug("Version conflict on book {} (attempt {}), retrying", bookId, attempt);
+                    retries.increment();
+                    try {
+                        backoff(attempt);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        throw new BusinessRuleException("Interrupted while retrying book " + bookId);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void backoff(int attempt) throws InterruptedException {
+        long maxMillis = 5L << attempt;
+        Thread.sleep(ThreadLocalRandom.current().nextLong(1, maxMillis));
+    }
+}
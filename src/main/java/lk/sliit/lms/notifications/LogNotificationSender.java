@@ -0,0 +1,25 @@
+package lk.sliit.lms.notifications;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/** Fallback sender that writes notifications to the log; stands in until a real gateway is configured. */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class LogNotificationSender implements NotificationSender {
+    private static final Logger log = LoggerFactory.getLogger(LogNotificationSender.class);
+
+    @Override
+    public boolean supports(NotificationChannel channel) {
+        return true;
+    }
+
+    @Override
+    public void send(Notification notification) {
+        log.info("[Notify] {} to {} (user {}): {}\n{}", notification.channel(), notification.recipient(),
+                notification.userId(), notification.subject(), notification.body());
+    }
+}
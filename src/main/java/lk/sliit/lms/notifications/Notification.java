@@ -0,0 +1,5 @@
+package lk.sliit.lms.notifications;
+
+/** One message to one member over one channel; {@code recipient} is channel-specific (an address or number). */
+public record Notification(long userId, NotificationChannel channel, String recipient, String subject, String body) {
+}
@@ -0,0 +1,6 @@
+package lk.sliit.lms.notifications;
+
+public enum NotificationChannel {
+    EMAIL,
+    SMS
+}
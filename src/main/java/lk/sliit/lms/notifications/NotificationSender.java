@@ -0,0 +1,16 @@
+package lk.sliit.lms.notifications;
+
+/**
+ * Delivery SPI. Implementations are Spring beans; for each channel the scheduler uses
+ * the highest-precedence sender that {@link #supports} it (see {@code @Order}).
+ * <p>
+ * {@link #send} is called from many virtual threads at once and may block on I/O.
+ * Throwing marks that one notification as failed; it is not retried within the run, but
+ * a later run the same day resends it (see {@link ReminderScheduler#retryFailed}).
+ */
+public interface NotificationSender {
+
+    boolean supports(NotificationChannel channel);
+
+    void send(Notification notification) throws Exception;
+}
@@ -0,0 +1,289 @@
+package lk.sliit.lms.notifications;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.sliit.lms.common.JobCheckpoints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Daily due-soon and overdue reminders, one message per member per channel.
+ * <p>
+ * Loans are read in keyset pages on {@code (status, due_at, id)} (idx_loans_status_due):
+ * ACTIVE loans due before the reminder horizon, then OVERDUE loans. Members are
+ * resolved with one {@code IN} query per chunk. All database work happens up front on
+ * the scheduling thread, so delivery never holds a pooled connection.
+ * <p>
+ * Delivery runs on virtual threads. A semaphore bounds messages in flight and a token
+ * bucket per channel keeps each gateway under its rate limit. Sends that fail are stored
+ * in {@code notification_retries} (V13) and the day's checkpoint stays incomplete until
+ * a later run, usually {@link #retryFailed}, has delivered them; such a run resends only
+ * those. A run that completed is not repeated the same day.
+ */
+@Component
+public class ReminderScheduler {
+    private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
+    static final String JOB_NAME = "loan-reminders";
+    private static final DateTimeFormatter DUE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /** Public so QueryPlanTest EXPLAINs this exact statement. */
+    public static final String SELECT_PAGE =
+            "SELECT l.id, l.user_id, l.due_at, b.title FROM loans l JOIN books b ON b.id = l.book_id " +
+            "WHERE l.status = ? AND l.returned_at IS NULL AND l.due_at < ? " +
+            "AND l.due_at >= ? AND (l.due_at > ? OR l.id > ?) " +
+            "ORDER BY l.due_at, l.id LIMIT ?";
+    private static final int USER_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobCheckpoints checkpoints;
+    private final List<NotificationSender> senders;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate tx;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${lms.notifications.due-within-days:3}")
+    private int dueWithinDays;
+
+    @Value("${lms.notifications.page-size:1000}")
+    private int pageSize;
+
+    @Value("${lms.notifications.max-concurrency:64}")
+    private int maxConcurrency;
+
+    @Value("${lms.notifications.channels:EMAIL}")
+    private Set<NotificationChannel> channels;
+
+    private final Map<NotificationChannel, Double> ratePerSecond = new EnumMap<>(NotificationChannel.class);
+
+    public ReminderScheduler(JdbcTemplate jdbcTemplate,
+                             JobCheckpoints checkpoints,
+                             List<NotificationSender> senders,
+                             MeterRegistry meterRegistry,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${lms.notifications.rate.email-per-second:200}") double emailPerSecond,
+                             @Value("${lms.notifications.rate.sms-per-second:20}") double smsPerSecond) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpoints = checkpoints;
+        this.senders = senders;
+        this.meterRegistry = meterRegistry;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.ratePerSecond.put(NotificationChannel.EMAIL, emailPerSecond);
+        this.ratePerSecond.put(NotificationChannel.SMS, smsPerSecond);
+    }
+
+    @Scheduled(cron = "${lms.notifications.reminder-cron:0 0 8 * * *}")
+    public void daily() {
+        run(LocalDateTime.now());
+    }
+
+    /** Resends today's failed reminders; does nothing unless today's run left some behind. */
+    @Scheduled(cron = "${lms.notifications.retry-cron:0 30 8-20 * * *}")
+    public void retryFailed() {
+        LocalDateTime now = LocalDateTime.now();
+        String runKey = now.toLocalDate().toString();
+        checkpoints.load(JOB_NAME)
+                .filter(c -> c.runKey().equals(runKey) && !c.completed())
+                .ifPresent(c -> run(now));
+    }
+
+    /**
+     * Sends today's reminders as of {@code asOf}. A run that already completed today is
+     * skipped; after one that did not, only the failed sends are repeated.
+     */
+    public Result run(LocalDateTime asOf) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("[Notify] Reminder run already in progress, skipping");
+            return new Result(0, 0, 0, 0);
+        }
+        try {
+            String runKey = asOf.toLocalDate().toString();
+            JobCheckpoints.Checkpoint checkpoint = checkpoints.load(JOB_NAME).orElse(null);
+            if (checkpoint != null && checkpoint.runKey().equals(runKey) && checkpoint.completed()) {
+                log.info("[Notify] Reminders for {} already sent", runKey);
+                return new Result(0, 0, 0, 0);
+            }
+
+            // Null on the day's first run: everyone is due a reminder.
+            Set<Delivery> retry = checkpoint != null && checkpoint.runKey().equals(runKey) ? loadRetries(runKey) : null;
+
+            Map<Long, List<DueLoan>> byUser = new HashMap<>();
+            long loans = collect("ACTIVE", asOf.plusDays(dueWithinDays), byUser)
+                    + collect("OVERDUE", asOf, byUser);
+            if (retry != null) {
+                // Members whose loans were settled since the failed send drop out here.
+                Set<Long> retryUsers = new HashSet<>();
+                for (Delivery d : retry) retryUsers.add(d.userId());
+                byUser.keySet().retainAll(retryUsers);
+            }
+            List<Notification> outbox = compose(byUser, asOf, retry);
+            List<Notification> failed = deliver(outbox);
+            long sent = outbox.size() - failed.size();
+
+            saveOutcome(runKey, failed);
+            log.info("[Notify] Reminders for {}{}: {} loans, {} members, {} sent, {} failed",
+                    runKey, retry != null ? " (retry)" : "", loans, byUser.size(), sent, failed.size());
+            return new Result(loans, byUser.size(), sent, failed.size());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Set<Delivery> loadRetries(String runKey) {
+        return Set.copyOf(jdbcTemplate.query("SELECT user_id, channel FROM notification_retries WHERE run_key = ?",
+                (rs, i) -> new Delivery(rs.getLong("user_id"), NotificationChannel.valueOf(rs.getString("channel"))),
+                runKey));
+    }
+
+    /** Replaces the retry list with this run's failures; the day is complete once there are none. */
+    private void saveOutcome(String runKey, List<Notification> failed) {
+        List<Object[]> rows = new ArrayList<>(failed.size());
+        for (Notification n : failed) rows.add(new Object[]{runKey, n.userId(), n.channel().name()});
+        tx.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM notification_retries");
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT INTO notification_retries (run_key, user_id, channel) VALUES (?, ?, ?)", rows);
+            }
+            checkpoints.save(JOB_NAME, runKey, 0, failed.isEmpty());
+        });
+    }
+
+    /** Keyset scan of one status over {@code due_at < before}, grouped by member. */
+    private long collect(String status, LocalDateTime before, Map<Long, List<DueLoan>> byUser) {
+        Timestamp cutoff = Timestamp.valueOf(before);
+        Timestamp lastDue = new Timestamp(0);
+        long lastId = 0;
+        long total = 0;
+        while (true) {
+            List<DueLoan> page = jdbcTemplate.query(SELECT_PAGE,
+                    (rs, i) -> new DueLoan(
+                            rs.getLong("id"),
+                            rs.getLong("user_id"),
+                            rs.getTimestamp("due_at").toLocalDateTime(),
+                            rs.getString("title")),
+                    status, cutoff, lastDue, lastDue, lastId, pageSize);
+            for (DueLoan loan : page) {
+                byUser.computeIfAbsent(loan.userId(), k -> new ArrayList<>(2)).add(loan);
+            }
+            total += page.size();
+            if (page.size() < pageSize) return total;
+            DueLoan last = page.get(page.size() - 1);
+            lastDue = Timestamp.valueOf(last.dueAt());
+            lastId = last.loanId();
+        }
+    }
+
+    /** One notification per member and configured channel, or only those in {@code retry} when it is set. */
+    private List<Notification> compose(Map<Long, List<DueLoan>> byUser, LocalDateTime asOf, Set<Delivery> retry) {
+        List<Notification> outbox = new ArrayList<>(byUser.size());
+        List<Long> userIds = new ArrayList<>(byUser.keySet());
+        Collections.sort(userIds);
+        for (int from = 0; from < userIds.size(); from += USER_CHUNK) {
+            List<Long> chunk = userIds.subList(from, Math.min(userIds.size(), from + USER_CHUNK));
+            String in = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT id, name, email, phone FROM users WHERE status = 'ACTIVE' AND id IN (" + in + ")",
+                    rs -> {
+                        long userId = rs.getLong("id");
+                        String subject = "Library reminder";
+                        String body = body(rs.getString("name"), byUser.get(userId), asOf);
+                        for (NotificationChannel channel : channels) {
+                            if (retry != null && !retry.contains(new Delivery(userId, channel))) continue;
+                            String recipient = recipientFor(channel, rs.getString("email"), rs.getString("phone"));
+                            if (recipient != null) {
+                                outbox.add(new Notification(userId, channel, recipient, subject, body));
+                            }
+                        }
+                    },
+                    chunk.toArray());
+        }
+        return outbox;
+    }
+
+    private static String recipientFor(NotificationChannel channel, String email, String phone) {
+        return switch (channel) {
+            case EMAIL -> email;
+            case SMS -> phone == null || phone.isBlank() ? null : phone.trim(); // members without a number get email only
+        };
+    }
+
+    private static String body(String name, List<DueLoan> loans, LocalDateTime asOf) {
+        StringBuilder sb = new StringBuilder("Hello ").append(name).append(",\n");
+        loans.sort((a, b) -> a.dueAt().compareTo(b.dueAt()));
+        for (DueLoan loan : loans) {
+            sb.append(loan.dueAt().isBefore(asOf) ? "  OVERDUE  " : "  due      ")
+              .append(DUE_FORMAT.format(loan.dueAt())).append("  ").append(loan.title()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** Returns the notifications that could not be sent. */
+    private List<Notification> deliver(List<Notification> outbox) {
+        Map<NotificationChannel, NotificationSender> senderFor = new EnumMap<>(NotificationChannel.class);
+        Map<NotificationChannel, TokenBucket> limiterFor = new EnumMap<>(NotificationChannel.class);
+        for (NotificationChannel channel : channels) {
+            senders.stream().filter(s -> s.supports(channel)).findFirst().ifPresent(s -> senderFor.put(channel, s));
+            double rate = ratePerSecond.get(channel);
+            limiterFor.put(channel, new TokenBucket(rate, (int) Math.ceil(rate)));
+        }
+
+        Queue<Notification> failed = new ConcurrentLinkedQueue<>();
+        Semaphore inFlight = new Semaphore(maxConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Notification n : outbox) {
+                NotificationSender sender = senderFor.get(n.channel());
+                if (sender == null) {
+                    failed.add(n);
+                    continue;
+                }
+                // Acquire before submitting so at most maxConcurrency tasks exist at once.
+                inFlight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        limiterFor.get(n.channel()).acquire();
+                        sender.send(n);
+                        meterRegistry.counter("lms.notifications.sent", "channel", n.channel().name()).increment();
+                    } catch (Exception e) {
+                        if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                        failed.add(n);
+                        meterRegistry.counter("lms.notifications.failed", "channel", n.channel().name()).increment();
+                        log.warn("[Notify] {} to user {} failed: {}", n.channel(), n.userId(), e.getMessage());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return List.copyOf(failed);
+    }
+
+    private record DueLoan(long loanId, long userId, LocalDateTime dueAt, String title) {
+    }
+
+    private record Delivery(long userId, NotificationChannel channel) {
+    }
+
+    public record Result(long loans, long members, long sent, long failed) {
+    }
+}
@@ -0,0 +1,39 @@
+package lk.sliit.lms.notifications;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token-bucket rate limiter: {@code permitsPerSecond} sustained, with up to
+ * {@code burst} permits available after an idle period.
+ * <p>
+ * Callers reserve a slot under a short lock and sleep outside it, so waiting virtual
+ * threads unmount instead of pinning a carrier.
+ */
+final class TokenBucket {
+    private final long nanosPerPermit;
+    private final long burstNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nextFree = System.nanoTime();
+
+    TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond must be > 0");
+        this.nanosPerPermit = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = nanosPerPermit * Math.max(1, burst);
+    }
+
+    void acquire() throws InterruptedException {
+        long wait;
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            // Unused capacity accumulates only up to the burst size.
+            if (now - nextFree > burstNanos) nextFree = now - burstNanos;
+            wait = nextFree - now;
+            nextFree += nanosPerPermit;
+        } finally {
+            lock.unlock();
+        }
+        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+    }
+}
@@ -1,5 +1,5 @@
 /**
- * Notifications scheduler (due/overdue reminders via email/SMS abstraction) — placeholders for now.
+ * Notifications: daily due-soon and overdue reminders, grouped per member and delivered
+ * through the {@link lk.sliit.lms.notifications.NotificationSender} SPI (email/SMS).
  */
 package lk.sliit.lms.notifications;
-
@@ -0,0 +1,6 @@
+package lk.sliit.lms.reports;
+
+import java.time.LocalDate;
+
+public record DailyCount(LocalDate day, long count) {
+}
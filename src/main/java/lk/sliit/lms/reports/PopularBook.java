@@ -0,0 +1,4 @@
+package lk.sliit.lms.reports;
+
+public record PopularBook(long bookId, String title, String author, long borrowCount) {
+}
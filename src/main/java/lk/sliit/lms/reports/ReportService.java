@@ -0,0 +1,138 @@
+package lk.sliit.lms.reports;
+
+import lk.sliit.lms.common.EntityChange;
+import lk.sliit.lms.common.EntityChangeBatch;
+import lk.sliit.lms.loans.Loan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summary tables behind the dashboard reports (V8).
+ * <p>
+ * Each committed loan checkout adds one to its book's borrow count and to its day's
+ * checkout count, and a deleted loan takes it away again; updates cannot move a loan
+ * between books or days ({@code bookId} and {@code checkoutAt} are not updatable), so
+ * they leave the counts alone. The nightly fine accrual adds the overdue loans it finds. Reads are
+ * primary-key ranges or a short walk of {@code idx_report_book_borrows_count}, so their
+ * cost does not grow with the loan history. If an increment is ever lost (the update
+ * runs after the loan commits), {@link #rebuild()} recomputes the tables from {@code loans}.
+ * <p>
+ * Report reads run in read-only transactions, so they use the replica pool when one is configured.
+ */
+@Service
+public class ReportService {
+    private static final Logger log = LoggerFactory.getLogger(ReportService.class);
+
+    // Deltas may be negative (deleted loans); counts never drop below zero.
+    private static final String ADD_BORROWS =
+            "INSERT INTO report_book_borrows (book_id, borrow_count) VALUES (?, GREATEST(?, 0)) " +
+            "ON DUPLICATE KEY UPDATE borrow_count = GREATEST(borrow_count + ?, 0)";
+    private static final String ADD_CHECKOUTS =
+            "INSERT INTO report_daily_checkouts (report_date, checkouts) VALUES (?, GREATEST(?, 0)) " +
+            "ON DUPLICATE KEY UPDATE checkouts = GREATEST(checkouts + ?, 0)";
+    private static final String ADD_OVERDUE =
+            "INSERT INTO report_daily_overdue (report_date, overdue_loans) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE overdue_loans = overdue_loans + VALUES(overdue_loans)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate reads;
+
+    public ReportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        // Counters are bumped from after-commit callbacks, so always start a fresh transaction.
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reads = new TransactionTemplate(transactionManager);
+        this.reads.setReadOnly(true);
+    }
+
+    public List<PopularBook> popular(int limit) {
+        return reads.execute(status -> jdbcTemplate.query(
+                "SELECT r.book_id, b.title, b.author, r.borrow_count FROM report_book_borrows r " +
+                "JOIN books b ON b.id = r.book_id WHERE r.borrow_count > 0 ORDER BY r.borrow_count DESC, r.book_id DESC LIMIT ?",
+                (rs, i) -> new PopularBook(rs.getLong("book_id"), rs.getString("title"),
+                        rs.getString("author"), rs.getLong("borrow_count")),
+                limit));
+    }
+
+    public List<DailyCount> checkouts(LocalDate from, LocalDate to) {
+        return reads.execute(status -> jdbcTemplate.query(
+                "SELECT report_date, checkouts FROM report_daily_checkouts WHERE report_date BETWEEN ? AND ? ORDER BY report_date",
+                (rs, i) -> new DailyCount(rs.getDate("report_date").toLocalDate(), rs.getLong("checkouts")),
+                Date.valueOf(from), Date.valueOf(to)));
+    }
+
+    public List<DailyCount> overdue(LocalDate from, LocalDate to) {
+        return reads.execute(status -> jdbcTemplate.query(
+                "SELECT report_date, overdue_loans FROM report_daily_overdue WHERE report_date BETWEEN ? AND ? ORDER BY report_date",
+                (rs, i) -> new DailyCount(rs.getDate("report_date").toLocalDate(), rs.getLong("overdue_loans")),
+                Date.valueOf(from), Date.valueOf(to)));
+    }
+
+    /** Adds to a day's overdue count; joins the caller's transaction so it commits with the caller's page. */
+    public void addOverdue(LocalDate day, long loans) {
+        if (loans > 0) jdbcTemplate.update(ADD_OVERDUE, Date.valueOf(day), loans);
+    }
+
+    @EventListener
+    public void onEntityChanges(EntityChangeBatch batch) {
+        Map<Long, Long> borrowsByBook = new TreeMap<>();
+        Map<LocalDate, Long> checkoutsByDay = new TreeMap<>();
+        for (EntityChange<Loan> change : batch.ofType(Loan.class)) {
+            long delta = switch (change.type()) {
+                case INSERTED -> 1;
+                case DELETED -> -1;
+                case UPDATED -> 0;
+            };
+            if (delta == 0) continue;
+            Loan loan = change.entity();
+            borrowsByBook.merge(loan.getBookId(), delta, Long::sum);
+            checkoutsByDay.merge(loan.getCheckoutAt().toLocalDate(), delta, Long::sum);
+        }
+        borrowsByBook.values().removeIf(n -> n == 0);
+        checkoutsByDay.values().removeIf(n -> n == 0);
+        if (borrowsByBook.isEmpty() && checkoutsByDay.isEmpty()) return;
+
+        // Keys in sorted order, so concurrent batches lock summary rows in the same order.
+        List<Object[]> borrows = new ArrayList<>(borrowsByBook.size());
+        borrowsByBook.forEach((bookId, n) -> borrows.add(new Object[]{bookId, n, n}));
+        List<Object[]> days = new ArrayList<>(checkoutsByDay.size());
+        checkoutsByDay.forEach((day, n) -> days.add(new Object[]{Date.valueOf(day), n, n}));
+        try {
+            tx.executeWithoutResult(status -> {
+                if (!borrows.isEmpty()) jdbcTemplate.batchUpdate(ADD_BORROWS, borrows);
+                if (!days.isEmpty()) jdbcTemplate.batchUpdate(ADD_CHECKOUTS, days);
+            });
+        } catch (RuntimeException e) {
+            // The loan itself is committed; the report catches up on the next rebuild.
+            log.warn("[Reports] Could not update loan counters for {} books: {}", borrows.size(), e.getMessage());
+        }
+    }
+
+    /** Recomputes borrow and checkout counts from {@code loans} (one full scan). Overdue history is kept. */
+    public void rebuild() {
+        tx.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM report_book_borrows");
+            jdbcTemplate.update("INSERT INTO report_book_borrows (book_id, borrow_count) " +
+                    "SELECT book_id, COUNT(*) FROM loans GROUP BY book_id");
+            jdbcTemplate.update("DELETE FROM report_daily_checkouts");
+            jdbcTemplate.update("INSERT INTO report_daily_checkouts (report_date, checkouts) " +
+                    "SELECT DATE(checkout_at), COUNT(*) FROM loans GROUP BY DATE(checkout_at)");
+        });
+        log.info("[Reports] Summary tables rebuilt from loans");
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Reporting: borrow counts per book, checkouts per day and overdue loans per day, read
+ * from summary tables that are updated as loans change instead of rescanning {@code loans}.
+ */
+package lk.sliit.lms.reports;
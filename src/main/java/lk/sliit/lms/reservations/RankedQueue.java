@@ -0,0 +1,122 @@
+package lk.sliit.lms.reservations;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * FIFO queue of reservation ids with O(log n) rank lookup, removal from the middle
+ * and head lookup, backed by a Fenwick tree over arrival slots.
+ * <p>
+ * Removing an entry only clears its slot, so nobody else's slot (or persisted
+ * position) changes. Slots are compacted when the tree grows to more than twice the
+ * live entries, which keeps the amortized cost logarithmic. Not thread-safe; callers
+ * hold {@link #lock}.
+ */
+class RankedQueue {
+    final ReentrantLock lock = new ReentrantLock();
+    /** Set, under {@link #lock}, once the queue is dropped from the service's map. */
+    boolean retired;
+
+    private long[] ids = new long[16];
+    private int[] tree = new int[17];
+    private int used;
+    private int live;
+    private final Map<Long, Integer> slotById = new HashMap<>();
+
+    /** Next persisted position for this book; positions only ever grow (gap numbering). */
+    private int nextPosition = 1;
+
+    int size() {
+        return live;
+    }
+
+    int nextPosition() {
+        return nextPosition;
+    }
+
+    void observePosition(int position) {
+        nextPosition = Math.max(nextPosition, position + 1);
+    }
+
+    boolean contains(long reservationId) {
+        return slotById.containsKey(reservationId);
+    }
+
+    void append(long reservationId) {
+        if (used == ids.length) grow();
+        ids[used] = reservationId;
+        slotById.put(reservationId, used);
+        add(used, 1);
+        used++;
+        live++;
+    }
+
+    boolean remove(long reservationId) {
+        Integer slot = slotById.remove(reservationId);
+        if (slot == null) return false;
+        add(slot, -1);
+        live--;
+        return true;
+    }
+
+    /** 1-based place in line, or 0 if the id is not queued. */
+    int rank(long reservationId) {
+        Integer slot = slotById.get(reservationId);
+        return slot == null ? 0 : prefixSum(slot);
+    }
+
+    /** Reservation id at the front of the queue, or -1 when empty. */
+    long head() {
+        if (live == 0) return -1;
+        // Fenwick descent: find the smallest slot whose prefix sum reaches 1.
+        int pos = 0;
+        int remaining = 1;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next < tree.length && tree[next] < remaining) {
+                pos = next;
+                remaining -= tree[next];
+            }
+        }
+        return ids[pos];
+    }
+
+    private void add(int slot, int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private int prefixSum(int slot) {
+        int sum = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void grow() {
+        long[] liveIds = new long[live];
+        int n = 0;
+        for (int slot = 0; slot < used; slot++) {
+            if (slotById.get(ids[slot]) != null && slotById.get(ids[slot]) == slot) {
+                liveIds[n++] = ids[slot];
+            }
+        }
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(live, 1)) << 2);
+        ids = Arrays.copyOf(liveIds, capacity);
+        tree = new int[capacity + 1];
+        slotById.clear();
+        used = 0;
+        live = 0;
+        for (int i = 0; i < n; i++) {
+            ids[used] = liveIds[i];
+            slotById.put(liveIds[i], used);
+            add(used, 1);
+            used++;
+            live++;
+        }
+    }
+}
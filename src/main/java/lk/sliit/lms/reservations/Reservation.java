@@ -1,6 +1,9 @@
 package lk.sliit.lms.reservations;
 
 import jakarta.persistence.*;
+import lk.sliit.lms.common.EntityChangeListener;
+import lk.sliit.lms.common.IdAllocator;
+import lk.sliit.lms.common.Identifiable;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -12,10 +15,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Reservation {
+@EntityListeners(EntityChangeListener.class)
+public class Reservation implements Identifiable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reservations_ids")
+    @TableGenerator(name = "reservations_ids", table = IdAllocator.TABLE, pkColumnName = IdAllocator.NAME_COLUMN,
+            valueColumnName = IdAllocator.VALUE_COLUMN, pkColumnValue = "reservations", allocationSize = IdAllocator.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,250 @@
+package lk.sliit.lms.reservations;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lk.sliit.lms.availability.AvailabilityService;
+import lk.sliit.lms.common.BusinessRuleException;
+import lk.sliit.lms.common.ChangeType;
+import lk.sliit.lms.common.EntityChange;
+import lk.sliit.lms.common.EntityChangeBatch;
+import lk.sliit.lms.common.NotFoundException;
+import lk.sliit.lms.loans.Loan;
+import lk.sliit.lms.loans.LoanStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First-come-first-served reservation queues.
+ * <p>
+ * Each book's PENDING reservations are held in a {@link RankedQueue}, loaded lazily
+ * in {@code position} order (idx_reservations_book_status_pos). The persisted
+ * {@code position} is an ever-increasing sequence per book, so a cancel touches one
+ * row; the place in line shown to users is derived from the queue on read.
+ * Queue mutations happen after the row is committed, under the queue's lock (a
+ * {@code ReentrantLock}, not a monitor, so virtual threads blocked on JDBC inside it do
+ * not pin their carrier), and
+ * each one reports the new queue length to {@link AvailabilityService}. A queue that
+ * empties is dropped from memory under its lock (and marked retired, so a thread that
+ * fetched it just before retries with a fresh load); only books with someone waiting
+ * stay cached. Promotions are timed as {@code lms.reservations.promotion}, tagged with
+ * whether someone was promoted.
+ * <p>
+ * The {@code userId} overloads of view and cancel act for a member and treat someone
+ * else's reservation as not found.
+ */
+@Service
+public class ReservationQueueService {
+    private static final Logger log = LoggerFactory.getLogger(ReservationQueueService.class);
+
+    private final ReservationRepository reservationRepository;
+    private final AvailabilityService availability;
+    private final TransactionTemplate tx;
+    private final Map<Long, RankedQueue> queues = new ConcurrentHashMap<>();
+    private final Timer promoted;
+    private final Timer nobodyWaiting;
+
+    public ReservationQueueService(ReservationRepository reservationRepository,
+                                   AvailabilityService availability,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.reservationRepository = reservationRepository;
+        this.availability = availability;
+        this.promoted = meterRegistry.timer("lms.reservations.promotion", "outcome", "promoted");
+        this.nobodyWaiting = meterRegistry.timer("lms.reservations.promotion", "outcome", "empty");
+        this.tx = new TransactionTemplate(transactionManager);
+        // Promotion runs from after-commit callbacks, so always start a fresh transaction.
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public ReservationView enqueue(long bookId, long userId) {
+        RankedQueue queue = lockQueue(bookId);
+        try {
+            if (reservationRepository.existsByUserIdAndBookIdAndStatusIn(userId, bookId,
+                    EnumSet.of(ReservationStatus.PENDING, ReservationStatus.READY))) {
+                throw new BusinessRuleException("User already holds a reservation for this book");
+            }
+            int position = queue.nextPosition();
+            Reservation saved = tx.execute(status -> reservationRepository.save(Reservation.builder()
+                    .bookId(bookId)
+                    .userId(userId)
+                    .createdAt(LocalDateTime.now())
+                    .status(ReservationStatus.PENDING)
+                    .position(position)
+                    .build()));
+            queue.observePosition(position);
+            queue.append(saved.getId());
+            availability.queueChanged(bookId, queue.size());
+            return ReservationView.of(saved, queue.rank(saved.getId()));
+        } finally {
+            unlockQueue(bookId, queue);
+        }
+    }
+
+    public ReservationView cancel(long reservationId) {
+        return cancel(reservationId, null);
+    }
+
+    /** Cancels a reservation of {@code userId}; anyone else's is reported as not found. */
+    public ReservationView cancel(long reservationId, Long userId) {
+        Reservation reservation = find(reservationId, userId);
+        RankedQueue queue = lockQueue(reservation.getBookId());
+        boolean promote;
+        Reservation saved;
+        try {
+            Reservation current = find(reservationId, userId);
+            if (current.getStatus() != ReservationStatus.PENDING && current.getStatus() != ReservationStatus.READY) {
+                throw new BusinessRuleException("Reservation is not active: " + current.getStatus());
+            }
+            promote = current.getStatus() == ReservationStatus.READY;
+            current.setStatus(ReservationStatus.CANCELLED);
+            saved = tx.execute(status -> reservationRepository.save(current));
+            queue.remove(reservationId);
+            availability.queueChanged(reservation.getBookId(), queue.size());
+        } finally {
+            unlockQueue(reservation.getBookId(), queue);
+        }
+        // A READY hold that is given up passes the copy to the next in line.
+        if (promote) promoteNext(reservation.getBookId());
+        return ReservationView.of(saved, 0);
+    }
+
+    public ReservationView view(long reservationId) {
+        return view(reservationId, null);
+    }
+
+    /** Shows a reservation of {@code userId}; anyone else's is reported as not found. */
+    public ReservationView view(long reservationId, Long userId) {
+        Reservation reservation = find(reservationId, userId);
+        if (reservation.getStatus() != ReservationStatus.PENDING) {
+            return ReservationView.of(reservation, 0);
+        }
+        RankedQueue queue = lockQueue(reservation.getBookId());
+        try {
+            return ReservationView.of(reservation, queue.rank(reservationId));
+        } finally {
+            unlockQueue(reservation.getBookId(), queue);
+        }
+    }
+
+    public int queueLength(long bookId) {
+        RankedQueue queue = lockQueue(bookId);
+        try {
+            return queue.size();
+        } finally {
+            unlockQueue(bookId, queue);
+        }
+    }
+
+    /** Whether the book's queue is held in memory. */
+    boolean isCached(long bookId) {
+        return queues.containsKey(bookId);
+    }
+
+    /** Moves the head of the book's queue to READY; returns its id, or -1 if nobody is waiting. */
+    public long promoteNext(long bookId) {
+        long started = System.nanoTime();
+        long reservationId = promoteHead(bookId);
+        (reservationId < 0 ? nobodyWaiting : promoted).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return reservationId;
+    }
+
+    private long promoteHead(long bookId) {
+        RankedQueue queue = lockQueue(bookId);
+        try {
+            while (queue.size() > 0) {
+                long headId = queue.head();
+                Boolean promoted = tx.execute(status -> reservationRepository.findById(headId)
+                        .filter(r -> r.getStatus() == ReservationStatus.PENDING)
+                        .map(r -> {
+                            r.setStatus(ReservationStatus.READY);
+                            reservationRepository.save(r);
+                            return true;
+                        })
+                        .orElse(false));
+                queue.remove(headId);
+                availability.queueChanged(bookId, queue.size());
+                if (Boolean.TRUE.equals(promoted)) {
+                    log.debug("Reservation {} for book {} is READY", headId, bookId);
+                    return headId;
+                }
+                // Row was changed elsewhere (e.g. cancelled on another node); skip it.
+            }
+            return -1;
+        } finally {
+            unlockQueue(bookId, queue);
+        }
+    }
+
+    /** A returned copy goes to the first person waiting for that book. */
+    @EventListener
+    public void onEntityChanges(EntityChangeBatch batch) {
+        for (EntityChange<Loan> change : batch.ofType(Loan.class)) {
+            Loan loan = change.entity();
+            if (change.type() == ChangeType.UPDATED && loan.getStatus() == LoanStatus.RETURNED && loan.getReturnedAt() != null) {
+                promoteNext(loan.getBookId());
+            }
+        }
+    }
+
+    /** Locks the book's live queue, loading it if needed. */
+    private RankedQueue lockQueue(long bookId) {
+        while (true) {
+            RankedQueue queue = queueFor(bookId);
+            queue.lock.lock();
+            if (!queue.retired) return queue;
+            // Dropped while we waited; its state is in the database, so load again.
+            queue.lock.unlock();
+        }
+    }
+
+    /** Drops an empty queue from the map before unlocking it. */
+    private void unlockQueue(long bookId, RankedQueue queue) {
+        try {
+            if (queue.size() == 0) {
+                queue.retired = true;
+                queues.remove(bookId, queue);
+            }
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+
+    private RankedQueue queueFor(long bookId) {
+        RankedQueue queue = queues.get(bookId);
+        if (queue != null) return queue;
+        // Loaded outside computeIfAbsent, whose bin lock is a monitor held across the query.
+        RankedQueue loaded = load(bookId);
+        queue = queues.putIfAbsent(bookId, loaded);
+        return queue != null ? queue : loaded;
+    }
+
+    private RankedQueue load(Long bookId) {
+        RankedQueue queue = new RankedQueue();
+        queue.observePosition(reservationRepository.findMaxPositionByBookId(bookId));
+        List<Reservation> pending = reservationRepository
+                .findByBookIdAndStatusOrderByPositionAscIdAsc(bookId, ReservationStatus.PENDING);
+        for (Reservation r : pending) {
+            queue.append(r.getId());
+            queue.observePosition(r.getPosition());
+        }
+        return queue;
+    }
+
+    private Reservation find(long reservationId, Long userId) {
+        return reservationRepository.findById(reservationId)
+                .filter(r -> userId == null || r.getUserId().equals(userId))
+                .orElseThrow(() -> new NotFoundException("Reservation not found: " + reservationId));
+    }
+}
@@ -1,7 +1,10 @@
 package lk.sliit.lms.reservations;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,4 +12,12 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     List<Reservation> findByUserId(Long userId);
     List<Reservation> findByBookId(Long bookId);
     Optional<Reservation> findByUserIdAndBookId(Long userId, Long bookId);
+    boolean existsByBookIdAndStatus(Long bookId, ReservationStatus status);
+    long countByBookIdAndStatus(Long bookId, ReservationStatus status);
+    Optional<Reservation> findFirstByUserIdAndBookIdAndStatus(Long userId, Long bookId, ReservationStatus status);
+    boolean existsByUserIdAndBookIdAndStatusIn(Long userId, Long bookId, Collection<ReservationStatus> statuses);
+    List<Reservation> findByBookIdAndStatusOrderByPositionAscIdAsc(Long bookId, ReservationStatus status);
+
+    @Query("select coalesce(max(r.position), 0) from Reservation r where r.bookId = :bookId")
+    int findMaxPositionByBookId(@Param("bookId") Long bookId);
 }
@@ -0,0 +1,19 @@
+package lk.sliit.lms.reservations;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reservation as shown to clients; {@code queuePosition} is the live 1-based place
+ * in line (0 once the reservation has left the queue).
+ */
+public record ReservationView(Long id,
+                              Long bookId,
+                              Long userId,
+                              ReservationStatus status,
+                              LocalDateTime createdAt,
+                              int queuePosition) {
+
+    static ReservationView of(Reservation r, int queuePosition) {
+        return new ReservationView(r.getId(), r.getBookId(), r.getUserId(), r.getStatus(), r.getCreatedAt(), queuePosition);
+    }
+}
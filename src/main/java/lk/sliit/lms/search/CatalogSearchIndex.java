@@ -0,0 +1,177 @@
+package lk.sliit.lms.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over title, author, genre and ISBN.
+ * <p>
+ * Every query token except the last must match a term exactly; the last token is
+ * treated as a prefix so the same call serves typeahead. A prefix expands to every term
+ * it starts, however many, and their posting lists are merged in one pass, so results
+ * and {@code total} are exact even for a one-letter prefix. Matches are returned in
+ * book id order, which keeps paging stable between requests.
+ * <p>
+ * The availability and genre filters are kept as posting lists too, so a page costs
+ * a few list intersections and {@code size} lookups; neither an empty query nor a
+ * deep page walks the matching books one by one.
+ */
+public class CatalogSearchIndex {
+    private final NavigableMap<String, PostingList> terms = new TreeMap<>();
+    private final Map<Long, IndexedBook> docs = new HashMap<>();
+    private final Map<Long, Set<String>> docTerms = new HashMap<>();
+    private final Map<String, PostingList> genres = new HashMap<>();
+    private PostingList all = new PostingList();
+    private PostingList available = new PostingList();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void replaceAll(Collection<IndexedBook> books) {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            docs.clear();
+            docTerms.clear();
+            genres.clear();
+            all = new PostingList();
+            available = new PostingList();
+            for (IndexedBook book : books) {
+                addLocked(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(IndexedBook book) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(book.id());
+            addLocked(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchPage search(String query, boolean availableOnly, String genre, int page, int size) {
+        if (page < 0) throw new IllegalArgumentException("page must not be negative: " + page);
+        if (size < 1) throw new IllegalArgumentException("size must be positive: " + size);
+        List<String> tokens = Tokenizer.tokenize(query);
+        String genreFilter = genreKey(genre);
+        long offset = (long) page * size;
+
+        lock.readLock().lock();
+        try {
+            PostingList matches = tokens.isEmpty() ? all : match(tokens);
+            if (availableOnly) matches = narrow(matches, available);
+            if (genreFilter != null) matches = narrow(matches, genres.get(genreFilter));
+            int total = matches.size();
+            List<IndexedBook> items = new ArrayList<>((int) Math.max(0, Math.min(size, total - offset)));
+            for (long i = offset; i < total && items.size() < size; i++) {
+                items.add(docs.get(matches.get((int) i)));
+            }
+            return new SearchPage(items, page, size, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private PostingList narrow(PostingList matches, PostingList filter) {
+        if (filter == null || filter.isEmpty()) return PostingList.of(new long[0], 0);
+        return matches == all ? filter : PostingList.intersect(matches, filter);
+    }
+
+    private PostingList match(List<String> tokens) {
+        PostingList result = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean last = i == tokens.size() - 1;
+            PostingList postings = last ? prefix(tokens.get(i)) : terms.get(tokens.get(i));
+            if (postings == null || postings.isEmpty()) return PostingList.of(new long[0], 0);
+            result = result == null ? postings : PostingList.intersect(result, postings);
+            if (result.isEmpty()) return result;
+        }
+        return result;
+    }
+
+    private PostingList prefix(String prefix) {
+        List<PostingList> expanded = new ArrayList<>();
+        for (Map.Entry<String, PostingList> e : terms.tailMap(prefix, true).entrySet()) {
+            if (!e.getKey().startsWith(prefix)) break;
+            expanded.add(e.getValue());
+        }
+        return PostingList.unionAll(expanded);
+    }
+
+    private void addLocked(IndexedBook book) {
+        Set<String> bookTerms = new LinkedHashSet<>();
+        bookTerms.addAll(Tokenizer.tokenize(book.title()));
+        bookTerms.addAll(Tokenizer.tokenize(book.author()));
+        bookTerms.addAll(Tokenizer.tokenize(book.genre()));
+        String isbn = Tokenizer.normalizeIsbn(book.isbn());
+        if (!isbn.isEmpty()) bookTerms.add(isbn);
+
+        for (String term : bookTerms) {
+            terms.computeIfAbsent(term, t -> new PostingList()).add(book.id());
+        }
+        docs.put(book.id(), book);
+        docTerms.put(book.id(), bookTerms);
+        all.add(book.id());
+        if (book.available()) available.add(book.id());
+        String genre = genreKey(book.genre());
+        if (genre != null) {
+            genres.computeIfAbsent(genre, g -> new PostingList()).add(book.id());
+        }
+    }
+
+    private void removeLocked(long bookId) {
+        Set<String> previous = docTerms.remove(bookId);
+        if (previous == null) return;
+        for (String term : previous) {
+            PostingList postings = terms.get(term);
+            if (postings != null && postings.remove(bookId) && postings.isEmpty()) {
+                terms.remove(term);
+            }
+        }
+        IndexedBook book = docs.remove(bookId);
+        all.remove(bookId);
+        available.remove(bookId);
+        String key = genreKey(book.genre());
+        if (key != null) {
+            PostingList postings = genres.get(key);
+            if (postings != null && postings.remove(bookId) && postings.isEmpty()) {
+                genres.remove(key);
+            }
+        }
+    }
+
+    /** Genres match case-insensitively and ignore surrounding whitespace, on both the stored and the query side. */
+    private static String genreKey(String genre) {
+        return genre == null || genre.isBlank() ? null : genre.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,97 @@
+package lk.sliit.lms.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lk.sliit.lms.availability.AvailabilityService;
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.CatalogImportedEvent;
+import lk.sliit.lms.common.ChangeType;
+import lk.sliit.lms.common.EntityChange;
+import lk.sliit.lms.common.EntityChangeBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class CatalogSearchService {
+    private static final Logger log = LoggerFactory.getLogger(CatalogSearchService.class);
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final BookRepository bookRepository;
+    private final AvailabilityService availability;
+    private final CatalogSearchIndex index = new CatalogSearchIndex();
+    private final Timer queries;
+    private final TransactionTemplate reads;
+
+    public CatalogSearchService(BookRepository bookRepository, AvailabilityService availability, MeterRegistry meterRegistry,
+                                PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.availability = availability;
+        this.queries = meterRegistry.timer("lms.search.query");
+        this.reads = new TransactionTemplate(transactionManager);
+        this.reads.setReadOnly(true);
+    }
+
+    /**
+     * Loads the catalog once the app is ready; searches served before that see an
+     * empty index. Demo seeding runs later and reaches the index as entity changes. The load is a read-only
+     * transaction, so it is served by the replica pool when one is configured.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reads.executeWithoutResult(status -> rebuild());
+    }
+
+    /**
+     * Bulk imports bypass change capture, so they trigger a full reload too. This one
+     * reads the primary: a replica may not have replayed the import yet.
+     */
+    @EventListener(CatalogImportedEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        List<IndexedBook> books = bookRepository.findAll().stream()
+                .map(IndexedBook::from)
+                .toList();
+        index.replaceAll(books);
+        log.info("[Search] Catalog index built: {} books in {} ms", books.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /** Applies committed book inserts/updates/deletes to the index without a rebuild. */
+    @EventListener
+    public void onEntityChanges(EntityChangeBatch batch) {
+        for (EntityChange<Book> change : batch.ofType(Book.class)) {
+            if (change.type() == ChangeType.DELETED) {
+                index.remove((Long) change.id());
+            } else {
+                index.index(IndexedBook.from(change.entity()));
+            }
+        }
+    }
+
+    /** Timed as {@code lms.search.query}, including the availability lookup. */
+    public SearchPage search(String query, boolean availableOnly, String genre, int page, int size) {
+        long started = System.nanoTime();
+        try {
+            return searchIndex(query, availableOnly, genre, page, size);
+        } finally {
+            queries.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private SearchPage searchIndex(String query, boolean availableOnly, String genre, int page, int size) {
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        SearchPage result = index.search(query, availableOnly, genre, safePage, safeSize);
+        long[] ids = new long[result.items().size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = result.items().get(i).id();
+        return result.withAvailability(availability.of(ids));
+    }
+}
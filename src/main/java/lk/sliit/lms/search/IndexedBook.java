@@ -0,0 +1,33 @@
+package lk.sliit.lms.search;
+
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookStatus;
+
+/**
+ * Immutable copy of the catalog fields the search index needs, so results never
+ * hand out managed JPA entities.
+ */
+public record IndexedBook(long id,
+                          String isbn,
+                          String title,
+                          String author,
+                          String genre,
+                          int quantity,
+                          BookStatus status) {
+
+    public static IndexedBook from(Book book) {
+        return new IndexedBook(
+            book.getId(),
+            book.getIsbn(),
+            book.getTitle(),
+            book.getAuthor(),
+            book.getGenre(),
+            book.getQuantity() != null ? book.getQuantity() : 0,
+            book.getStatus()
+        );
+    }
+
+    public boolean available() {
+        return status == BookStatus.AVAILABLE && quantity > 0;
+    }
+}
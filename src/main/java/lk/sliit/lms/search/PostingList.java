@@ -0,0 +1,126 @@
+package lk.sliit.lms.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorted, duplicate-free list of book ids backed by a primitive long[].
+ * Not thread-safe; {@link CatalogSearchIndex} guards all access.
+ */
+final class PostingList {
+    private static final long[] EMPTY = new long[0];
+
+    private long[] ids;
+    private int size;
+
+    PostingList() {
+        this.ids = new long[4];
+    }
+
+    private PostingList(long[] ids, int size) {
+        this.ids = ids;
+        this.size = size;
+    }
+
+    static PostingList of(long[] sorted, int size) {
+        return new PostingList(sorted, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    boolean add(long id) {
+        // Ids are mostly added in ascending order, so check the tail before searching.
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity(size + 1);
+            ids[size++] = id;
+            return true;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) return false;
+        int insertAt = -pos - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+        return true;
+    }
+
+    boolean remove(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) return false;
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    long[] toArray() {
+        return size == 0 ? EMPTY : Arrays.copyOf(ids, size);
+    }
+
+    /** Intersection of two sorted lists (linear merge). */
+    static PostingList intersect(PostingList a, PostingList b) {
+        long[] out = new long[Math.min(a.size, b.size)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            long x = a.ids[i];
+            long y = b.ids[j];
+            if (x == y) {
+                out[n++] = x;
+                i++;
+                j++;
+            } else if (x < y) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return new PostingList(out, n);
+    }
+
+    /**
+     * Union of any number of sorted lists in one k-way merge: a heap of cursors, one per
+     * list, so each id is copied once, O(N log k) for N ids in k lists.
+     */
+    static PostingList unionAll(List<PostingList> lists) {
+        if (lists.isEmpty()) return new PostingList(EMPTY, 0);
+        if (lists.size() == 1) return lists.get(0);
+        int total = 0;
+        // Cursor i is lists.get(i) at position pos[i]; the heap orders cursors by their current id.
+        int[] pos = new int[lists.size()];
+        PriorityQueue<Integer> heap = new PriorityQueue<>(lists.size(),
+                (x, y) -> Long.compare(lists.get(x).ids[pos[x]], lists.get(y).ids[pos[y]]));
+        for (int i = 0; i < lists.size(); i++) {
+            total += lists.get(i).size;
+            if (lists.get(i).size > 0) heap.add(i);
+        }
+        long[] out = new long[total];
+        int n = 0;
+        while (!heap.isEmpty()) {
+            int i = heap.poll();
+            PostingList list = lists.get(i);
+            long id = list.ids[pos[i]];
+            if (n == 0 || out[n - 1] != id) out[n++] = id;
+            if (++pos[i] < list.size) heap.add(i);
+        }
+        return new PostingList(out, n);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(required, ids.length * 2));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package lk.sliit.lms.search;
+
+import lk.sliit.lms.availability.Availability;
+
+import java.util.List;
+
+/** One page of hits; {@code availability} holds live counts for the page's books, keyed by {@code bookId}. */
+public record SearchPage(List<IndexedBook> items, int page, int size, long total, List<Availability> availability) {
+
+    public SearchPage(List<IndexedBook> items, int page, int size, long total) {
+        this(items, page, size, total, List.of());
+    }
+
+    public SearchPage withAvailability(List<Availability> availability) {
+        return new SearchPage(items, page, size, total, availability);
+    }
+}
@@ -0,0 +1,60 @@
+package lk.sliit.lms.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits catalog text into case-folded, accent-stripped tokens.
+ * Any character that is not a letter or digit acts as a separator.
+ */
+final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) return tokens;
+
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (start < 0) start = i;
+            } else if (start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) tokens.add(folded.substring(start));
+        return tokens;
+    }
+
+    /**
+     * ISBNs are indexed as one token with separators removed, so "978-0-13-468599-1"
+     * and "9780134685991" hit the same posting list.
+     */
+    static String normalizeIsbn(String isbn) {
+        if (isbn == null) return "";
+        StringBuilder sb = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (Character.isDigit(c)) sb.append(c);
+            else if (c == 'x' || c == 'X') sb.append('x');
+        }
+        return sb.toString();
+    }
+
+    private static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) sb.append(c);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,5 +1,5 @@
 /**
- * Search endpoints module (title/author/ISBN/genre, availability filters) — placeholders for now.
+ * Catalog search: in-memory inverted index over title/author/ISBN/genre with
+ * prefix (typeahead) matching and availability filters.
  */
 package lk.sliit.lms.search;
-
@@ -1,9 +1,12 @@
 package lk.sliit.lms.security;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lk.sliit.lms.audit.AuditLog;
-import lk.sliit.lms.audit.AuditLogRepository;
-import lk.sliit.lms.auth.User;
-import lk.sliit.lms.auth.UserRepository;
+import lk.sliit.lms.audit.AuditWriter;
+import lk.sliit.lms.auth.DbUserDetails;
+import lk.sliit.lms.auth.PrincipalCache;
+import lk.sliit.lms.auth.PrincipalSnapshot;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
@@ -11,24 +14,29 @@ import org.springframework.security.authentication.event.AuthenticationSuccessEv
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 @Component
 public class AuthEventsListener implements ApplicationListener<ApplicationEvent> {
-    private final AuditLogRepository auditLogRepository;
-    private final UserRepository userRepository;
+    private final AuditWriter auditWriter;
+    private final PrincipalCache principalCache;
+    private final Counter succeeded;
+    private final Counter failed;
 
-    public AuthEventsListener(AuditLogRepository auditLogRepository, UserRepository userRepository) {
-        this.auditLogRepository = auditLogRepository;
-        this.userRepository = userRepository;
+    public AuthEventsListener(AuditWriter auditWriter, PrincipalCache principalCache, MeterRegistry meterRegistry) {
+        this.auditWriter = auditWriter;
+        this.principalCache = principalCache;
+        this.succeeded = meterRegistry.counter("lms.auth.logins", "outcome", "success");
+        this.failed = meterRegistry.counter("lms.auth.logins", "outcome", "failure");
     }
 
     @Override
     public void onApplicationEvent(ApplicationEvent event) {
         if (event instanceof AuthenticationSuccessEvent success) {
-            String username = success.getAuthentication().getName();
-            Optional<User> userOpt = userRepository.findByEmailIgnoreCase(username);
-            Long userId = userOpt.map(User::getId).orElse(null);
+            succeeded.increment();
+            // Reuse the user loaded during authentication instead of querying again.
+            Long userId = success.getAuthentication().getPrincipal() instanceof DbUserDetails dud
+                    ? Long.valueOf(dud.userId())
+                    : principalCache.findByEmail(success.getAuthentication().getName()).map(PrincipalSnapshot::id).orElse(null);
             AuditLog log = AuditLog.builder()
                     .actorUserId(userId)
                     .action("LOGIN_SUCCESS")
@@ -37,8 +45,9 @@ public class AuthEventsListener implements ApplicationListener<ApplicationEvent>
                     .timestamp(LocalDateTime.now())
                     .metadata(null)
                     .build();
-            auditLogRepository.save(log);
+            auditWriter.submit(log);
         } else if (event instanceof AbstractAuthenticationFailureEvent failure) {
+            failed.increment();
             String username = failure.getAuthentication() != null ? failure.getAuthentication().getName() : null;
             String reason = failure.getException() != null ? failure.getException().getClass().getSimpleName() : "UNKNOWN";
             String metadataJson = toJson("username", username, "reason", reason);
@@ -50,7 +59,7 @@ public class AuthEventsListener implements ApplicationListener<ApplicationEvent>
                     .timestamp(LocalDateTime.now())
                     .metadata(metadataJson)
                     .build();
-            auditLogRepository.save(log);
+            auditWriter.submit(log);
         }
     }
 
@@ -0,0 +1,80 @@
+package lk.sliit.lms.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lk.sliit.lms.auth.AccessTokens;
+import lk.sliit.lms.auth.TokenPrincipal;
+import lk.sliit.lms.auth.TokenRevocations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates {@code Authorization: Bearer <token>} requests from {@link AccessTokens}
+ * without a session or a user lookup. Requests without the header fall through to the
+ * session login. A header with a bad, expired or revoked token gets 401 straight away.
+ * <p>
+ * Not a {@code @Component}: {@code SecurityConfig} adds it to the security chain only, so
+ * the servlet container does not run it a second time.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+
+    private final AccessTokens tokens;
+    private final TokenRevocations revocations;
+    private final Counter rejected;
+
+    public TokenAuthenticationFilter(AccessTokens tokens, TokenRevocations revocations, MeterRegistry meterRegistry) {
+        this.tokens = tokens;
+        this.revocations = revocations;
+        this.rejected = meterRegistry.counter("lms.auth.tokens.rejected");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Optional<AccessTokens.Claims> claims = tokens.verify(header.substring(BEARER.length()).trim(), System.currentTimeMillis());
+        if (claims.isEmpty() || revocations.isRevoked(claims.get().userId(), claims.get().issuedAtMs())) {
+            rejected.increment();
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Invalid or expired token\"}");
+            return;
+        }
+
+        AccessTokens.Claims c = claims.get();
+        List<GrantedAuthority> authorities = c.roles().stream()
+                .<GrantedAuthority>map(code -> new SimpleGrantedAuthority("ROLE_" + code))
+                .toList();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                new TokenPrincipal(c.userId(), c.roles()), null, authorities));
+        // Only this request; the context is never saved, so no session is created.
+        SecurityContextHolder.setContext(context);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -1,17 +1,142 @@
 package lk.sliit.lms.web;
 
+import lk.sliit.lms.admin.ExportEntity;
+import lk.sliit.lms.admin.ExportFormat;
+import lk.sliit.lms.admin.ExportService;
+import lk.sliit.lms.audit.AuditLog;
+import lk.sliit.lms.audit.AuditLogRepository;
+import lk.sliit.lms.books.CatalogImportService;
+import lk.sliit.lms.books.ImportReport;
+import lk.sliit.lms.common.BusinessRuleException;
+import lk.sliit.lms.fines.FineAccrualJob;
+import lk.sliit.lms.notifications.ReminderScheduler;
+import lk.sliit.lms.reports.ReportService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
+@Lazy // admin-only; created on the first admin request rather than at startup
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
+    private final FineAccrualJob fineAccrualJob;
+    private final ReminderScheduler reminderScheduler;
+    private final ReportService reportService;
+    private final ExportService exportService;
+    private final CatalogImportService catalogImportService;
+    private final AuditLogRepository auditLogRepository;
+
+    public AdminController(FineAccrualJob fineAccrualJob,
+                           ReminderScheduler reminderScheduler,
+                           ReportService reportService,
+                           ExportService exportService,
+                           CatalogImportService catalogImportService,
+                           AuditLogRepository auditLogRepository) {
+        this.fineAccrualJob = fineAccrualJob;
+        this.reminderScheduler = reminderScheduler;
+        this.reportService = reportService;
+        this.exportService = exportService;
+        this.catalogImportService = catalogImportService;
+        this.auditLogRepository = auditLogRepository;
+    }
+
     @GetMapping("/ping")
     public Map<String, Object> ping() {
         return Map.of("ok", true, "area", "admin");
     }
-}
 
+    /** Runs (or resumes) today's fine accrual now instead of waiting for the nightly schedule. */
+    @PostMapping("/jobs/fine-accrual")
+    public FineAccrualJob.Result runFineAccrual() {
+        return fineAccrualJob.run(LocalDateTime.now());
+    }
+
+    /** Sends today's due/overdue reminders now; after a run with failures only those are resent, after a clean one nothing. */
+    @PostMapping("/jobs/reminders")
+    public ReminderScheduler.Result runReminders() {
+        return reminderScheduler.run(LocalDateTime.now());
+    }
+
+    /** Recomputes the report summary tables from the loan history. */
+    @PostMapping("/jobs/reports-rebuild")
+    public Map<String, Object> rebuildReports() {
+        reportService.rebuild();
+        return Map.of("ok", true);
+    }
+
+    /**
+     * Streams loans, fines or audit-log as NDJSON (default) or CSV. {@code after} resumes
+     * an interrupted download from the last id received.
+     */
+    @GetMapping("/export/{entity}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String entity,
+                                                        @RequestParam(defaultValue = "ndjson") String format,
+                                                        @RequestParam(defaultValue = "0") long after) {
+        ExportEntity what = ExportEntity.fromPath(entity);
+        ExportFormat as = ExportFormat.parse(format);
+        String filename = what.path() + "-" + LocalDate.now() + "." + as.extension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(as.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(out -> exportService.export(what, as, after, out));
+    }
+
+    /**
+     * Bulk catalog import. The request body is the raw file (not multipart), parsed as it
+     * streams in: {@code curl --data-binary @catalog.csv -H 'Content-Type: text/csv'}.
+     */
+    @PostMapping("/catalog/import")
+    public ImportReport importCatalog(@RequestParam(defaultValue = "csv") String format, InputStream body) throws IOException {
+        CatalogImportService.Format parsed;
+        try {
+            parsed = CatalogImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRuleException("Unsupported import format: " + format);
+        }
+        return catalogImportService.importCatalog(body, parsed);
+    }
+
+    @GetMapping("/catalog/import/status")
+    public Map<String, Object> importStatus() {
+        return catalogImportService.progress()
+                .<Map<String, Object>>map(p -> Map.of("running", true, "progress", p))
+                .orElse(Map.of("running", false));
+    }
+
+    /** Audit entries in a time window (default: the last 24 hours), newest first, optionally for one actor. */
+    @GetMapping("/audit")
+    public Map<String, Object> audit(@RequestParam(required = false) Long actor,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                     @RequestParam(defaultValue = "0") int page,
+                                     @RequestParam(defaultValue = "50") int size) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 500));
+        Slice<AuditLog> slice = actor == null
+                ? auditLogRepository.findByTimestampBetweenOrderByTimestampDescIdDesc(start, end, pageable)
+                : auditLogRepository.findByActorUserIdAndTimestampBetweenOrderByTimestampDescIdDesc(actor, start, end, pageable);
+        List<AuditLog> items = slice.getContent();
+        return Map.of("items", items, "page", slice.getNumber(), "hasNext", slice.hasNext());
+    }
+}
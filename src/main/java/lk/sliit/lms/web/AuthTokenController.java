@@ -0,0 +1,90 @@
+package lk.sliit.lms.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import lk.sliit.lms.auth.AccessTokens;
+import lk.sliit.lms.auth.AccountPrincipal;
+import lk.sliit.lms.auth.DbUserDetails;
+import lk.sliit.lms.auth.LoginThrottledException;
+import lk.sliit.lms.auth.TokenRevocations;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Access tokens for API clients ({@code lms.auth.token.enabled=true}). Credentials go through
+ * the same authentication manager as the form login, so attempts are audited as
+ * LOGIN_SUCCESS / LOGIN_FAILED.
+ */
+@RestController
+@RequestMapping("/api/auth/token")
+@ConditionalOnProperty(name = "lms.auth.token.enabled", havingValue = "true")
+public class AuthTokenController {
+    private final AuthenticationManager authenticationManager;
+    private final AccessTokens tokens;
+    private final TokenRevocations revocations;
+
+    public AuthTokenController(AuthenticationConfiguration authenticationConfiguration,
+                               AccessTokens tokens,
+                               TokenRevocations revocations) throws Exception {
+        this.authenticationManager = authenticationConfiguration.getAuthenticationManager();
+        this.tokens = tokens;
+        this.revocations = revocations;
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> issue(@Valid @RequestBody TokenRequest request, HttpServletRequest http) {
+        UsernamePasswordAuthenticationToken credentials =
+                UsernamePasswordAuthenticationToken.unauthenticated(request.email(), request.password());
+        // The client address, for per-address login throttling (as the form login records it).
+        credentials.setDetails(new WebAuthenticationDetails(http));
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(credentials);
+        } catch (LoginThrottledException e) {
+            // Throttled before hashing: this client is backing off after repeated failures.
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", Long.toString(e.getRetryAfterSeconds()))
+                    .body(Map.of("error", e.getMessage()));
+        } catch (AuthenticationServiceException e) {
+            // The hashing pool is full.
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Bad credentials"));
+        }
+        DbUserDetails user = (DbUserDetails) authentication.getPrincipal();
+        AccessTokens.Issued issued = tokens.issue(user.getPrincipal());
+        return ResponseEntity.ok(Map.of(
+                "token", issued.token(),
+                "tokenType", "Bearer",
+                "expiresAt", issued.expiresAt().toString()));
+    }
+
+    /** Revokes every token issued to the caller so far ("sign out everywhere"). */
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void revokeAll(@AuthenticationPrincipal AccountPrincipal principal) {
+        revocations.revoke(principal.userId());
+    }
+
+    public record TokenRequest(@NotBlank String email, @NotBlank String password) {
+    }
+}
@@ -1,17 +1,79 @@
 package lk.sliit.lms.web;
 
+import lk.sliit.lms.availability.Availability;
+import lk.sliit.lms.availability.AvailabilityService;
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.Isbn;
+import lk.sliit.lms.common.BusinessRuleException;
+import lk.sliit.lms.common.NotFoundException;
+import lk.sliit.lms.keyfilter.KnownKeys;
+import lk.sliit.lms.search.CatalogSearchService;
+import lk.sliit.lms.search.SearchPage;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/catalog")
 public class CatalogController {
+    private static final int MAX_AVAILABILITY_IDS = 500;
+
+    private final CatalogSearchService catalogSearchService;
+    private final AvailabilityService availabilityService;
+    private final BookRepository bookRepository;
+    private final KnownKeys knownKeys;
+
+    public CatalogController(CatalogSearchService catalogSearchService,
+                             AvailabilityService availabilityService,
+                             BookRepository bookRepository,
+                             KnownKeys knownKeys) {
+        this.catalogSearchService = catalogSearchService;
+        this.availabilityService = availabilityService;
+        this.bookRepository = bookRepository;
+        this.knownKeys = knownKeys;
+    }
+
     @GetMapping("/ping")
     public Map<String, Object> ping() {
         return Map.of("ok", true, "area", "catalog");
     }
-}
 
+    @GetMapping("/search")
+    public SearchPage search(@RequestParam(name = "q", required = false) String query,
+                             @RequestParam(name = "available", defaultValue = "false") boolean availableOnly,
+                             @RequestParam(required = false) String genre,
+                             @RequestParam(defaultValue = "0") int page,
+                             @RequestParam(defaultValue = "20") int size) {
+        return catalogSearchService.search(query, availableOnly, genre, page, size);
+    }
+
+    /** Live availability for a list of books ({@code ?ids=1,2,3}); unknown ids are omitted. */
+    @GetMapping("/availability")
+    public List<Availability> availability(@RequestParam long[] ids) {
+        if (ids.length > MAX_AVAILABILITY_IDS) {
+            throw new BusinessRuleException("At most " + MAX_AVAILABILITY_IDS + " ids per request");
+        }
+        return availabilityService.of(ids);
+    }
+
+    /**
+     * The book with this ISBN-10 or ISBN-13 (hyphens allowed). ISBNs not in the catalog are
+     * usually answered from the ISBN filter without a query.
+     */
+    @GetMapping("/isbn/{isbn}")
+    public Book byIsbn(@PathVariable String isbn) {
+        String isbn13 = Isbn.toIsbn13(isbn);
+        if (isbn13 == null) throw new BusinessRuleException("Not a valid ISBN: " + isbn);
+        if (!knownKeys.mightBeIsbn(isbn13)) throw new NotFoundException("No book with ISBN " + isbn13);
+        return bookRepository.findByIsbn(isbn13).orElseThrow(() -> {
+            knownKeys.isbnNotFound();
+            return new NotFoundException("No book with ISBN " + isbn13);
+        });
+    }
+}
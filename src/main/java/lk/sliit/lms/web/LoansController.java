@@ -1,7 +1,19 @@
 package lk.sliit.lms.web;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lk.sliit.lms.auth.AccountPrincipal;
+import lk.sliit.lms.common.NotFoundException;
+import lk.sliit.lms.loans.Loan;
+import lk.sliit.lms.loans.LoanService;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
@@ -9,9 +21,39 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/loans")
 public class LoansController {
+    private final LoanService loanService;
+
+    public LoansController(LoanService loanService) {
+        this.loanService = loanService;
+    }
+
     @GetMapping("/ping")
     public Map<String, Object> ping() {
         return Map.of("ok", true, "area", "loans");
     }
-}
 
+    /** Checks a book out to the signed-in member. */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Loan checkout(@Valid @RequestBody CheckoutRequest request, @AuthenticationPrincipal Object principal) {
+        return loanService.checkout(request.bookId(), accountId(principal));
+    }
+
+    @PostMapping("/{id}/return")
+    public Loan returnLoan(@PathVariable Long id, @AuthenticationPrincipal Object principal) {
+        return loanService.returnLoan(id, accountId(principal));
+    }
+
+    @PostMapping("/{id}/renew")
+    public Loan renew(@PathVariable Long id, @AuthenticationPrincipal Object principal) {
+        return loanService.renew(id, accountId(principal));
+    }
+
+    private static long accountId(Object principal) {
+        if (principal instanceof AccountPrincipal account) return account.userId();
+        throw new NotFoundException("No library account for this login");
+    }
+
+    public record CheckoutRequest(@NotNull Long bookId) {
+    }
+}
@@ -1,7 +1,14 @@
 package lk.sliit.lms.web;
 
+import lk.sliit.lms.account.AccountSummary;
+import lk.sliit.lms.account.AccountSummaryService;
+import lk.sliit.lms.auth.AccountPrincipal;
 import lk.sliit.lms.auth.DbUserDetails;
-import lk.sliit.lms.auth.User;
+import lk.sliit.lms.auth.PrincipalSnapshot;
+import lk.sliit.lms.auth.TokenPrincipal;
+import lk.sliit.lms.common.NotFoundException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -14,19 +21,43 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping("/api/me")
 public class MeController {
+    private final AccountSummaryService summaries;
+
+    public MeController(AccountSummaryService summaries) {
+        this.summaries = summaries;
+    }
 
     @GetMapping
     public Map<String, Object> me(@AuthenticationPrincipal Object principal) {
         Map<String, Object> out = new HashMap<>();
         if (principal instanceof DbUserDetails dud) {
-            User u = dud.getUser();
-            out.put("email", u.getEmail());
-            out.put("name", u.getName());
-            out.put("roles", u.getRoles().stream().map(r -> r.getCode()).collect(Collectors.toList()));
+            PrincipalSnapshot u = dud.getPrincipal();
+            out.put("email", u.email());
+            out.put("name", u.name());
+            out.put("roles", u.roles().stream().sorted().collect(Collectors.toList()));
+        } else if (principal instanceof TokenPrincipal token) {
+            // Bearer token: answered from the token, without loading the user.
+            out.put("userId", token.userId());
+            out.put("roles", token.roles());
         } else {
             out.put("principal", String.valueOf(principal));
         }
         return out;
     }
-}
 
+    /**
+     * Open loans, reservations and unpaid fines of the signed-in member. Sends an ETag;
+     * a request whose If-None-Match still matches gets 304 with no body.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<AccountSummary> summary(@AuthenticationPrincipal Object principal) {
+        if (!(principal instanceof AccountPrincipal account)) {
+            throw new NotFoundException("No library account for this login");
+        }
+        AccountSummaryService.Tagged tagged = summaries.summary(account.userId());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(tagged.etag())
+                .body(tagged.summary());
+    }
+}
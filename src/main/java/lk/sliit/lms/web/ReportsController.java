@@ -1,17 +1,71 @@
 package lk.sliit.lms.web;
 
+import lk.sliit.lms.common.BusinessRuleException;
+import lk.sliit.lms.reports.DailyCount;
+import lk.sliit.lms.reports.PopularBook;
+import lk.sliit.lms.reports.ReportService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Map;
 
+@Lazy
 @RestController
 @RequestMapping("/api/reports")
 public class ReportsController {
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final ReportService reportService;
+
+    public ReportsController(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
     @GetMapping("/ping")
     public Map<String, Object> ping() {
         return Map.of("ok", true, "area", "reports");
     }
-}
 
+    /** Most borrowed books of all time. */
+    @GetMapping("/popular")
+    public List<PopularBook> popular(@RequestParam(defaultValue = "10") int limit) {
+        return reportService.popular(Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    /** Checkouts per day; defaults to the last 30 days. */
+    @GetMapping("/checkouts")
+    public List<DailyCount> checkouts(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        checkRange(start, end);
+        return reportService.checkouts(start, end);
+    }
+
+    /** Open overdue loans per day, as counted by the nightly fine accrual; defaults to the last 30 days. */
+    @GetMapping("/overdue")
+    public List<DailyCount> overdue(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        checkRange(start, end);
+        return reportService.overdue(start, end);
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BusinessRuleException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new BusinessRuleException("Date range is limited to " + MAX_RANGE_DAYS + " days");
+        }
+    }
+}
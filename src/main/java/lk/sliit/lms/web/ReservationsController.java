@@ -1,7 +1,19 @@
 package lk.sliit.lms.web;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lk.sliit.lms.auth.AccountPrincipal;
+import lk.sliit.lms.common.NotFoundException;
+import lk.sliit.lms.reservations.ReservationQueueService;
+import lk.sliit.lms.reservations.ReservationView;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
@@ -9,9 +21,45 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/reservations")
 public class ReservationsController {
+    private final ReservationQueueService reservationQueueService;
+
+    public ReservationsController(ReservationQueueService reservationQueueService) {
+        this.reservationQueueService = reservationQueueService;
+    }
+
     @GetMapping("/ping")
     public Map<String, Object> ping() {
         return Map.of("ok", true, "area", "reservations");
     }
-}
 
+    /** Reserves a book for the logged-in user. */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservationView reserve(@AuthenticationPrincipal Object principal,
+                                   @Valid @RequestBody ReserveRequest request) {
+        return reservationQueueService.enqueue(request.bookId(), accountId(principal));
+    }
+
+    @GetMapping("/{id}")
+    public ReservationView get(@AuthenticationPrincipal Object principal, @PathVariable Long id) {
+        return reservationQueueService.view(id, accountId(principal));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ReservationView cancel(@AuthenticationPrincipal Object principal, @PathVariable Long id) {
+        return reservationQueueService.cancel(id, accountId(principal));
+    }
+
+    @GetMapping("/book/{bookId}/queue")
+    public Map<String, Object> queue(@PathVariable Long bookId) {
+        return Map.of("bookId", bookId, "waiting", reservationQueueService.queueLength(bookId));
+    }
+
+    private static long accountId(Object principal) {
+        if (principal instanceof AccountPrincipal account) return account.userId();
+        throw new NotFoundException("No library account for this login");
+    }
+
+    public record ReserveRequest(@NotNull Long bookId) {
+    }
+}
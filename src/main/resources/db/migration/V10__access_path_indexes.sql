@@ -0,0 +1,19 @@
+-- V10: Composite indexes for the hot access paths; duplicate indexes dropped.
+-- loans(status, due_at) for overdue scans already exists as idx_loans_status_due (V7).
+-- Creating an index that starts with a foreign key column lets MySQL drop the implicit
+-- index it created for that foreign key (fk_loans_book, fk_audit_actor).
+
+-- Same column as the UNIQUE key on books.isbn.
+DROP INDEX idx_books_isbn ON books;
+
+-- Open loans per book (availability, drift check).
+CREATE INDEX idx_loans_book_status ON loans(book_id, status);
+
+-- A book's PENDING queue in position order (queue load, promotion, "anyone waiting?" on renew).
+-- Replaces idx_reservations_book_created: positions only grow per book, so they give the same order.
+CREATE INDEX idx_reservations_book_status_pos ON reservations(book_id, status, position);
+DROP INDEX idx_reservations_book_created ON reservations;
+
+-- Audit queries by time window, overall and per actor (newest first).
+CREATE INDEX idx_audit_log_ts ON audit_log(ts);
+CREATE INDEX idx_audit_log_actor_ts ON audit_log(actor_user_id, ts);
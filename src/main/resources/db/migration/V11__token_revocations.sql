@@ -0,0 +1,9 @@
+-- V11: Revocation list for stateless API access tokens (lms.auth.token.enabled)
+-- - A token for user_id issued at or before revoked_before is refused.
+-- - No foreign key: deleted users are revoked too.
+-- - Rows older than the token TTL are deleted by the app, so the table stays small.
+
+CREATE TABLE token_revocations (
+  user_id BIGINT PRIMARY KEY,
+  revoked_before TIMESTAMP(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,7 @@
+-- V12: Optimistic locking for loans
+-- - loans.version backs the JPA @Version column, so a renewal and a return of the same loan
+--   on different nodes cannot both commit from the same read.
+-- - JDBC writers that change a loan (fine accrual's OVERDUE flip) bump it too.
+
+ALTER TABLE loans
+  ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,14 @@
+-- V13: Reminder delivery
+-- - users.phone is the SMS recipient for reminders (lms.notifications.channels: SMS); NULL means no SMS.
+-- - notification_retries holds the reminders whose send failed in today's run. The run is only
+--   checkpointed complete once none are left; lms.notifications.retry-cron resends them.
+
+ALTER TABLE users
+  ADD COLUMN phone VARCHAR(32) NULL;
+
+CREATE TABLE notification_retries (
+  run_key VARCHAR(64) NOT NULL,
+  user_id BIGINT NOT NULL,
+  channel VARCHAR(16) NOT NULL,
+  PRIMARY KEY (run_key, user_id, channel)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
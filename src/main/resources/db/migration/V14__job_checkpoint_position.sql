@@ -0,0 +1,6 @@
+-- V14: Keyset position for jobs that page on more than the id.
+-- FineAccrualJob pages loans on (status, due_at, id) along idx_loans_status_due; last_key holds
+-- the status and last_at the due_at of the last committed row. Jobs paging on id alone leave both NULL.
+ALTER TABLE job_checkpoints
+  ADD COLUMN last_key VARCHAR(32) NULL AFTER run_key,
+  ADD COLUMN last_at DATETIME NULL AFTER last_key;
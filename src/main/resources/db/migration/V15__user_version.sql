@@ -0,0 +1,7 @@
+-- V15: Optimistic locking for users
+-- - users.version backs the JPA @Version column. Hibernate only writes the owner row for a
+--   change to a collection it owns when the owner is versioned, so editing a member's
+--   user_roles now bumps the version and raises a User update; PrincipalCache evicts on it.
+
+ALTER TABLE users
+  ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- V5: Optimistic locking for book copy counts and renewal tracking on loans
+-- - books.version backs the JPA @Version column used by checkout/return.
+-- - loans.renewal_count enforces the "up to 2 renewals" rule from V1.
+
+ALTER TABLE books
+  ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE loans
+  ADD COLUMN renewal_count INT NOT NULL DEFAULT 0;
@@ -0,0 +1,14 @@
+-- V6: Support for the nightly fine accrual job
+-- - One accrual fine per loan, so the job can upsert with ON DUPLICATE KEY UPDATE.
+-- - job_checkpoints lets batch jobs resume from the last committed page.
+
+ALTER TABLE fines
+  ADD UNIQUE KEY uq_fines_loan (loan_id);
+
+CREATE TABLE job_checkpoints (
+  job_name VARCHAR(100) PRIMARY KEY,
+  run_key VARCHAR(64) NOT NULL,
+  last_id BIGINT NOT NULL,
+  completed BOOLEAN NOT NULL DEFAULT FALSE,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
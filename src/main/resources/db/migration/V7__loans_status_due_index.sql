@@ -0,0 +1,3 @@
+-- V7: Range scans over open loans by due date (reminders, overdue detection).
+-- InnoDB appends the primary key, so (status, due_at, id) keyset pages read in index order.
+CREATE INDEX idx_loans_status_due ON loans(status, due_at);
@@ -0,0 +1,34 @@
+-- V8: Incrementally maintained reporting tables (replace the live GROUP BY behind v_popular_books from V2).
+-- Kept current by lk.sliit.lms.reports.ReportService; POST /api/admin/jobs/reports-rebuild recomputes them.
+
+CREATE TABLE report_book_borrows (
+  book_id BIGINT PRIMARY KEY,
+  borrow_count BIGINT NOT NULL,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- Top-N reads walk this index backwards and stop after N entries.
+CREATE INDEX idx_report_book_borrows_count ON report_book_borrows(borrow_count, book_id);
+
+CREATE TABLE report_daily_checkouts (
+  report_date DATE PRIMARY KEY,
+  checkouts BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- Open overdue loans as counted by the nightly fine accrual run.
+CREATE TABLE report_daily_overdue (
+  report_date DATE PRIMARY KEY,
+  overdue_loans BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+INSERT INTO report_book_borrows (book_id, borrow_count)
+SELECT book_id, COUNT(*) FROM loans GROUP BY book_id;
+
+INSERT INTO report_daily_checkouts (report_date, checkouts)
+SELECT DATE(checkout_at), COUNT(*) FROM loans GROUP BY DATE(checkout_at);
+
+-- Same name and columns as the V2 view, now read from the summary table instead of
+-- grouping loans. v_overdue_loans is a filter on open loans, not an aggregate, and stays.
+CREATE OR REPLACE VIEW v_popular_books AS
+SELECT book_id, borrow_count
+FROM report_book_borrows;
@@ -0,0 +1,19 @@
+-- V9: Pooled id allocation.
+-- - One row per table holding the highest id handed out so far. Hibernate's pooled-lo table
+--   generators and the JDBC batch writers (IdAllocator) reserve blocks from it, so ids
+--   are known before the INSERT and inserts can go out in JDBC batches.
+-- - AUTO_INCREMENT stays on the id columns but is no longer used by the application.
+-- - roles keeps IDENTITY (a handful of rows, seeded by V3).
+
+CREATE TABLE id_sequences (
+  sequence_name VARCHAR(64) PRIMARY KEY,
+  last_reserved_id BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+INSERT INTO id_sequences (sequence_name, last_reserved_id)
+SELECT 'users', COALESCE(MAX(id), 0) FROM users
+UNION ALL SELECT 'books', COALESCE(MAX(id), 0) FROM books
+UNION ALL SELECT 'loans', COALESCE(MAX(id), 0) FROM loans
+UNION ALL SELECT 'reservations', COALESCE(MAX(id), 0) FROM reservations
+UNION ALL SELECT 'fines', COALESCE(MAX(id), 0) FROM fines
+UNION ALL SELECT 'audit_log', COALESCE(MAX(id), 0) FROM audit_log;
@@ -0,0 +1,98 @@
+package lk.sliit.lms.account;
+
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.BookStatus;
+import lk.sliit.lms.loans.Loan;
+import lk.sliit.lms.loans.LoanService;
+import lk.sliit.lms.reservations.ReservationQueueService;
+import lk.sliit.lms.reservations.ReservationStatus;
+import lk.sliit.lms.reservations.ReservationView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest(classes = lk.sliit.lms.LmsBackendApplication.class)
+@ActiveProfiles("test")
+class AccountSummaryServiceTest {
+    private static final long MEMBER = 7;
+
+    @Autowired
+    private AccountSummaryService summaries;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private ReservationQueueService reservations;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void summarizesLoansQueueAndFinesAndTagsTheContent() {
+        long onLoan = save("9780134685991", "Effective Java");
+        long wanted = save("9781617294945", "Spring in Action");
+        Loan loan = loanService.checkout(onLoan, MEMBER);
+        loanService.checkout(wanted, 8);
+        ReservationView ahead = reservations.enqueue(wanted, 9);
+        reservations.enqueue(wanted, MEMBER);
+        // Written by the accrual job in production: one on the open loan, one on a returned loan, one paid.
+        jdbc.update("INSERT INTO fines (id, user_id, loan_id, amount, status, created_at) VALUES " +
+                "(1, ?, ?, 12.50, 'PENDING', NOW()), (2, ?, 998, 3.00, 'PENDING', NOW()), (3, ?, 999, 5.00, 'PAID', NOW())",
+                MEMBER, loan.getId(), MEMBER, MEMBER);
+
+        AccountSummaryService.Tagged first = summaries.summary(MEMBER);
+        AccountSummary summary = first.summary();
+        assertThat(summary.loans()).singleElement().satisfies(l -> {
+            assertThat(l.loanId()).isEqualTo(loan.getId());
+            assertThat(l.title()).isEqualTo("Effective Java");
+            assertThat(l.dueAt()).isCloseTo(loan.getDueAt(), within(1, ChronoUnit.SECONDS));
+            assertThat(l.fineDue()).isEqualByComparingTo("12.50");
+        });
+        assertThat(summary.reservations()).singleElement().satisfies(r -> {
+            assertThat(r.title()).isEqualTo("Spring in Action");
+            assertThat(r.status()).isEqualTo(ReservationStatus.PENDING);
+            assertThat(r.queuePosition()).isEqualTo(2);
+        });
+        assertThat(summary.finesDue()).isEqualByComparingTo("15.50");
+        assertThat(summary.unpaidFines()).isEqualTo(2);
+        assertThat(summaries.summary(MEMBER).etag()).isEqualTo(first.etag());
+
+        // The member moves up when someone ahead leaves; their own rows are untouched, so the TTL or an explicit drop applies.
+        reservations.cancel(ahead.id());
+        summaries.invalidate(MEMBER);
+        AccountSummaryService.Tagged moved = summaries.summary(MEMBER);
+        assertThat(moved.summary().reservations().get(0).queuePosition()).isEqualTo(1);
+        assertThat(moved.etag()).isNotEqualTo(first.etag());
+
+        // The member's own loan changes drop the cached summary.
+        loanService.returnLoan(loan.getId());
+        assertThat(summaries.summary(MEMBER).summary().loans()).isEmpty();
+    }
+
+    @Test
+    void memberWithNothingOpenGetsAnEmptySummary() {
+        AccountSummary summary = summaries.summary(4242).summary();
+        assertThat(summary.loans()).isEmpty();
+        assertThat(summary.reservations()).isEmpty();
+        assertThat(summary.finesDue()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(summary.unpaidFines()).isZero();
+    }
+
+    private long save(String isbn, String title) {
+        return bookRepository.save(Book.builder().isbn(isbn).title(title).author("Author")
+                .quantity(1).status(BookStatus.AVAILABLE).build()).getId();
+    }
+}
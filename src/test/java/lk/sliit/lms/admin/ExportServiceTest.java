@@ -0,0 +1,160 @@
+package lk.sliit.lms.admin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    properties = {
+        "lms.export.page-size=3"
+    }
+)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportServiceTest {
+    private static final LocalDateTime T = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void seed() {
+        jdbc.update("DELETE FROM audit_log");
+        for (int i = 1; i <= 7; i++) {
+            jdbc.update("INSERT INTO audit_log (id, actor_user_id, action, target_type, target_id, ts, metadata) VALUES (?, ?, ?, 'USER', ?, ?, ?)",
+                    (long) i, i == 4 ? null : (long) i, "LOGIN_FAILED", (long) i, Timestamp.valueOf(T.plusMinutes(i)),
+                    i == 2 ? "{\"username\":\"a,b\",\"reason\":\"x\"}" : null);
+        }
+    }
+
+    @Test
+    void ndjsonPagesThroughEveryRowOnce() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = exportService.export(ExportEntity.AUDIT_LOG, ExportFormat.NDJSON, 0, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(written).isEqualTo(7);
+        assertThat(lines).hasSize(7);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("action").asText()).isEqualTo("LOGIN_FAILED");
+        assertThat(first.get("ts").asText()).isEqualTo("2025-01-02T03:05:05");
+        assertThat(objectMapper.readTree(lines.get(3)).get("actor_user_id").isNull()).isTrue();
+        assertThat(lines.stream().map(l -> readId(l)).distinct().count()).isEqualTo(7);
+
+        // Resume after the third row.
+        long thirdId = readId(lines.get(2));
+        ByteArrayOutputStream rest = new ByteArrayOutputStream();
+        assertThat(exportService.export(ExportEntity.AUDIT_LOG, ExportFormat.NDJSON, thirdId, rest)).isEqualTo(4);
+    }
+
+    @Test
+    void csvQuotesFieldsThatNeedIt() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(ExportEntity.AUDIT_LOG, ExportFormat.CSV, 0, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(8);
+        assertThat(lines.get(0)).isEqualTo("id,actor_user_id,action,target_type,target_id,ts,metadata");
+        assertThat(lines.get(2)).endsWith(",\"{\"\"username\"\":\"\"a,b\"\",\"\"reason\"\":\"\"x\"\"}\"");
+        assertThat(lines.get(4)).contains(",,LOGIN_FAILED,");
+    }
+
+    @Test
+    void aSlowClientHoldsNoConnectionWhileItReads() throws Exception {
+        // Rows bigger than the writer's buffer, so bytes reach the client while a page is still being written.
+        jdbc.update("UPDATE audit_log SET metadata = ?", "{\"note\":\"" + "x".repeat(20_000) + "\"}");
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        List<String> seen = new ArrayList<>();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        OutputStream slowClient = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                seen.add(pool.getHikariPoolMXBean().getActiveConnections() + "/"
+                        + TransactionSynchronizationManager.isActualTransactionActive());
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                received.write(b, off, len);
+            }
+        };
+
+        assertThat(exportService.export(ExportEntity.AUDIT_LOG, ExportFormat.NDJSON, 0, slowClient)).isEqualTo(7);
+
+        // Page size 3: three pages, each written after its transaction has released the connection.
+        assertThat(seen).hasSizeGreaterThanOrEqualTo(3).containsOnly("0/false");
+        assertThat(received.toString(StandardCharsets.UTF_8).lines()).hasSize(7);
+    }
+
+    @Test
+    void onlyAdminsMayExport() throws Exception {
+        mvc.perform(get("/api/admin/export/loans").with(user("student@lms.local").roles("STUDENT")))
+                .andExpect(status().isForbidden());
+        mvc.perform(get("/api/admin/export/fines").with(user("librarian@lms.local").roles("LIBRARIAN")))
+                .andExpect(status().isForbidden());
+        mvc.perform(get("/api/admin/export/loans").with(user("admin@lms.local").roles("ADMIN")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void onlyAdminsMayReadTheAuditLog() throws Exception {
+        String window = "/api/admin/audit?from=2025-01-02T00:00:00&to=2025-01-03T00:00:00";
+        mvc.perform(get(window).with(user("student@lms.local").roles("STUDENT")))
+                .andExpect(status().isForbidden());
+        mvc.perform(get(window + "&actor=2").with(user("admin@lms.local").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1));
+    }
+
+    private long readId(String line) {
+        try {
+            return objectMapper.readTree(line).get("id").asLong();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package lk.sliit.lms.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditJournalTest {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void framesSurviveSealReadAndResumeFromTheCommittedOffset() throws Exception {
+        AuditJournal journal = new AuditJournal(dir, DataSize.ofKilobytes(64));
+        journal.append(events(0, 3));
+        journal.sync();
+        assertThat(journal.hasBacklog()).isTrue();
+
+        List<Path> segments = journal.sealForReplay();
+        assertThat(segments).hasSize(1);
+        AuditJournal.Segment read = journal.read(segments.get(0));
+        assertThat(actions(read.rows())).containsExactly("event-0", "event-1", "event-2");
+
+        journal.commitOffset(segments.get(0), read.ends().get(1));
+        assertThat(actions(journal.read(segments.get(0)).rows())).containsExactly("event-2");
+
+        journal.delete(segments.get(0));
+        assertThat(journal.hasBacklog()).isFalse();
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void fullSegmentsRollOver() throws Exception {
+        AuditJournal journal = new AuditJournal(dir, DataSize.ofBytes(256));
+        journal.append(events(0, 20));
+
+        List<Path> segments = journal.sealForReplay();
+        assertThat(segments.size()).isGreaterThan(1);
+        List<String> actions = new ArrayList<>();
+        for (Path segment : segments) actions.addAll(actions(journal.read(segment).rows()));
+        assertThat(actions).containsExactlyElementsOf(actions(events(0, 20)));
+    }
+
+    @Test
+    void aCorruptFrameCostsOnlyItself() throws Exception {
+        AuditJournal journal = new AuditJournal(dir, DataSize.ofKilobytes(64));
+        journal.append(events(0, 5));
+        Path segment = journal.sealForReplay().get(0);
+        long second = journal.read(segment).ends().get(0);
+        long third = journal.read(segment).ends().get(1);
+
+        // A flipped payload byte in the second frame: its CRC no longer matches.
+        corrupt(segment, second + 12, (byte) 0x5A);
+        assertThat(actions(journal.read(segment).rows())).containsExactly("event-0", "event-2", "event-3", "event-4");
+
+        // A wrecked length in the third frame: reading resyncs on the fourth.
+        corrupt(segment, third, (byte) 0x7F);
+        AuditJournal.Segment read = journal.read(segment);
+        assertThat(actions(read.rows())).containsExactly("event-0", "event-3", "event-4");
+        assertThat(read.ends()).isSorted();
+    }
+
+    @Test
+    void spilledAndFailedEventsAreJournaledThenReplayed() throws Exception {
+        AuditJournal journal = new AuditJournal(dir, DataSize.ofKilobytes(64));
+        FlakyInserter inserter = new FlakyInserter();
+        MeterRegistry meters = new SimpleMeterRegistry();
+        AuditWriter writer = new AuditWriter(inserter, journal, meters, 4, 2, Duration.ofMillis(20), AuditBackpressure.SPILL);
+        AuditJournalReplayer replayer = new AuditJournalReplayer(journal, inserter, writer, new AnsweringJdbcTemplate(), 3);
+
+        // Writer not started yet: four events fill the buffer, the other six spill on the caller's thread.
+        for (AuditLog event : events(0, 10)) writer.submit(event);
+        assertThat(meters.counter("lms.audit.journaled").count()).isEqualTo(6);
+
+        writer.start();
+        try {
+            // Its inserts fail, so the buffered four follow the spilled ones into the journal.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (meters.counter("lms.audit.journaled").count() < 10 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(meters.counter("lms.audit.journaled").count()).isEqualTo(10);
+            assertThat(writer.isDatabaseHealthy()).isFalse();
+
+            replayer.replay();
+            assertThat(inserter.rows).isEmpty(); // still down: nothing replayed, nothing lost
+
+            inserter.down = false;
+            replayer.replay();
+            assertThat(actions(inserter.rows)).containsExactlyInAnyOrderElementsOf(actions(events(0, 10)));
+            assertThat(writer.isDatabaseHealthy()).isTrue();
+            assertThat(journal.hasBacklog()).isFalse();
+            assertThat(files()).isEmpty();
+        } finally {
+            writer.stop();
+        }
+    }
+
+    private List<Path> files() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.toList();
+        }
+    }
+
+    private static void corrupt(Path segment, long offset, byte value) throws Exception {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[]{value}), offset);
+        }
+    }
+
+    private static List<AuditLog> events(int from, int to) {
+        LocalDateTime at = LocalDateTime.of(2025, 3, 10, 9, 0);
+        return IntStream.range(from, to)
+                .mapToObj(i -> AuditLog.builder()
+                        .actorUserId((long) i)
+                        .action("event-" + i)
+                        .targetType("USER")
+                        .targetId(i % 2 == 0 ? null : (long) i)
+                        .timestamp(at.plusSeconds(i))
+                        .metadata("{\"n\":" + i + "}")
+                        .build())
+                .toList();
+    }
+
+    private static List<String> actions(List<AuditLog> rows) {
+        return rows.stream().map(AuditLog::getAction).toList();
+    }
+
+    /** Fails every insert while {@code down}. */
+    private static final class FlakyInserter extends AuditBatchInserter {
+        final List<AuditLog> rows = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean down = true;
+
+        FlakyInserter() {
+            super(null, null);
+        }
+
+        @Override
+        public void insert(List<AuditLog> batch) {
+            if (down) throw new IllegalStateException("database down");
+            rows.addAll(batch);
+        }
+    }
+
+    /** Answers the replayer's {@code SELECT 1} health probe. */
+    private static final class AnsweringJdbcTemplate extends JdbcTemplate {
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            return requiredType.cast(1);
+        }
+    }
+}
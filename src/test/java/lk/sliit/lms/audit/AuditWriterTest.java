@@ -0,0 +1,101 @@
+package lk.sliit.lms.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditWriterTest {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void stopLetsTheInFlightBatchFinishThenFlushesTheRest() throws Exception {
+        SlowInserter inserter = new SlowInserter();
+        MeterRegistry meters = new SimpleMeterRegistry();
+        AuditWriter writer = new AuditWriter(inserter, new AuditJournal(dir, DataSize.ofKilobytes(64)),
+                meters, 64, 5, Duration.ofMillis(20), AuditBackpressure.SPILL);
+        writer.start();
+
+        for (AuditLog event : events(0, 5)) writer.submit(event);
+        assertThat(inserter.started.await(10, TimeUnit.SECONDS)).isTrue();
+        // Queued behind the batch that is being inserted right now.
+        for (AuditLog event : events(5, 12)) writer.submit(event);
+
+        writer.stop();
+
+        assertThat(inserter.interrupted).isFalse();
+        assertThat(actions(inserter.rows)).containsExactlyInAnyOrderElementsOf(actions(events(0, 12)));
+        assertThat(meters.counter("lms.audit.written").count()).isEqualTo(12);
+        assertThat(meters.counter("lms.audit.journaled").count()).isZero();
+        assertThat(writer.isRunning()).isFalse();
+    }
+
+    @Test
+    void stopBeforeStartStillFlushesTheBuffer() {
+        SlowInserter inserter = new SlowInserter();
+        AuditWriter writer = new AuditWriter(inserter, new AuditJournal(dir, DataSize.ofKilobytes(64)),
+                new SimpleMeterRegistry(), 64, 5, Duration.ofMillis(20), AuditBackpressure.SPILL);
+        for (AuditLog event : events(0, 3)) writer.submit(event);
+
+        writer.stop();
+
+        assertThat(actions(inserter.rows)).containsExactly("event-0", "event-1", "event-2");
+    }
+
+    private static List<AuditLog> events(int from, int to) {
+        LocalDateTime at = LocalDateTime.of(2025, 3, 10, 9, 0);
+        return IntStream.range(from, to)
+                .mapToObj(i -> AuditLog.builder()
+                        .actorUserId((long) i)
+                        .action("event-" + i)
+                        .targetType("USER")
+                        .timestamp(at.plusSeconds(i))
+                        .build())
+                .toList();
+    }
+
+    private static List<String> actions(List<AuditLog> rows) {
+        return rows.stream().map(AuditLog::getAction).toList();
+    }
+
+    /** Takes its time over the first batch and notes whether anything interrupted it. */
+    private static final class SlowInserter extends AuditBatchInserter {
+        final List<AuditLog> rows = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile boolean interrupted;
+
+        SlowInserter() {
+            super(null, null);
+        }
+
+        @Override
+        public void insert(List<AuditLog> batch) {
+            if (started.getCount() > 0) {
+                started.countDown();
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    throw new IllegalStateException("insert interrupted", e);
+                }
+            }
+            interrupted |= Thread.currentThread().isInterrupted();
+            rows.addAll(batch);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package lk.sliit.lms.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    properties = {
+        "lms.auth.token.enabled=true",
+        "lms.auth.token.secret=test-secret-test-secret-test-secret-42"
+    }
+)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AccessTokenAuthenticationTest {
+    private static final String EMAIL = "token.student@lms.local";
+    private static final String PASSWORD = "Student@123";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private long userId;
+
+    @BeforeEach
+    void seed() {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS token_revocations (user_id BIGINT PRIMARY KEY, revoked_before TIMESTAMP(3) NOT NULL)");
+        RoleEntity student = roleRepository.findByCode("STUDENT")
+                .orElseGet(() -> roleRepository.save(RoleEntity.builder().code("STUDENT").name("Student").build()));
+        userId = userRepository.findByEmailIgnoreCase(EMAIL)
+                .orElseGet(() -> userRepository.save(User.builder()
+                        .name("Token Student")
+                        .email(EMAIL)
+                        .passwordHash(passwordEncoder.encode(PASSWORD))
+                        .status(UserStatus.ACTIVE)
+                        .createdAt(LocalDateTime.now())
+                        .roles(Set.of(student))
+                        .build()))
+                .getId();
+    }
+
+    @Test
+    void bearerTokenAuthenticatesWithoutASession() throws Exception {
+        String token = issue();
+
+        MvcResult me = mvc.perform(get("/api/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(userId))
+                .andExpect(jsonPath("$.roles[0]").value("STUDENT"))
+                .andReturn();
+        assertThat(me.getRequest().getSession(false)).isNull();
+    }
+
+    @Test
+    void tamperedTokensAndBadPasswordsAreRefused() throws Exception {
+        String token = issue();
+        String forged = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        mvc.perform(get("/api/me").header("Authorization", "Bearer " + forged))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(post("/api/auth/token").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + EMAIL + "\",\"password\":\"wrong\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void revokedTokensStopWorking() throws Exception {
+        String token = issue();
+        mvc.perform(delete("/api/auth/token").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+
+        mvc.perform(get("/api/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM token_revocations WHERE user_id = ?", Long.class, userId)).isOne();
+
+        // A token issued after the revocation is accepted again.
+        Thread.sleep(5);
+        mvc.perform(get("/api/me").header("Authorization", "Bearer " + issue()))
+                .andExpect(status().isOk());
+    }
+
+    private String issue() throws Exception {
+        MvcResult result = mvc.perform(post("/api/auth/token").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        return body.get("token").asText();
+    }
+}
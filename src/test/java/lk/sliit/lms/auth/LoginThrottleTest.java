@@ -0,0 +1,78 @@
+package lk.sliit.lms.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "lms.auth.throttle.max-failures-per-email=3",
+        "lms.auth.throttle.backoff=1m"
+    }
+)
+@ActiveProfiles("test")
+class LoginThrottleTest {
+    private static final String PASSWORD = "Member@123";
+    private static final String ATTACKER = "203.0.113.7";
+    private static final String MEMBER = "198.51.100.9";
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void guessesFromOneClientDoNotLockTheMemberOutElsewhere() throws Exception {
+        member("victim@lms.local");
+        for (int i = 0; i < 3; i++) {
+            assertThat(login("victim@lms.local", "guess", ATTACKER)).isEqualTo("failed");
+        }
+
+        // The loopback peer is a trusted proxy, so each forwarded client has its own counter.
+        assertThat(login("victim@lms.local", PASSWORD, ATTACKER)).isEqualTo("failed");
+        assertThat(login("victim@lms.local", PASSWORD, MEMBER)).isEqualTo("signed in");
+    }
+
+    private String login(String email, String password, String forwardedFor) throws Exception {
+        String form = "email=" + URLEncoder.encode(email, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .header("X-Forwarded-For", forwardedFor)
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        String location = response.headers().firstValue("Location").orElse("");
+        return location.endsWith("/dashboard") ? "signed in" : "failed";
+    }
+
+    private void member(String email) {
+        userRepository.save(User.builder()
+                .name("Member")
+                .email(email)
+                .passwordHash(BCrypt.hashpw(PASSWORD, BCrypt.gensalt(4)))
+                .status(UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .roles(new HashSet<>())
+                .build());
+    }
+}
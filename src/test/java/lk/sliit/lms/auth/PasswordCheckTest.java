@@ -0,0 +1,101 @@
+package lk.sliit.lms.auth;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.event.AuthenticationFailureLockedEvent;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    properties = {
+        "lms.auth.password.bcrypt-cost=5",
+        "lms.auth.throttle.max-failures-per-email=3",
+        "lms.auth.throttle.backoff=300ms"
+    }
+)
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class PasswordCheckTest {
+    private static final String PASSWORD = "Member@123";
+
+    @Autowired
+    private AuthenticationConfiguration authenticationConfiguration;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void weakerHashesAreReEncodedOnSuccessfulLogin() throws Exception {
+        long id = member("rehash@lms.local", 4);
+
+        login("rehash@lms.local", PASSWORD);
+
+        assertThat(userRepository.findById(id).orElseThrow().getPasswordHash()).startsWith("$2a$05$");
+        assertThat(BCrypt.checkpw(PASSWORD, userRepository.findById(id).orElseThrow().getPasswordHash())).isTrue();
+    }
+
+    @Test
+    void repeatedFailuresBackOffBeforeHashing() throws Exception {
+        member("stuffed@lms.local", 5);
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> login("stuffed@lms.local", "guess")).isInstanceOf(BadCredentialsException.class);
+        }
+        long hashed = meterRegistry.timer("lms.auth.password.check").count();
+
+        // Inside the backoff delay even the right password is refused, and nothing is hashed.
+        assertThatThrownBy(() -> login("STUFFED@lms.local", PASSWORD)).isInstanceOf(LoginThrottledException.class);
+        assertThat(meterRegistry.timer("lms.auth.password.check").count()).isEqualTo(hashed);
+        assertThat(meterRegistry.counter("lms.auth.throttled").count()).isPositive();
+        // Audited like any failed sign-in.
+        assertThat(events.stream(AuthenticationFailureLockedEvent.class))
+                .anyMatch(e -> e.getException() instanceof LoginThrottledException);
+
+        // Once it has passed, a wrong guess doubles the delay...
+        Thread.sleep(350);
+        assertThatThrownBy(() -> login("stuffed@lms.local", "guess")).isInstanceOf(BadCredentialsException.class);
+        Thread.sleep(350);
+        assertThatThrownBy(() -> login("stuffed@lms.local", PASSWORD)).isInstanceOf(LoginThrottledException.class);
+
+        // ...and the right password signs in and clears it.
+        Thread.sleep(400);
+        login("stuffed@lms.local", PASSWORD);
+        login("stuffed@lms.local", PASSWORD);
+    }
+
+    private void login(String email, String password) throws Exception {
+        AuthenticationManager manager = authenticationConfiguration.getAuthenticationManager();
+        manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(email, password));
+    }
+
+    private long member(String email, int cost) {
+        return userRepository.save(User.builder()
+                .name("Member")
+                .email(email)
+                .passwordHash(BCrypt.hashpw(PASSWORD, BCrypt.gensalt(cost)))
+                .status(UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .roles(new HashSet<>())
+                .build()).getId();
+    }
+}
@@ -0,0 +1,120 @@
+package lk.sliit.lms.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.reflect.RecordComponent;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = lk.sliit.lms.LmsBackendApplication.class)
+@ActiveProfiles("test")
+class PrincipalCacheTest {
+    private static final String PASSWORD = "Member@123";
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AuthenticationConfiguration authenticationConfiguration;
+
+    @Test
+    void cachesNoPasswordHashAndErasesItAfterLogin() throws Exception {
+        member("snapshot@lms.local");
+        assertThat(principalCache.findByEmail("Snapshot@lms.local")).get()
+                .extracting(PrincipalSnapshot::email).isEqualTo("snapshot@lms.local");
+        assertThat(PrincipalSnapshot.class.getRecordComponents())
+                .extracting(RecordComponent::getName)
+                .doesNotContain("passwordHash");
+
+        Authentication signedIn = login("snapshot@lms.local");
+        assertThat(signedIn.getPrincipal()).isInstanceOf(DbUserDetails.class);
+        assertThat(((DbUserDetails) signedIn.getPrincipal()).getPassword()).isNull();
+    }
+
+    @Test
+    void updatesAreSeenWithoutWaitingForTheTtl() throws Exception {
+        long id = member("suspend@lms.local");
+        login("suspend@lms.local");
+        assertThat(principalCache.findByEmail("suspend@lms.local")).get()
+                .extracting(PrincipalSnapshot::status).isEqualTo(UserStatus.ACTIVE);
+
+        User user = userRepository.findById(id).orElseThrow();
+        user.setStatus(UserStatus.SUSPENDED);
+        userRepository.save(user);
+
+        assertThat(principalCache.findByEmail("suspend@lms.local")).get()
+                .extracting(PrincipalSnapshot::status).isEqualTo(UserStatus.SUSPENDED);
+        assertThatThrownBy(() -> login("suspend@lms.local")).isInstanceOf(DisabledException.class);
+    }
+
+    @Test
+    void anEmailChangeDropsTheOldKey() throws Exception {
+        long id = member("old.address@lms.local");
+        assertThat(principalCache.findByEmail("old.address@lms.local")).isPresent();
+
+        User user = userRepository.findById(id).orElseThrow();
+        user.setEmail("new.address@lms.local");
+        userRepository.save(user);
+
+        assertThat(principalCache.findByEmail("old.address@lms.local")).isEmpty();
+        assertThat(principalCache.findByEmail("new.address@lms.local")).get()
+                .extracting(PrincipalSnapshot::id).isEqualTo(id);
+        assertThat(login("new.address@lms.local").isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void roleEditsAloneAreSeenWithoutWaitingForTheTtl() throws Exception {
+        RoleEntity admin = roleRepository.findByCode("ADMIN")
+                .orElseGet(() -> roleRepository.save(RoleEntity.builder().code("ADMIN").name("Administrator").build()));
+        long id = member("promoted@lms.local");
+        assertThat(login("promoted@lms.local").getAuthorities()).isEmpty();
+
+        User user = userRepository.findById(id).orElseThrow();
+        user.getRoles().add(admin);
+        userRepository.save(user);
+        assertThat(principalCache.findByEmail("promoted@lms.local")).get()
+                .extracting(PrincipalSnapshot::roles).isEqualTo(Set.of("ADMIN"));
+        assertThat(login("promoted@lms.local").getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+
+        user = userRepository.findById(id).orElseThrow();
+        user.getRoles().clear();
+        userRepository.save(user);
+        assertThat(principalCache.findByEmail("promoted@lms.local")).get()
+                .extracting(PrincipalSnapshot::roles).isEqualTo(Set.of());
+        assertThat(login("promoted@lms.local").getAuthorities()).isEmpty();
+    }
+
+    private Authentication login(String email) throws Exception {
+        return authenticationConfiguration.getAuthenticationManager()
+                .authenticate(UsernamePasswordAuthenticationToken.unauthenticated(email, PASSWORD));
+    }
+
+    private long member(String email) {
+        return userRepository.save(User.builder()
+                .name("Member")
+                .email(email)
+                .passwordHash(BCrypt.hashpw(PASSWORD, BCrypt.gensalt(4)))
+                .status(UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .roles(new HashSet<>())
+                .build()).getId();
+    }
+}
@@ -0,0 +1,139 @@
+package lk.sliit.lms.availability;
+
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.BookStatus;
+import lk.sliit.lms.loans.Loan;
+import lk.sliit.lms.loans.LoanRepository;
+import lk.sliit.lms.loans.LoanService;
+import lk.sliit.lms.reservations.ReservationQueueService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    properties = {
+        "lms.availability.page-size=2"
+    }
+)
+@ActiveProfiles("test")
+class AvailabilityServiceTest {
+
+    @Autowired
+    private AvailabilityService availability;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private ReservationQueueService reservations;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void followsCheckoutReturnAndQueueAndRepairsDrift() {
+        Book book = bookRepository.save(Book.builder().isbn("9780134685991").title("Effective Java")
+                .author("Joshua Bloch").quantity(2).status(BookStatus.AVAILABLE).build());
+        long id = book.getId();
+        assertThat(availability.get(id)).contains(new Availability(id, 2, 0, 0, true));
+
+        Loan first = loanService.checkout(id, 1);
+        loanService.checkout(id, 2);
+        assertThat(availability.get(id)).contains(new Availability(id, 0, 2, 0, true));
+        assertThat(availability.get(id).orElseThrow().available()).isFalse();
+
+        reservations.enqueue(id, 3);
+        assertThat(availability.get(id).orElseThrow().queueLength()).isEqualTo(1);
+
+        loanService.returnLoan(first.getId()); // hands the copy to the queue head
+        assertThat(availability.get(id)).contains(new Availability(id, 1, 1, 0, true));
+
+        // A JDBC write bypasses change capture; the drift check brings the entry back in line.
+        jdbc.update("UPDATE books SET quantity = 5, status = 'ARCHIVED' WHERE id = ?", id);
+        for (int i = 0; i < 3; i++) {
+            bookRepository.save(Book.builder().isbn("isbn-" + i).title("T").author("A")
+                    .quantity(i).status(BookStatus.AVAILABLE).build());
+        }
+        availability.checkDrift();
+        assertThat(availability.get(id)).contains(new Availability(id, 5, 1, 0, false));
+        assertThat(availability.sync()).isZero();
+        assertThat(availability.get(12345)).isEmpty();
+    }
+
+    @Test
+    void deletingAnOpenLoanReleasesItsCount() {
+        Book book = bookRepository.save(Book.builder().isbn("9780201633610").title("Design Patterns")
+                .author("Gamma").quantity(3).status(BookStatus.AVAILABLE).build());
+        long id = book.getId();
+        Loan open = loanService.checkout(id, 1);
+        Loan returned = loanService.checkout(id, 2);
+        loanService.returnLoan(returned.getId());
+        assertThat(availability.get(id).orElseThrow().activeLoans()).isEqualTo(1);
+
+        loanRepository.delete(loanRepository.findById(returned.getId()).orElseThrow());
+        assertThat(availability.get(id).orElseThrow().activeLoans()).isEqualTo(1);
+
+        loanRepository.delete(loanRepository.findById(open.getId()).orElseThrow());
+        assertThat(availability.get(id).orElseThrow().activeLoans()).isZero();
+        assertThat(availability.sync()).isZero();
+    }
+
+    @Test
+    void tableMatchesAMapUnderRandomOperations() {
+        AvailabilityTable table = new AvailabilityTable(4);
+        Map<Long, int[]> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int op = 0; op < 20_000; op++) {
+            long id = 1 + random.nextInt(300);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    int shelf = random.nextInt(5);
+                    table.apply(id, shelf, true, 1);
+                    int[] e = expected.computeIfAbsent(id, k -> new int[4]);
+                    e[0] = shelf;
+                    e[1]++;
+                    e[3] = 1;
+                }
+                case 1 -> {
+                    int q = random.nextInt(4);
+                    table.setQueued(id, q);
+                    expected.computeIfAbsent(id, k -> new int[4])[2] = q;
+                }
+                default -> {
+                    table.remove(id);
+                    expected.remove(id);
+                }
+            }
+        }
+        long[] ids = new long[301];
+        for (int i = 0; i < ids.length; i++) ids[i] = i + 1;
+        int[] out = new int[ids.length * AvailabilityTable.FIELDS];
+        table.fill(ids, ids.length, out);
+        for (int i = 0; i < ids.length; i++) {
+            int[] e = expected.get(ids[i]);
+            int o = i * AvailabilityTable.FIELDS;
+            if (e == null) {
+                assertThat(out[o]).isEqualTo(AvailabilityTable.UNKNOWN);
+            } else {
+                assertThat(new int[]{out[o], out[o + 1], out[o + 2], out[o + 3]}).containsExactly(e);
+            }
+        }
+        assertThat(table.size()).isEqualTo(expected.size());
+    }
+}
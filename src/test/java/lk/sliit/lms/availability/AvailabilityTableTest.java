@@ -0,0 +1,64 @@
+package lk.sliit.lms.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityTableTest {
+    private static final int BOOKS = 200_000;
+    private static final int READERS = 4;
+
+    @Test
+    void readsDuringResizeNeverFailOrMixEntries() throws Exception {
+        AvailabilityTable table = new AvailabilityTable(1); // starts at 16 slots, so it resizes 14 times
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(pool.submit(() -> {
+                    long[] ids = new long[64];
+                    int[] out = new int[ids.length * AvailabilityTable.FIELDS];
+                    int found = 0;
+                    for (long next = 1; writing.get(); next = next % BOOKS + 1) {
+                        for (int i = 0; i < ids.length; i++) ids[i] = (next + i * 997L) % BOOKS + 1;
+                        table.fill(ids, ids.length, out);
+                        for (int i = 0, o = 0; i < ids.length; i++, o += AvailabilityTable.FIELDS) {
+                            if (out[o + AvailabilityTable.ON_SHELF] == AvailabilityTable.UNKNOWN) continue;
+                            assertThat(out[o + AvailabilityTable.ON_SHELF]).isEqualTo(shelf(ids[i]));
+                            assertThat(out[o + AvailabilityTable.ACTIVE_LOANS]).isEqualTo(loans(ids[i]));
+                            found++;
+                        }
+                    }
+                    return found;
+                }));
+            }
+            for (long id = 1; id <= BOOKS; id++) {
+                table.apply(id, shelf(id), true, loans(id));
+            }
+            writing.set(false);
+            for (Future<Integer> reader : readers) {
+                assertThat(reader.get()).isPositive();
+            }
+        } finally {
+            writing.set(false);
+            pool.shutdownNow();
+        }
+        assertThat(table.size()).isEqualTo(BOOKS);
+    }
+
+    private static int shelf(long id) {
+        return (int) (id % 7);
+    }
+
+    private static int loans(long id) {
+        return (int) (id % 5);
+    }
+}
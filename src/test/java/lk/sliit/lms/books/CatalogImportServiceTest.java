@@ -0,0 +1,136 @@
+package lk.sliit.lms.books;
+
+import lk.sliit.lms.search.CatalogSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    properties = {
+        "lms.catalog.import.chunk-size=2"
+    }
+)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogImportServiceTest {
+
+    @Autowired
+    private CatalogImportService importService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CatalogSearchService searchService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @BeforeEach
+    void clean() {
+        jdbc.update("DELETE FROM books");
+    }
+
+    @Test
+    void isbnChecksums() {
+        assertThat(Isbn.toIsbn13("978-0-13-468599-1")).isEqualTo("9780134685991");
+        assertThat(Isbn.toIsbn13("0-13-235088-2")).isEqualTo("9780132350884");
+        assertThat(Isbn.toIsbn13("080442957X")).isEqualTo("9780804429573");
+        assertThat(Isbn.toIsbn13("9780134685992")).isNull();
+        assertThat(Isbn.toIsbn13("0132350883")).isNull();
+        assertThat(Isbn.toIsbn13("97801346859")).isNull();
+        assertThat(Isbn.toIsbn13("97801346859X1")).isNull();
+        assertThat(Isbn.toIsbn13("978000000X002")).isNull();
+        assertThat(Isbn.toIsbn13("080442957X0")).isNull();
+        assertThat(Isbn.toIsbn13("08044295X7")).isNull();
+    }
+
+    @Test
+    void csvImportUpsertsAndReportsRowErrors() throws Exception {
+        bookRepository.save(Book.builder().isbn("9780132350884").title("Old title").author("Robert C. Martin")
+                .quantity(3).status(BookStatus.AVAILABLE).build());
+
+        String csv = """
+                isbn,title,author,genre,quantity
+                978-0-13-468599-1,Effective Java,Joshua Bloch,Programming,4
+                0132350882,"Clean Code: A Handbook of Agile Software Craftsmanship",Robert C. Martin,Programming,9
+                9780134685992,Bad checksum,Someone,,1
+                9781492078005,"Designing Data-Intensive
+                Applications",Martin Kleppmann,Databases,
+                9781617294945,,No Title,,1
+                9781617294945,Spring in Action,"Craig ""Spring"" Walls",Programming,x
+                9781617294945,Spring in Action,Craig Walls,Programming,2
+                """;
+        ImportReport report = importService.importCatalog(stream(csv), CatalogImportService.Format.CSV);
+
+        assertThat(report.rowsRead()).isEqualTo(7);
+        assertThat(report.inserted()).isEqualTo(3);
+        assertThat(report.updated()).isEqualTo(1);
+        assertThat(report.skipped()).isZero();
+        assertThat(report.rejected()).isEqualTo(3);
+        assertThat(report.errors()).extracting(ImportReport.RowError::line).containsExactly(4L, 7L, 8L);
+
+        Book cleanCode = bookRepository.findByIsbn("9780132350884").orElseThrow();
+        assertThat(cleanCode.getTitle()).startsWith("Clean Code:");
+        assertThat(cleanCode.getQuantity()).isEqualTo(3); // copies on the shelf are not overwritten
+        assertThat(bookRepository.findByIsbn("9781492078005").orElseThrow().getTitle())
+                .isEqualTo("Designing Data-Intensive\nApplications");
+        assertThat(bookRepository.findByIsbn("9781617294945").orElseThrow().getQuantity()).isEqualTo(2);
+
+        // The import event reloaded the search index.
+        assertThat(searchService.search("kleppmann", false, null, 0, 10).total()).isEqualTo(1);
+    }
+
+    @Test
+    void ndjsonImport() throws Exception {
+        String ndjson = """
+                {"isbn":"9780134685991","title":"Effective Java","author":"Joshua Bloch","quantity":2}
+                not json
+                {"isbn":"9780134685991","title":"Effective Java, 3rd ed.","author":"Joshua Bloch"}
+                """;
+        ImportReport report = importService.importCatalog(stream(ndjson), CatalogImportService.Format.NDJSON);
+
+        assertThat(report.rowsRead()).isEqualTo(2);
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.skipped()).isEqualTo(1);
+        assertThat(report.rejected()).isEqualTo(1);
+        assertThat(bookRepository.findByIsbn("9780134685991").orElseThrow().getTitle()).isEqualTo("Effective Java, 3rd ed.");
+    }
+
+    @Test
+    void onlyAdminsMayImport() throws Exception {
+        String csv = "isbn,title,author\n9780134685991,Effective Java,Joshua Bloch\n";
+        mvc.perform(post("/api/admin/catalog/import").with(user("student@lms.local").roles("STUDENT"))
+                        .contentType(MediaType.TEXT_PLAIN).content(csv))
+                .andExpect(status().isForbidden());
+        assertThat(bookRepository.findByIsbn("9780134685991")).isEmpty();
+
+        mvc.perform(post("/api/admin/catalog/import").with(user("admin@lms.local").roles("ADMIN"))
+                        .contentType(MediaType.TEXT_PLAIN).content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(1));
+    }
+
+    private static ByteArrayInputStream stream(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,65 @@
+package lk.sliit.lms.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = lk.sliit.lms.LmsBackendApplication.class)
+@ActiveProfiles("test")
+@Import(DeferredStartupTest.SlowTask.class)
+class DeferredStartupTest {
+    private static final CountDownLatch release = new CountDownLatch(1);
+    private static final CountDownLatch ran = new CountDownLatch(1);
+
+    @Autowired
+    private DeferredStartup deferredStartup;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void readinessWaitsForDeferredTasksStartedAfterTheContext() throws Exception {
+        // The context finished starting while the task is still blocked.
+        assertThat(deferredStartup.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        release.countDown();
+        assertThat(ran.await(10, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (deferredStartup.health().getStatus() != Status.UP && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(deferredStartup.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(meterRegistry.timer("lms.startup.deferred", "task", "slow", "outcome", "success").count()).isEqualTo(1);
+    }
+
+    @TestConfiguration
+    static class SlowTask {
+        @Bean
+        DeferredStartupTask slowTask() {
+            return new DeferredStartupTask() {
+                @Override
+                public String name() {
+                    return "slow";
+                }
+
+                @Override
+                public void run() throws Exception {
+                    release.await(30, TimeUnit.SECONDS);
+                    ran.countDown();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package lk.sliit.lms.common;
+
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.BookStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = lk.sliit.lms.LmsBackendApplication.class)
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class EntityChangeListenerTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void changesArriveAsOneCoalescedBatchAfterCommit() {
+        Book saved = new TransactionTemplate(transactionManager).execute(tx -> {
+            Book book = bookRepository.saveAndFlush(book("9780000000011", "Draft title"));
+            book.setTitle("Final title");
+            bookRepository.flush();
+            assertThat(batches()).as("nothing is published before commit").isEmpty();
+            return book;
+        });
+
+        List<EntityChangeBatch> batches = batches();
+        assertThat(batches).hasSize(1);
+        List<EntityChange<Book>> changes = batches.get(0).ofType(Book.class);
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).type()).isEqualTo(ChangeType.INSERTED);
+        assertThat(changes.get(0).id()).isEqualTo(saved.getId());
+        assertThat(changes.get(0).entity().getTitle()).isEqualTo("Final title");
+    }
+
+    @Test
+    void rolledBackChangesAreNeverPublished() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            bookRepository.saveAndFlush(book("9780000000028", "Never committed"));
+            tx.setRollbackOnly();
+        });
+
+        assertThat(batches()).isEmpty();
+        assertThat(bookRepository.findByIsbn("9780000000028")).isEmpty();
+    }
+
+    @Test
+    void anInsertDeletedInTheSameTransactionCancelsOut() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            Book book = bookRepository.saveAndFlush(book("9780000000035", "Short lived"));
+            bookRepository.delete(book);
+            bookRepository.flush();
+        });
+
+        assertThat(batches()).isEmpty();
+    }
+
+    @Test
+    void laterTransactionsPublishTheirOwnBatches() {
+        Book book = bookRepository.save(book("9780000000042", "Committed"));
+        book.setQuantity(5);
+        bookRepository.save(book);
+
+        List<EntityChangeBatch> batches = batches();
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0).ofType(Book.class).get(0).type()).isEqualTo(ChangeType.INSERTED);
+        assertThat(batches.get(1).ofType(Book.class).get(0).type()).isEqualTo(ChangeType.UPDATED);
+    }
+
+    @Test
+    void aNewTransactionStartedAfterCommitPublishesItsOwnBatch() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            bookRepository.saveAndFlush(book("9780000000059", "Outer"));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requiresNew().executeWithoutResult(inner -> bookRepository.save(book("9780000000066", "Follow-up")));
+                }
+            });
+        });
+
+        assertThat(batches()).hasSize(2);
+        assertThat(titles(batches().get(0))).containsExactly("Outer");
+        assertThat(titles(batches().get(1))).containsExactly("Follow-up");
+    }
+
+    @Test
+    void aNewTransactionKeepsItsChangesWhenTheOuterOneRollsBack() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            bookRepository.saveAndFlush(book("9780000000073", "Rolled back"));
+            requiresNew().executeWithoutResult(inner -> bookRepository.save(book("9780000000080", "Committed inside")));
+            assertThat(batches()).hasSize(1);
+            tx.setRollbackOnly();
+        });
+
+        assertThat(batches()).hasSize(1);
+        assertThat(titles(batches().get(0))).containsExactly("Committed inside");
+    }
+
+    private TransactionTemplate requiresNew() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private static List<String> titles(EntityChangeBatch batch) {
+        return batch.ofType(Book.class).stream().map(change -> change.entity().getTitle()).toList();
+    }
+
+    private List<EntityChangeBatch> batches() {
+        return events.stream(EntityChangeBatch.class).filter(batch -> batch.contains(Book.class)).toList();
+    }
+
+    private static Book book(String isbn, String title) {
+        return Book.builder()
+                .isbn(isbn)
+                .title(title)
+                .author("Test")
+                .quantity(1)
+                .status(BookStatus.AVAILABLE)
+                .build();
+    }
+}
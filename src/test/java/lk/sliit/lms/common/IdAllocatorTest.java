@@ -0,0 +1,71 @@
+package lk.sliit.lms.common;
+
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.BookStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    properties = {
+        "lms.ids.block-size=10"
+    }
+)
+@ActiveProfiles("test")
+class IdAllocatorTest {
+
+    @Autowired
+    private IdAllocator ids;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void jdbcRangesAndEntityIdsNeverOverlap() {
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        for (int round = 0; round < 3; round++) {
+            long first = ids.allocate("books", 7);
+            for (long id = first; id < first + 7; id++) assertThat(seen.add(id)).isTrue();
+
+            List<Book> books = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                books.add(Book.builder().isbn("isbn-" + round + "-" + i).title("T").author("A")
+                        .quantity(1).status(BookStatus.AVAILABLE).build());
+            }
+            bookRepository.saveAll(books).forEach(b -> assertThat(seen.add(b.getId())).isTrue());
+        }
+        assertThat(seen).hasSize(3 * 67);
+    }
+
+    @Test
+    void concurrentCallersGetDisjointRanges() throws Exception {
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                int size = t % 4 + 1;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        long first = ids.allocate("audit_log", size);
+                        for (long id = first; id < first + size; id++) assertThat(seen.add(id)).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        }
+        assertThat(seen).hasSize(100 * 2 * (1 + 2 + 3 + 4));
+    }
+}
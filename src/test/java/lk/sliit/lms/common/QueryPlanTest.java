@@ -0,0 +1,176 @@
+package lk.sliit.lms.common;
+
+import lk.sliit.lms.availability.AvailabilityService;
+import lk.sliit.lms.fines.FineAccrualJob;
+import lk.sliit.lms.notifications.ReminderScheduler;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAINs the hot queries on MySQL and fails if one of them reads a whole table or a
+ * whole index. Needs a disposable database (the CI service container, or the local one
+ * from infra/): it migrates the schema, adds fixture rows so the optimizer has
+ * statistics to work with, and deletes them afterwards. Uses the same MYSQL_* variables
+ * as the local profile.
+ * <p>
+ * JDBC scans are EXPLAINed from the services' own SQL constants, so the test follows any
+ * change to them. The rest mirror Spring Data derived queries (reservation queue, audit
+ * windows, ISBN lookup) in the form Hibernate generates for MySQL.
+ */
+@EnabledIfEnvironmentVariable(named = "MYSQL_HOST", matches = ".+")
+class QueryPlanTest {
+    private static final long BASE = 900_000_000L; // fixture ids, far above anything real
+    private static final int BOOKS = 200;
+    private static final int USERS = 50;
+    private static final int LOANS = 5000;
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:mysql://" + System.getenv("MYSQL_HOST") + ":" + env("MYSQL_PORT", "3307") + "/" + env("MYSQL_DB", "lms")
+                        + "?serverTimezone=UTC&allowPublicKeyRetrieval=true&useSSL=false&rewriteBatchedStatements=true",
+                env("MYSQL_USER", "lms_user"), env("MYSQL_PASSWORD", "lms_password123"));
+        Flyway.configure().dataSource(ds).locations("classpath:db/migration")
+                .baselineOnMigrate(true).baselineVersion("0").load().migrate();
+        jdbc = new JdbcTemplate(ds);
+        deleteFixtures();
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{BASE + i, "Plan " + i, "plan" + i + "@explain.test"});
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, name, email, password_hash, status) VALUES (?, ?, ?, 'x', 'ACTIVE')", users);
+        List<Object[]> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(new Object[]{BASE + i, "explain-" + i});
+        }
+        jdbc.batchUpdate("INSERT INTO books (id, isbn, title, author, quantity, status, version) " +
+                "VALUES (?, ?, 'Plan', 'Plan', 1, 'AVAILABLE', 0)", books);
+        List<Object[]> loans = new ArrayList<>();
+        List<Object[]> audit = new ArrayList<>();
+        List<Object[]> reservations = new ArrayList<>();
+        String[] statuses = {"RETURNED", "RETURNED", "RETURNED", "ACTIVE", "OVERDUE"};
+        for (int i = 0; i < LOANS; i++) {
+            String status = statuses[i % statuses.length];
+            loans.add(new Object[]{BASE + i, BASE + i % BOOKS, BASE + i % USERS, i % 400, i % 400 - 14,
+                    "RETURNED".equals(status) ? 1 : null, status});
+            audit.add(new Object[]{BASE + i, BASE + i % USERS, i % 400});
+            if (i % 5 == 0) reservations.add(new Object[]{BASE + i, BASE + i % BOOKS, BASE + i % USERS, i % 400,
+                    i % 3 == 0 ? "PENDING" : "FULFILLED", i});
+        }
+        jdbc.batchUpdate("INSERT INTO loans (id, book_id, user_id, checkout_at, due_at, returned_at, status, renewal_count) " +
+                "VALUES (?, ?, ?, NOW() - INTERVAL ? DAY, NOW() - INTERVAL ? DAY, " +
+                "CASE WHEN ? IS NULL THEN NULL ELSE NOW() END, ?, 0)", loans);
+        jdbc.batchUpdate("INSERT INTO audit_log (id, actor_user_id, action, target_type, target_id, ts) " +
+                "VALUES (?, ?, 'LOAN_CHECKOUT', 'LOAN', 1, NOW() - INTERVAL ? HOUR)", audit);
+        jdbc.batchUpdate("INSERT INTO reservations (id, book_id, user_id, created_at, status, position) " +
+                "VALUES (?, ?, ?, NOW() - INTERVAL ? MINUTE, ?, ?)", reservations);
+        jdbc.execute("ANALYZE TABLE books, loans, reservations, audit_log");
+    }
+
+    @AfterAll
+    static void cleanUp() {
+        if (jdbc != null) deleteFixtures();
+    }
+
+    private static void deleteFixtures() {
+        for (String table : List.of("reservations", "loans", "audit_log", "books", "users")) {
+            jdbc.update("DELETE FROM " + table + " WHERE id >= ?", BASE);
+        }
+    }
+
+    @Test
+    void reminderScanUsesStatusDueIndex() {
+        Timestamp start = new Timestamp(0);
+        assertIndexed(ReminderScheduler.SELECT_PAGE, "l", "idx_loans_status_due",
+                "OVERDUE", Timestamp.valueOf(LocalDateTime.now()), start, start, 0L, 1000);
+    }
+
+    @Test
+    void fineAccrualPageIsARangeScan() {
+        Timestamp start = new Timestamp(0);
+        for (String status : List.of("OVERDUE", "ACTIVE")) {
+            Object[] args = {status, Timestamp.valueOf(LocalDateTime.now()), start, start, 0L, 1000};
+            assertIndexed(FineAccrualJob.SELECT_PAGE, "loans", "idx_loans_status_due", args);
+            assertNoFilesort(FineAccrualJob.SELECT_PAGE, args);
+        }
+    }
+
+    @Test
+    void availabilityCountsUseBookStatusIndexes() {
+        assertIndexed(AvailabilityService.SELECT_PAGE, "l", "idx_loans_book_status", BASE, 500);
+        assertIndexed(AvailabilityService.SELECT_PAGE, "r", "idx_reservations_book_status_pos", BASE, 500);
+    }
+
+    @Test
+    void reservationQueueUsesBookStatusPositionIndex() {
+        assertIndexed("SELECT id FROM reservations WHERE book_id = " + (BASE + 7) + " AND status = 'PENDING' " +
+                "ORDER BY position, id", "reservations", "idx_reservations_book_status_pos");
+    }
+
+    @Test
+    void auditByActorUsesActorTsIndex() {
+        assertIndexed("SELECT * FROM audit_log WHERE actor_user_id = " + (BASE + 3) + " " +
+                "AND ts BETWEEN NOW() - INTERVAL 1 DAY AND NOW() ORDER BY ts DESC, id DESC LIMIT 50",
+                "audit_log", "idx_audit_log_actor_ts");
+    }
+
+    @Test
+    void auditByTimeUsesTsIndex() {
+        assertIndexed("SELECT * FROM audit_log WHERE ts BETWEEN NOW() - INTERVAL 1 HOUR AND NOW() " +
+                "ORDER BY ts DESC, id DESC LIMIT 50", "audit_log", "idx_audit_log_ts");
+    }
+
+    @Test
+    void isbnLookupUsesUniqueKey() {
+        assertIndexed("SELECT id FROM books WHERE isbn = 'explain-7'", "books", "isbn");
+    }
+
+    @Test
+    void duplicateIndexesAreGone() {
+        List<String> indexes = jdbc.queryForList(
+                "SELECT DISTINCT index_name FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name IN ('books', 'reservations')", String.class);
+        assertThat(indexes).doesNotContain("idx_books_isbn", "idx_reservations_book_created");
+    }
+
+    /** Every plan row for {@code table} must use an index and not walk all of it; optionally a specific one. */
+    private static void assertIndexed(String sql, String table, String expectedKey, Object... args) {
+        List<Map<String, Object>> plan = jdbc.queryForList("EXPLAIN " + sql, args);
+        List<Map<String, Object>> rows = plan.stream().filter(r -> table.equals(r.get("table"))).toList();
+        assertThat(rows).as("plan rows for %s in %s", table, plan).isNotEmpty();
+        for (Map<String, Object> row : rows) {
+            assertThat(row.get("type")).as("access type in %s", plan).isNotIn("ALL", "index");
+            assertThat(row.get("key")).as("key in %s", plan).isNotNull();
+            if (expectedKey != null) assertThat(row.get("key")).as("key in %s", plan).isEqualTo(expectedKey);
+        }
+    }
+
+    /** Keyset pages must come back in index order, not be sorted on every page. */
+    private static void assertNoFilesort(String sql, Object... args) {
+        List<Map<String, Object>> plan = jdbc.queryForList("EXPLAIN " + sql, args);
+        for (Map<String, Object> row : plan) {
+            assertThat(String.valueOf(row.get("Extra"))).as("extra in %s", plan).doesNotContain("filesort");
+        }
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? fallback : value;
+    }
+}
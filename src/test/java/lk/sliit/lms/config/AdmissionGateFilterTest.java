@@ -0,0 +1,113 @@
+package lk.sliit.lms.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionGateFilterTest {
+
+    @Test
+    void aWaitingRequestGetsInWhenAPermitFrees() throws Exception {
+        MeterRegistry meters = new SimpleMeterRegistry();
+        AdmissionGateFilter gate = new AdmissionGateFilter(meters, 1, Duration.ofSeconds(10));
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger served = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<MockHttpServletResponse> first = pool.submit(() -> call(gate, "/api/loans", (req, res) -> {
+                inside.countDown();
+                await(release);
+                served.incrementAndGet();
+            }));
+            assertThat(inside.await(10, TimeUnit.SECONDS)).isTrue();
+
+            Future<MockHttpServletResponse> second = pool.submit(() -> call(gate, "/api/loans", (req, res) -> served.incrementAndGet()));
+            waitFor(() -> meters.get("lms.admission.waiting").gauge().value() == 1);
+            assertThat(meters.get("lms.admission.active").gauge().value()).isEqualTo(1);
+            assertThat(second.isDone()).isFalse();
+
+            release.countDown();
+            assertThat(first.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+            assertThat(second.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+            assertThat(served).hasValue(2);
+            assertThat(meters.get("lms.admission.active").gauge().value()).isZero();
+            assertThat(meters.counter("lms.admission.rejected").count()).isZero();
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void aRequestThatWaitsTooLongIsTurnedAwayWithRetryAfter() throws Exception {
+        MeterRegistry meters = new SimpleMeterRegistry();
+        AdmissionGateFilter gate = new AdmissionGateFilter(meters, 1, Duration.ofMillis(50));
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockHttpServletResponse> holder = pool.submit(() -> call(gate, "/api/reports/popular", (req, res) -> {
+                inside.countDown();
+                await(release);
+            }));
+            assertThat(inside.await(10, TimeUnit.SECONDS)).isTrue();
+
+            AtomicInteger reached = new AtomicInteger();
+            MockHttpServletResponse turnedAway = call(gate, "/api/reports/popular", (req, res) -> reached.incrementAndGet());
+            assertThat(turnedAway.getStatus()).isEqualTo(503);
+            assertThat(turnedAway.getHeader("Retry-After")).isEqualTo("1");
+            assertThat(turnedAway.getContentAsString()).contains("Server busy");
+            assertThat(reached).hasValue(0);
+            assertThat(meters.counter("lms.admission.rejected").count()).isEqualTo(1);
+
+            // Only /api/** is gated.
+            AtomicInteger probes = new AtomicInteger();
+            assertThat(call(gate, "/livez", (req, res) -> probes.incrementAndGet()).getStatus()).isEqualTo(200);
+            assertThat(probes).hasValue(1);
+
+            release.countDown();
+            assertThat(holder.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static MockHttpServletResponse call(AdmissionGateFilter gate, String uri, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        gate.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
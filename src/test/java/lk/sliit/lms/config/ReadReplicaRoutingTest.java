@@ -0,0 +1,93 @@
+package lk.sliit.lms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.BookStatus;
+import lk.sliit.lms.reports.PopularBook;
+import lk.sliit.lms.reports.ReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Two in-memory H2 databases stand in for the primary and the replica. */
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    properties = {
+        "lms.datasource.replica.jdbc-url=jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'",
+        "lms.datasource.replica.maximum-pool-size=2"
+    }
+)
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void seedReplica() {
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.update("DELETE FROM report_book_borrows");
+        replica.update("DELETE FROM books");
+        replica.update("INSERT INTO books (id, isbn, title, author, quantity, status) VALUES (900000001, '9780000000001', 'Only On Replica', 'R. Eplica', 1, 'AVAILABLE')");
+        replica.update("INSERT INTO report_book_borrows (book_id, borrow_count) VALUES (900000001, 7)");
+    }
+
+    @Test
+    void reportsReadFromTheReplica() {
+        assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+        assertThat(reportService.popular(10))
+                .containsExactly(new PopularBook(900000001, "Only On Replica", "R. Eplica", 7));
+    }
+
+    @Test
+    void writesAndOtherReadsStayOnThePrimary() {
+        Book saved = bookRepository.save(Book.builder()
+                .isbn("9780134685991")
+                .title("Effective Java")
+                .author("Joshua Bloch")
+                .quantity(1)
+                .status(BookStatus.AVAILABLE)
+                .build());
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM books WHERE id = ?", Long.class, saved.getId())).isOne();
+        assertThat(bookRepository.findById(saved.getId())).isPresent();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Optional<Book> found = readOnly.execute(status -> bookRepository.findById(saved.getId()));
+        String title = readOnly.execute(status -> jdbc.queryForObject("SELECT title FROM books", String.class));
+        assertThat(found).isEmpty();
+        assertThat(title).isEqualTo("Only On Replica");
+    }
+}
@@ -0,0 +1,108 @@
+package lk.sliit.lms.config;
+
+import lk.sliit.lms.common.DeferredStartup;
+import lk.sliit.lms.keyfilter.KnownKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    properties = {
+        "lms.synthetic.users=40",
+        "lms.synthetic.books=120",
+        "lms.synthetic.loans=3000",
+        "lms.synthetic.reservations=400",
+        "lms.synthetic.as-of=2025-03-10",
+        "lms.synthetic.batch-rows=64",
+        "lms.synthetic.chunk-rows=500"
+    }
+)
+@ActiveProfiles({"test", "synthetic"})
+class SyntheticDataSeederTest {
+
+    @Autowired
+    private SyntheticDataSeeder seeder;
+
+    @Autowired
+    private DeferredStartup deferredStartup;
+
+    @Autowired
+    private KnownKeys knownKeys;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void waitForStartupRun() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (deferredStartup.health().getStatus() != Status.UP && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(deferredStartup.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void generatesTheConfiguredVolumesOnceWithSkewedConsistentHistories() {
+        assertCounts();
+
+        // A second run with the same settings finds the finished checkpoint and writes nothing.
+        seeder.run();
+        assertCounts();
+
+        assertThat(count("SELECT COUNT(*) FROM (SELECT user_id, book_id FROM loans WHERE status IN ('ACTIVE', 'OVERDUE') " +
+                "GROUP BY user_id, book_id HAVING COUNT(*) > 1) d")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM fines WHERE status = 'PENDING'")).isPositive();
+        assertThat(count("SELECT COUNT(*) FROM fines WHERE status = 'PAID'")).isPositive();
+        assertThat(count("SELECT COUNT(*) FROM loans WHERE returned_at < checkout_at")).isZero();
+        long busiest = count("SELECT MAX(c) FROM (SELECT COUNT(*) c FROM loans GROUP BY book_id) d");
+        assertThat(busiest).isGreaterThan(5 * 3000 / 120);
+        assertThat(knownKeys.mightBeEmail("synthetic.40@lms.local")).isTrue();
+        assertThat(knownKeys.mightBeIsbn(SyntheticDataSeeder.isbn(119))).isTrue();
+
+        // Popular titles hit their copy count, so the cap is exercised; nothing is lent twice.
+        assertThat(count("SELECT COUNT(*) FROM books WHERE quantity < 0")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM books WHERE quantity = 0 AND status = 'AVAILABLE' AND id IN " +
+                "(SELECT book_id FROM loans WHERE status IN ('ACTIVE', 'OVERDUE'))")).isPositive();
+
+        // A run with other settings adds loans and takes only its own open loans off the shelf.
+        Map<Long, Long> copies = copiesPerBook();
+        ReflectionTestUtils.setField(seeder, "seed", 43L);
+        seeder.run();
+        assertThat(count("SELECT COUNT(*) FROM loans")).isEqualTo(6000);
+        assertThat(copiesPerBook()).isEqualTo(copies);
+        assertThat(count("SELECT COUNT(*) FROM books WHERE quantity < 0")).isZero();
+    }
+
+    /** Copies per synthetic book: on the shelf plus out on open loans. */
+    private Map<Long, Long> copiesPerBook() {
+        Map<Long, Long> copies = new HashMap<>();
+        jdbc.query("SELECT b.id, b.quantity + (SELECT COUNT(*) FROM loans l WHERE l.book_id = b.id " +
+                "AND l.status IN ('ACTIVE', 'OVERDUE')) FROM books b WHERE b.isbn LIKE '9790%'",
+                (RowCallbackHandler) rs -> copies.put(rs.getLong(1), rs.getLong(2)));
+        return copies;
+    }
+
+    private void assertCounts() {
+        assertThat(count("SELECT COUNT(*) FROM users WHERE email LIKE 'synthetic.%'")).isEqualTo(40);
+        assertThat(count("SELECT COUNT(*) FROM books WHERE isbn LIKE '9790%'")).isEqualTo(120);
+        assertThat(count("SELECT COUNT(*) FROM loans")).isEqualTo(3000);
+        assertThat(count("SELECT COUNT(*) FROM reservations")).isEqualTo(400);
+    }
+
+    private long count(String sql) {
+        return jdbc.queryForObject(sql, Long.class);
+    }
+}
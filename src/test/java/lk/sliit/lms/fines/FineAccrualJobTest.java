@@ -0,0 +1,91 @@
+package lk.sliit.lms.fines;
+
+import lk.sliit.lms.common.JobCheckpoints;
+import lk.sliit.lms.reports.DailyCount;
+import lk.sliit.lms.reports.ReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    properties = {
+        "lms.fines.page-size=2"
+    }
+)
+@ActiveProfiles("test")
+class FineAccrualJobTest {
+    private static final LocalDateTime AS_OF = LocalDateTime.of(2025, 4, 10, 1, 30);
+
+    @Autowired
+    private FineAccrualJob job;
+
+    @Autowired
+    private JobCheckpoints checkpoints;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void seed() {
+        for (String table : new String[]{"fines", "loans", "job_checkpoints", "report_daily_overdue"}) {
+            jdbc.update("DELETE FROM " + table);
+        }
+        loan(1, "ACTIVE", 3, false);   // newly overdue
+        loan(2, "OVERDUE", 5, false);
+        loan(3, "ACTIVE", 1, false);   // newly overdue
+        loan(4, "OVERDUE", 2, false);
+        loan(5, "ACTIVE", -2, false);  // not due yet
+        loan(6, "ACTIVE", 4, false);   // newly overdue
+        loan(7, "OVERDUE", 9, false);
+        loan(8, "RETURNED", 6, true);
+    }
+
+    @Test
+    void everyOpenOverdueLoanIsReadOnceAcrossBothPasses() {
+        FineAccrualJob.Result result = job.run(AS_OF);
+
+        // OVERDUE 7, 2, 4 then ACTIVE 6, 1, 3 in due order: two pages of two and one per pass.
+        assertThat(result).isEqualTo(new FineAccrualJob.Result(6, 3, 4, true));
+        assertThat(jdbc.queryForList("SELECT id FROM loans WHERE status = 'OVERDUE' ORDER BY id", Long.class))
+                .containsExactly(1L, 2L, 3L, 4L, 6L, 7L);
+        assertThat(jdbc.queryForList("SELECT loan_id FROM fines ORDER BY loan_id", Long.class))
+                .containsExactly(1L, 2L, 3L, 4L, 6L, 7L);
+        // Loans flipped by the ACTIVE pass are not read again by a later page.
+        assertThat(reportService.overdue(AS_OF.toLocalDate(), AS_OF.toLocalDate()))
+                .containsExactly(new DailyCount(AS_OF.toLocalDate(), 6));
+        assertThat(checkpoints.load("fine-accrual")).get().extracting(JobCheckpoints.Checkpoint::completed).isEqualTo(true);
+
+        assertThat(job.run(AS_OF).overdueLoans()).isZero();
+    }
+
+    @Test
+    void anInterruptedRunResumesAfterTheSavedPosition() {
+        // The first ACTIVE page (loans 6 and 1) committed before the run stopped.
+        checkpoints.save("fine-accrual", AS_OF.toLocalDate().toString(), "ACTIVE", AS_OF.minusDays(3).withHour(0), 1, false);
+
+        FineAccrualJob.Result result = job.run(AS_OF);
+
+        assertThat(result).isEqualTo(new FineAccrualJob.Result(1, 1, 1, true));
+        assertThat(jdbc.queryForList("SELECT loan_id FROM fines", Long.class)).containsExactly(3L);
+    }
+
+    private void loan(long id, String status, int daysOverdue, boolean returned) {
+        LocalDateTime due = AS_OF.minusDays(daysOverdue).withHour(0);
+        jdbc.update("INSERT INTO loans (id, book_id, user_id, checkout_at, due_at, returned_at, status, renewal_count, version) " +
+                        "VALUES (?, 1, ?, ?, ?, ?, ?, 0, 0)",
+                id, 100 + id, Timestamp.valueOf(due.minusDays(14)), Timestamp.valueOf(due),
+                returned ? Timestamp.valueOf(AS_OF) : null, status);
+    }
+}
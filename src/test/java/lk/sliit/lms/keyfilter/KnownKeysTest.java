@@ -0,0 +1,96 @@
+package lk.sliit.lms.keyfilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.sliit.lms.auth.PrincipalCache;
+import lk.sliit.lms.auth.User;
+import lk.sliit.lms.auth.UserRepository;
+import lk.sliit.lms.auth.UserStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    properties = {
+        "lms.key-filters.enabled=true",
+        "lms.key-filters.page-size=2"
+    }
+)
+@ActiveProfiles("test")
+class KnownKeysTest {
+
+    @Autowired
+    private KnownKeys knownKeys;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void unknownEmailsAreRejectedAndNewUsersAreSeenAtOnce() {
+        double rejected = rejected("emails");
+        assertThat(principalCache.findByEmail("nobody@lms.local")).isEmpty();
+        assertThat(rejected("emails")).isEqualTo(rejected + 1);
+
+        userRepository.save(User.builder()
+                .name("Newcomer")
+                .email("Newcomer@lms.local")
+                .passwordHash("x")
+                .status(UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .roles(new HashSet<>())
+                .build());
+
+        assertThat(knownKeys.mightBeEmail(" newcomer@LMS.local")).isTrue();
+        assertThat(principalCache.findByEmail("newcomer@lms.local")).isPresent();
+    }
+
+    @Test
+    void rowsWrittenWithoutEntityEventsArriveWithTheRebuild() {
+        for (int i = 1; i <= 5; i++) {
+            jdbc.update("INSERT INTO books (id, isbn, title, author, quantity, status, version) " +
+                    "VALUES (?, ?, 'Filtered', 'F. Ilter', 1, 'AVAILABLE', 0)", 900000100 + i, "978000000010" + i);
+        }
+        assertThat(knownKeys.mightBeIsbn("9780000000105")).isFalse();
+
+        knownKeys.rebuild();
+
+        for (int i = 1; i <= 5; i++) {
+            assertThat(knownKeys.mightBeIsbn("978000000010" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("member" + i + "@lms.local");
+        }
+        int passed = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(i >= 10_000 || filter.mightContain("member" + i + "@lms.local")).isTrue();
+            if (filter.mightContain("visitor" + i + "@lms.local")) passed++;
+        }
+        assertThat(passed / 100_000.0).isLessThan(0.02);
+        assertThat(filter.estimatedFpp()).isBetween(0.005, 0.015);
+    }
+
+    private double rejected(String filter) {
+        return meterRegistry.counter("lms.keyfilter.rejected", "filter", filter).count();
+    }
+}
@@ -3,9 +3,16 @@ package lk.sliit.lms.lmsbackend;
 import lk.sliit.lms.audit.AuditLogRepository;
 import lk.sliit.lms.auth.RoleRepository;
 import lk.sliit.lms.auth.UserRepository;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.loans.LoanRepository;
+import lk.sliit.lms.reservations.ReservationRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
 
 @SpringBootTest(
     classes = lk.sliit.lms.LmsBackendApplication.class,
@@ -15,6 +22,15 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 )
 class LmsBackendApplicationTests {
 
+    @MockBean
+    private DataSource dataSource;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private JdbcTemplate jdbcTemplate;
+
     @MockBean
     private UserRepository userRepository;
 
@@ -24,6 +40,15 @@ class LmsBackendApplicationTests {
     @MockBean
     private AuditLogRepository auditLogRepository;
 
+    @MockBean
+    private BookRepository bookRepository;
+
+    @MockBean
+    private LoanRepository loanRepository;
+
+    @MockBean
+    private ReservationRepository reservationRepository;
+
     @Test
     void contextLoads() {
     }
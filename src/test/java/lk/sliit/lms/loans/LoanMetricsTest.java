@@ -0,0 +1,84 @@
+package lk.sliit.lms.loans;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.BookStatus;
+import lk.sliit.lms.common.BusinessRuleException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(
+    classes = lk.sliit.lms.LmsBackendApplication.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT
+)
+@ActiveProfiles("test")
+@AutoConfigureObservability(tracing = false) // keeps the Prometheus registry, which test contexts leave out
+class LoanMetricsTest {
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int appPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void checkoutsAreTimedAndScrapedOnTheManagementPortOnly() throws Exception {
+        Book book = bookRepository.save(Book.builder()
+                .isbn("9781617294945")
+                .title("Spring in Action")
+                .author("Craig Walls")
+                .quantity(1)
+                .status(BookStatus.AVAILABLE)
+                .build());
+        long okBefore = checkouts("ok");
+        long rejectedBefore = checkouts("rejected");
+
+        loanService.checkout(book.getId(), 1L);
+        assertThatThrownBy(() -> loanService.checkout(book.getId(), 2L)).isInstanceOf(BusinessRuleException.class);
+
+        assertThat(checkouts("ok") - okBefore).isEqualTo(1);
+        assertThat(checkouts("rejected") - rejectedBefore).isEqualTo(1);
+
+        HttpResponse<String> scrape = get(managementPort, "/actuator/prometheus");
+        assertThat(scrape.statusCode()).isEqualTo(200);
+        // management.metrics.distribution.percentiles-histogram.lms gives every lms.* timer buckets.
+        assertThat(scrape.body()).contains("lms_loans_checkout_seconds_bucket{", "lms_loans_lock_wait_seconds_bucket{");
+
+        assertThat(managementPort).isNotEqualTo(appPort);
+        assertThat(get(appPort, "/actuator/prometheus").statusCode()).isNotEqualTo(200);
+        assertThat(get(appPort, "/livez").statusCode()).isEqualTo(200);
+    }
+
+    private long checkouts(String outcome) {
+        return meterRegistry.timer("lms.loans.checkout", "outcome", outcome).count();
+    }
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
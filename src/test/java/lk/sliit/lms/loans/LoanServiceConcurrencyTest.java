@@ -0,0 +1,210 @@
+package lk.sliit.lms.loans;
+
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.BookStatus;
+import lk.sliit.lms.auth.DbUserDetails;
+import lk.sliit.lms.auth.User;
+import lk.sliit.lms.auth.UserStatus;
+import lk.sliit.lms.common.BusinessRuleException;
+import lk.sliit.lms.common.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = lk.sliit.lms.LmsBackendApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoanServiceConcurrencyTest {
+    private static final int COPIES = 25;
+    private static final int CHECKOUTS = 2_000;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void parallelCheckoutsNeverOversellOneIsbn() throws Exception {
+        Book book = bookRepository.save(Book.builder()
+                .isbn("9780134685991")
+                .title("Effective Java")
+                .author("Joshua Bloch")
+                .genre("Programming")
+                .quantity(COPIES)
+                .status(BookStatus.AVAILABLE)
+                .build());
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            long userId = 1_000L + i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    loanService.checkout(book.getId(), userId);
+                    succeeded.incrementAndGet();
+                } catch (BusinessRuleException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        pool.shutdown();
+
+        Book after = bookRepository.findById(book.getId()).orElseThrow();
+        long activeLoans = loanRepository.findByBookId(book.getId()).stream()
+                .filter(l -> l.getStatus() == LoanStatus.ACTIVE)
+                .count();
+
+        assertThat(succeeded.get()).isEqualTo(COPIES);
+        assertThat(rejected.get()).isEqualTo(CHECKOUTS - COPIES);
+        assertThat(after.getQuantity()).isZero();
+        assertThat(activeLoans).isEqualTo(COPIES);
+    }
+
+    @Test
+    void returnsRestoreCopiesAndRenewalsStopAtTwo() {
+        Book book = bookRepository.save(Book.builder()
+                .isbn("9780132350884")
+                .title("Clean Code")
+                .author("Robert C. Martin")
+                .quantity(1)
+                .status(BookStatus.AVAILABLE)
+                .build());
+
+        Loan loan = loanService.checkout(book.getId(), 1L);
+        loanService.renew(loan.getId());
+        loanService.renew(loan.getId());
+        assertThatThrownBy(() -> loanService.renew(loan.getId()))
+                .isInstanceOf(BusinessRuleException.class);
+
+        Loan returned = loanService.returnLoan(loan.getId());
+        assertThat(returned.getStatus()).isEqualTo(LoanStatus.RETURNED);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void anOverdueLoanBlocksASecondCopy() {
+        Book book = save("9781492078005", "Designing Data-Intensive Applications", 2);
+        Loan loan = loanService.checkout(book.getId(), 7L);
+        jdbc.update("UPDATE loans SET status = 'OVERDUE' WHERE id = ?", loan.getId());
+
+        assertThatThrownBy(() -> loanService.checkout(book.getId(), 7L))
+                .isInstanceOf(BusinessRuleException.class)
+                .hasMessageContaining("open loan");
+    }
+
+    @Test
+    void membersCanOnlyReturnAndRenewTheirOwnLoans() {
+        Book book = save("9780201633610", "Design Patterns", 1);
+        Loan loan = loanService.checkout(book.getId(), 8L);
+
+        assertThatThrownBy(() -> loanService.renew(loan.getId(), 9L)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> loanService.returnLoan(loan.getId(), 9L)).isInstanceOf(NotFoundException.class);
+        assertThat(loanService.renew(loan.getId(), 8L).getRenewalCount()).isEqualTo(1);
+        assertThat(loanService.returnLoan(loan.getId(), 8L).getStatus()).isEqualTo(LoanStatus.RETURNED);
+    }
+
+    @Test
+    void racingRenewalsNeverUndoAReturn() throws Exception {
+        int loans = 40;
+        List<Loan> open = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < loans; i++) {
+            Book book = save("97800000" + String.format("%05d", i), "Race " + i, 1);
+            books.add(book);
+            open.add(loanService.checkout(book.getId(), 100L + i));
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Loan loan : open) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return loanService.returnLoan(loan.getId());
+            }));
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    loanService.renew(loan.getId());
+                } catch (BusinessRuleException e) {
+                    // Renewing a loan that was returned first is refused.
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        pool.shutdown();
+
+        for (int i = 0; i < loans; i++) {
+            assertThat(loanRepository.findById(open.get(i).getId()).orElseThrow().getStatus()).isEqualTo(LoanStatus.RETURNED);
+            assertThat(bookRepository.findById(books.get(i).getId()).orElseThrow().getQuantity()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void checkoutIsForTheSignedInMember() throws Exception {
+        Book book = save("9780596009205", "Head First Java", 1);
+        User member = User.builder().id(4242L).name("Member").email("member@lms.local").passwordHash("x")
+                .status(UserStatus.ACTIVE).roles(new HashSet<>()).build();
+
+        mvc.perform(post("/api/loans").with(user(new DbUserDetails(member)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":" + book.getId() + ",\"userId\":1}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.userId").value(4242));
+    }
+
+    private Book save(String isbn, String title, int copies) {
+        return bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title(title)
+                .author("Test")
+                .quantity(copies)
+                .status(BookStatus.AVAILABLE)
+                .build());
+    }
+}
@@ -0,0 +1,169 @@
+package lk.sliit.lms.notifications;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(
+    classes = {lk.sliit.lms.LmsBackendApplication.class, ReminderSchedulerTest.CapturingConfig.class},
+    properties = {
+        "lms.notifications.page-size=7"
+    }
+)
+@ActiveProfiles("test")
+class ReminderSchedulerTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 8, 0);
+    private static final int MEMBERS = 40;
+
+    @Autowired
+    private ReminderScheduler scheduler;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private CapturingSender sender;
+
+    private long lastLoanId;
+
+    @BeforeEach
+    void seed() {
+        jdbc.update("DELETE FROM job_checkpoints");
+        jdbc.update("DELETE FROM notification_retries");
+        jdbc.update("DELETE FROM loans");
+        jdbc.update("DELETE FROM books");
+        jdbc.update("DELETE FROM users");
+        sender.sent.clear();
+        sender.failFor.clear();
+
+        jdbc.update("INSERT INTO books (id, isbn, title, author, quantity, status, version) " +
+                "VALUES (1, '9780134685991', 'Effective Java', 'Joshua Bloch', 5, 'AVAILABLE', 0)");
+        for (int u = 1; u <= MEMBERS; u++) {
+            jdbc.update("INSERT INTO users (id, name, email, password_hash, status, created_at) VALUES (?, ?, ?, 'x', ?, ?)",
+                    u, "Member " + u, "m" + u + "@lms.local", u == MEMBERS ? "SUSPENDED" : "ACTIVE", ts(NOW));
+            // Two loans due tomorrow, one overdue, one due far in the future, one already returned.
+            loan(u, NOW.plusDays(1), "ACTIVE", null);
+            loan(u, NOW.plusDays(1), "ACTIVE", null);
+            loan(u, NOW.minusDays(4), "OVERDUE", null);
+            loan(u, NOW.plusDays(20), "ACTIVE", null);
+            loan(u, NOW.minusDays(2), "RETURNED", NOW.minusDays(3));
+        }
+    }
+
+    @Test
+    void sendsOneGroupedReminderPerActiveMember() {
+        ReminderScheduler.Result result = scheduler.run(NOW);
+
+        assertThat(result.loans()).isEqualTo(3L * MEMBERS);
+        assertThat(result.members()).isEqualTo(MEMBERS);
+        assertThat(result.sent()).isEqualTo(MEMBERS - 1);
+        assertThat(result.failed()).isZero();
+
+        List<Notification> sent = List.copyOf(sender.sent);
+        assertThat(sent).extracting(Notification::userId).doesNotHaveDuplicates().doesNotContain((long) MEMBERS);
+        Notification first = sent.stream().filter(n -> n.userId() == 1).findFirst().orElseThrow();
+        assertThat(first.recipient()).isEqualTo("m1@lms.local");
+        assertThat(first.body()).contains("OVERDUE").containsOnlyOnce("2025-03-06");
+        assertThat(first.body().lines().filter(l -> l.contains("Effective Java"))).hasSize(3);
+
+        // Same day again: already done.
+        assertThat(scheduler.run(NOW.plusHours(2)).sent()).isZero();
+        assertThat(sender.sent).hasSize(MEMBERS - 1);
+    }
+
+    @Test
+    void failedSendsKeepTheDayOpenAndAreRetriedAlone() {
+        sender.failFor.addAll(Set.of(3L, 5L));
+        ReminderScheduler.Result first = scheduler.run(NOW);
+        assertThat(first.sent()).isEqualTo(MEMBERS - 3);
+        assertThat(first.failed()).isEqualTo(2);
+        assertThat(jdbc.queryForList("SELECT user_id FROM notification_retries ORDER BY user_id", Long.class))
+                .containsExactly(3L, 5L);
+
+        // Member 5 returns everything before the retry: nothing left to remind them of.
+        jdbc.update("UPDATE loans SET status = 'RETURNED', returned_at = ? WHERE user_id = 5", ts(NOW));
+        sender.failFor.clear();
+        sender.sent.clear();
+        scheduler.retryFailed(); // real clock: no failed run today, so this does nothing
+        assertThat(sender.sent).isEmpty();
+
+        ReminderScheduler.Result retry = scheduler.run(NOW.plusMinutes(30));
+        assertThat(retry.sent()).isEqualTo(1);
+        assertThat(retry.failed()).isZero();
+        assertThat(sender.sent).extracting(Notification::userId).containsExactly(3L);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM notification_retries", Long.class)).isZero();
+
+        assertThat(scheduler.run(NOW.plusHours(1)).sent()).isZero();
+        assertThat(sender.sent).hasSize(1);
+    }
+
+    @Test
+    void smsGoesToMembersWithAPhoneNumber() {
+        jdbc.update("UPDATE users SET phone = ? WHERE id = 2", "+94 77 123 4567");
+        jdbc.update("UPDATE users SET phone = ? WHERE id = 4", " ");
+        ReflectionTestUtils.setField(scheduler, "channels", Set.of(NotificationChannel.EMAIL, NotificationChannel.SMS));
+        try {
+            ReminderScheduler.Result result = scheduler.run(NOW);
+
+            assertThat(result.sent()).isEqualTo(MEMBERS);
+            assertThat(result.failed()).isZero();
+            assertThat(sender.sent).filteredOn(n -> n.channel() == NotificationChannel.SMS)
+                    .extracting(Notification::userId, Notification::recipient)
+                    .containsExactly(tuple(2L, "+94 77 123 4567"));
+        } finally {
+            ReflectionTestUtils.setField(scheduler, "channels", Set.of(NotificationChannel.EMAIL));
+        }
+    }
+
+    private void loan(long userId, LocalDateTime dueAt, String status, LocalDateTime returnedAt) {
+        jdbc.update("INSERT INTO loans (id, book_id, user_id, checkout_at, due_at, returned_at, status, renewal_count) " +
+                "VALUES (?, 1, ?, ?, ?, ?, ?, 0)", ++lastLoanId, userId, ts(dueAt.minusDays(14)), ts(dueAt), ts(returnedAt), status);
+    }
+
+    private static Timestamp ts(LocalDateTime t) {
+        return t == null ? null : Timestamp.valueOf(t);
+    }
+
+    static class CapturingSender implements NotificationSender {
+        final Queue<Notification> sent = new ConcurrentLinkedQueue<>();
+        final Set<Long> failFor = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public boolean supports(NotificationChannel channel) {
+            return true;
+        }
+
+        @Override
+        public void send(Notification notification) {
+            if (failFor.contains(notification.userId())) throw new IllegalStateException("gateway timeout");
+            sent.add(notification);
+        }
+    }
+
+    @TestConfiguration
+    static class CapturingConfig {
+        @Bean
+        @Order(0)
+        CapturingSender capturingSender() {
+            return new CapturingSender();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package lk.sliit.lms.reports;
+
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.BookStatus;
+import lk.sliit.lms.loans.Loan;
+import lk.sliit.lms.loans.LoanRepository;
+import lk.sliit.lms.loans.LoanStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = lk.sliit.lms.LmsBackendApplication.class)
+@ActiveProfiles("test")
+class ReportServiceTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void checkoutsAndDeletesMoveTheCountersUpdatesDoNot() {
+        LocalDate day = LocalDate.of(2024, 1, 10);
+        long popular = book("9780000001001", "Popular").getId();
+        long quiet = book("9780000001002", "Quiet").getId();
+
+        Loan first = loan(popular, day);
+        Loan second = loan(popular, day);
+        loan(quiet, day);
+        assertThat(borrows(popular)).isEqualTo(2);
+        assertThat(borrows(quiet)).isEqualTo(1);
+        assertThat(reportService.checkouts(day, day)).containsExactly(new DailyCount(day, 3));
+        assertThat(reportService.popular(100))
+                .filteredOn(p -> p.bookId() == popular || p.bookId() == quiet)
+                .extracting(PopularBook::title)
+                .containsExactly("Popular", "Quiet");
+
+        first.setStatus(LoanStatus.RETURNED);
+        first.setReturnedAt(day.atTime(17, 0));
+        loanRepository.save(first);
+        assertThat(borrows(popular)).isEqualTo(2);
+
+        loanRepository.delete(second);
+        assertThat(borrows(popular)).isEqualTo(1);
+        assertThat(reportService.checkouts(day, day)).containsExactly(new DailyCount(day, 2));
+    }
+
+    @Test
+    void countersNeverGoNegativeAndZeroRowsLeaveTheTopList() {
+        LocalDate day = LocalDate.of(2024, 2, 20);
+        long bookId = book("9780000001003", "Drifted").getId();
+        Loan loan = loan(bookId, day);
+
+        // A lost increment: the summary row is gone before the loan is deleted.
+        jdbc.update("DELETE FROM report_book_borrows WHERE book_id = ?", bookId);
+        loanRepository.delete(loan);
+
+        assertThat(borrows(bookId)).isZero();
+        assertThat(reportService.popular(100)).extracting(PopularBook::bookId).doesNotContain(bookId);
+        assertThat(reportService.checkouts(day, day)).containsExactly(new DailyCount(day, 0));
+    }
+
+    @Test
+    void rebuildRecomputesFromLoans() {
+        LocalDate day = LocalDate.of(2024, 3, 5);
+        long bookId = book("9780000001004", "Rebuilt").getId();
+        loan(bookId, day);
+        loan(bookId, day.plusDays(1));
+
+        jdbc.update("UPDATE report_book_borrows SET borrow_count = 99 WHERE book_id = ?", bookId);
+        jdbc.update("DELETE FROM report_daily_checkouts WHERE report_date = ?", Date.valueOf(day));
+
+        reportService.rebuild();
+
+        assertThat(borrows(bookId)).isEqualTo(2);
+        assertThat(reportService.checkouts(day, day.plusDays(1)))
+                .containsExactly(new DailyCount(day, 1), new DailyCount(day.plusDays(1), 1));
+    }
+
+    private long borrows(long bookId) {
+        return jdbc.query("SELECT borrow_count FROM report_book_borrows WHERE book_id = ?",
+                rs -> rs.next() ? rs.getLong(1) : 0L, bookId);
+    }
+
+    private Loan loan(long bookId, LocalDate day) {
+        LocalDateTime at = day.atTime(10, 0);
+        return loanRepository.save(Loan.builder()
+                .bookId(bookId)
+                .userId(1L)
+                .checkoutAt(at)
+                .dueAt(at.plusDays(14))
+                .status(LoanStatus.ACTIVE)
+                .build());
+    }
+
+    private Book book(String isbn, String title) {
+        return bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title(title)
+                .author("Test")
+                .quantity(5)
+                .status(BookStatus.AVAILABLE)
+                .build());
+    }
+}
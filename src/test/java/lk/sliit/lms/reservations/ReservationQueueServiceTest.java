@@ -0,0 +1,150 @@
+package lk.sliit.lms.reservations;
+
+import lk.sliit.lms.auth.DbUserDetails;
+import lk.sliit.lms.auth.User;
+import lk.sliit.lms.auth.UserStatus;
+import lk.sliit.lms.books.Book;
+import lk.sliit.lms.books.BookRepository;
+import lk.sliit.lms.books.BookStatus;
+import lk.sliit.lms.common.BusinessRuleException;
+import lk.sliit.lms.common.NotFoundException;
+import lk.sliit.lms.loans.Loan;
+import lk.sliit.lms.loans.LoanService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = lk.sliit.lms.LmsBackendApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReservationQueueServiceTest {
+
+    @Autowired
+    private ReservationQueueService reservations;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void queueIsFirstComeFirstServed() {
+        Book book = save("9780131103627", "The C Programming Language", 1);
+        Loan loan = loanService.checkout(book.getId(), 1L);
+
+        ReservationView second = reservations.enqueue(book.getId(), 2L);
+        ReservationView third = reservations.enqueue(book.getId(), 3L);
+        ReservationView fourth = reservations.enqueue(book.getId(), 4L);
+        assertThat(second.queuePosition()).isEqualTo(1);
+        assertThat(third.queuePosition()).isEqualTo(2);
+        assertThat(fourth.queuePosition()).isEqualTo(3);
+
+        reservations.cancel(third.id(), 3L);
+        assertThat(reservations.view(fourth.id(), 4L).queuePosition()).isEqualTo(2);
+
+        loanService.returnLoan(loan.getId());
+
+        assertThat(reservations.view(second.id(), 2L).status()).isEqualTo(ReservationStatus.READY);
+        assertThat(reservations.view(fourth.id(), 4L).queuePosition()).isEqualTo(1);
+        assertThat(reservations.queueLength(book.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void readyHoldKeepsTheCopyForItsOwner() {
+        Book book = save("9780262033848", "Introduction to Algorithms", 1);
+        Loan loan = loanService.checkout(book.getId(), 1L);
+        ReservationView held = reservations.enqueue(book.getId(), 2L);
+        loanService.returnLoan(loan.getId());
+
+        assertThatThrownBy(() -> loanService.checkout(book.getId(), 5L))
+                .isInstanceOf(BusinessRuleException.class)
+                .hasMessageContaining("held for reservations");
+
+        loanService.checkout(book.getId(), 2L);
+        assertThat(reservationRepository.findById(held.id()).orElseThrow().getStatus())
+                .isEqualTo(ReservationStatus.FULFILLED);
+    }
+
+    @Test
+    void copiesBeyondTheHoldsStayOpenToEveryone() {
+        Book book = save("9780201485370", "Refactoring", 2);
+        Loan first = loanService.checkout(book.getId(), 1L);
+        Loan second = loanService.checkout(book.getId(), 2L);
+        reservations.enqueue(book.getId(), 3L);
+        loanService.returnLoan(first.getId());
+        loanService.returnLoan(second.getId());
+
+        // Two copies on the shelf, one of them held: a member without a hold gets the other.
+        assertThat(loanService.checkout(book.getId(), 5L).getUserId()).isEqualTo(5L);
+        assertThatThrownBy(() -> loanService.checkout(book.getId(), 6L)).isInstanceOf(BusinessRuleException.class);
+    }
+
+    @Test
+    void membersOnlySeeAndCancelTheirOwnReservations() throws Exception {
+        Book book = save("9780136083238", "Clean Code", 0);
+        ReservationView mine = reservations.enqueue(book.getId(), 7001L);
+
+        mvc.perform(get("/api/reservations/" + mine.id()).with(user(member(7002L))))
+                .andExpect(status().isNotFound());
+        mvc.perform(post("/api/reservations/" + mine.id() + "/cancel").with(user(member(7002L))))
+                .andExpect(status().isNotFound());
+        assertThatThrownBy(() -> reservations.cancel(mine.id(), 7002L)).isInstanceOf(NotFoundException.class);
+
+        mvc.perform(get("/api/reservations/" + mine.id()).with(user(member(7001L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queuePosition").value(1));
+        mvc.perform(post("/api/reservations/" + mine.id() + "/cancel").with(user(member(7001L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+
+    @Test
+    void emptyQueuesAreDroppedFromMemory() {
+        Book book = save("9780321125217", "Domain-Driven Design", 0);
+        ReservationView only = reservations.enqueue(book.getId(), 8001L);
+        assertThat(reservations.isCached(book.getId())).isTrue();
+
+        reservations.cancel(only.id(), 8001L);
+        assertThat(reservations.isCached(book.getId())).isFalse();
+
+        // Positions keep growing after a reload, so a later reservation still sorts last.
+        ReservationView next = reservations.enqueue(book.getId(), 8002L);
+        assertThat(reservationRepository.findById(next.id()).orElseThrow().getPosition()).isGreaterThan(1);
+        assertThat(next.queuePosition()).isEqualTo(1);
+    }
+
+    private static DbUserDetails member(long id) {
+        return new DbUserDetails(User.builder().id(id).name("Member " + id).email(id + "@lms.local").passwordHash("x")
+                .status(UserStatus.ACTIVE).roles(new HashSet<>()).build());
+    }
+
+    private Book save(String isbn, String title, int copies) {
+        return bookRepository.save(Book.builder()
+                .isbn(isbn)
+                .title(title)
+                .author("Test")
+                .quantity(copies)
+                .status(BookStatus.AVAILABLE)
+                .build());
+    }
+}
@@ -0,0 +1,94 @@
+package lk.sliit.lms.search;
+
+import lk.sliit.lms.books.BookStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSearchIndexTest {
+
+    @Test
+    void prefixOnTheLastTokenAndExactMatchesBefore() {
+        CatalogSearchIndex index = new CatalogSearchIndex();
+        index.replaceAll(List.of(
+                book(1, "Clean Code", "Fiction", 1),
+                book(2, "Clean Architecture", "Software", 1),
+                book(3, "Code Complete", "Software", 1)));
+
+        assertThat(ids(index.search("clean arch", false, null, 0, 10))).containsExactly(2L);
+        assertThat(ids(index.search("co", false, null, 0, 10))).containsExactly(1L, 3L);
+        assertThat(ids(index.search("arch clean", false, null, 0, 10))).isEmpty();
+    }
+
+    @Test
+    void aShortPrefixMatchesEveryTermItStarts() {
+        CatalogSearchIndex index = new CatalogSearchIndex();
+        // 1,000 distinct "s..." title terms, and every book also has "Software" as its genre.
+        index.replaceAll(LongStream.rangeClosed(1, 1000)
+                .mapToObj(id -> book(id, "S" + id + " Sequel" + id, "Software", 1)).toList());
+
+        SearchPage page = index.search("s", false, null, 9, 100);
+        assertThat(page.total()).isEqualTo(1000);
+        assertThat(ids(page)).hasSize(100).startsWith(901L).endsWith(1000L);
+        assertThat(index.search("sequel99", false, null, 0, 100).total()).isEqualTo(11);
+    }
+
+    @Test
+    void deepPagesDoNotOverflowTheOffset() {
+        CatalogSearchIndex index = new CatalogSearchIndex();
+        index.replaceAll(LongStream.rangeClosed(1, 250).mapToObj(id -> book(id, "Book " + id, "Software", 1)).toList());
+
+        SearchPage last = index.search("", false, null, 2, 100);
+        assertThat(ids(last)).hasSize(50).startsWith(201L).endsWith(250L);
+        assertThat(last.total()).isEqualTo(250);
+
+        // page * size is past Integer.MAX_VALUE: an int offset would wrap negative and return page one.
+        SearchPage beyond = index.search("", false, null, Integer.MAX_VALUE, 100);
+        assertThat(beyond.items()).isEmpty();
+        assertThat(beyond.total()).isEqualTo(250);
+
+        assertThatThrownBy(() -> index.search("", false, null, -1, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.search("", false, null, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void filtersFollowReindexAndRemove() {
+        CatalogSearchIndex index = new CatalogSearchIndex();
+        index.replaceAll(List.of(
+                book(1, "Dune", "Fiction", 2),
+                book(2, "Emma", "Fiction", 0),
+                book(3, "SICP", "Software", 1)));
+
+        assertThat(ids(index.search(null, true, null, 0, 10))).containsExactly(1L, 3L);
+        assertThat(ids(index.search("", false, " FICTION ", 0, 10))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("", true, "fiction", 0, 10))).containsExactly(1L);
+        assertThat(index.search("", true, "fiction", 0, 10).total()).isEqualTo(1);
+
+        index.index(book(2, "Emma", "Classics", 3));
+        assertThat(ids(index.search("", true, null, 0, 10))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.search("", false, "fiction", 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("", false, "classics", 0, 10))).containsExactly(2L);
+
+        index.index(book(4, "Beloved", "  Fiction ", 1));
+        assertThat(ids(index.search("", false, "fiction", 0, 10))).containsExactly(1L, 4L);
+        index.remove(4);
+        assertThat(ids(index.search("", false, "fiction", 0, 10))).containsExactly(1L);
+
+        index.remove(1);
+        assertThat(ids(index.search("", true, "fiction", 0, 10))).isEmpty();
+        assertThat(ids(index.search("dune", false, null, 0, 10))).isEmpty();
+        assertThat(index.search("", false, "poetry", 0, 10).total()).isZero();
+    }
+
+    private static IndexedBook book(long id, String title, String genre, int quantity) {
+        return new IndexedBook(id, "978" + String.format("%010d", id), title, "Author", genre, quantity, BookStatus.AVAILABLE);
+    }
+
+    private static List<Long> ids(SearchPage page) {
+        return page.items().stream().map(IndexedBook::id).toList();
+    }
+}
@@ -0,0 +1,32 @@
+-- Tables kept up by Flyway migrations only (tests run with ddl-auto=create-drop).
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+  job_name VARCHAR(100) PRIMARY KEY,
+  run_key VARCHAR(64) NOT NULL,
+  last_key VARCHAR(32),
+  last_at DATETIME,
+  last_id BIGINT NOT NULL,
+  completed BOOLEAN NOT NULL DEFAULT FALSE,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS report_book_borrows (
+  book_id BIGINT PRIMARY KEY,
+  borrow_count BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS report_daily_checkouts (
+  report_date DATE PRIMARY KEY,
+  checkouts BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS report_daily_overdue (
+  report_date DATE PRIMARY KEY,
+  overdue_loans BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS notification_retries (
+  run_key VARCHAR(64) NOT NULL,
+  user_id BIGINT NOT NULL,
+  channel VARCHAR(16) NOT NULL,
+  PRIMARY KEY (run_key, user_id, channel)
+);
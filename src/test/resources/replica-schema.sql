@@ -0,0 +1,16 @@
+-- Stand-in replica for ReadReplicaRoutingTest: only the tables the read-only paths touch.
+CREATE TABLE IF NOT EXISTS books (
+  id BIGINT PRIMARY KEY,
+  isbn VARCHAR(32) NOT NULL UNIQUE,
+  title VARCHAR(255) NOT NULL,
+  author VARCHAR(255) NOT NULL,
+  genre VARCHAR(100) NULL,
+  quantity INT NOT NULL,
+  status VARCHAR(32) NOT NULL,
+  version BIGINT NULL
+);
+
+CREATE TABLE IF NOT EXISTS report_book_borrows (
+  book_id BIGINT PRIMARY KEY,
+  borrow_count BIGINT NOT NULL
+);